@@ -27,6 +27,8 @@ import com.example.calendar.database.AppDatabase;
 import com.example.calendar.model.Event;
 import com.example.calendar.model.Reminder;
 import com.example.calendar.utils.ReminderManager;
+import com.example.calendar.utils.AppExecutors;
+import com.example.calendar.utils.EventRepository;
 import com.google.android.material.card.MaterialCardView;
 import com.google.android.material.datepicker.MaterialDatePicker;
 import com.google.android.material.switchmaterial.SwitchMaterial;
@@ -38,8 +40,6 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * // 功能：添加/编辑事件Activity
@@ -63,7 +63,7 @@ public class AddEventActivity extends AppCompatActivity {
     private Calendar startCalendar, endCalendar;
     private SimpleDateFormat dateTimeFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm", Locale.getDefault());
 
-    private ExecutorService executorService;
+    private AppExecutors.TaskScope scope;
 
     private MaterialCardView radioGroupRrule;
     private TextView tvRrule;
@@ -90,8 +90,8 @@ public class AddEventActivity extends AppCompatActivity {
             return insets;
         });
 
-        // 初始化线程池
-        executorService = Executors.newFixedThreadPool(2);
+        // 与页面生命周期绑定的任务范围
+        scope = AppExecutors.getInstance().newScope(this);
 
         // 初始化日历对象
         startCalendar = Calendar.getInstance();
@@ -246,7 +246,7 @@ public class AddEventActivity extends AppCompatActivity {
     }
 
     private void loadEvent(long eventId) {
-        executorService.execute(() -> {
+        scope.execute(AppExecutors.getInstance().dbRead(), () -> {
             try {
                 // 从数据库加载事件数据
                 event = db.eventDao().getEventById(eventId);
@@ -255,7 +255,7 @@ public class AddEventActivity extends AppCompatActivity {
                 List<Reminder> eventReminders = db.eventDao().getRemindersByEventId(eventId);
 
                 // 在主线程中填充UI控件
-                runOnUiThread(() -> {
+                scope.post(() -> {
                     if (event != null) {
                         etTitle.setText(event.getTitle());
                         etDescription.setText(event.getDescription());
@@ -335,7 +335,7 @@ public class AddEventActivity extends AppCompatActivity {
                     }
                 });
             } catch (Exception e) {
-                runOnUiThread(() ->
+                scope.post(() ->
                         Toast.makeText(AddEventActivity.this, "加载事件失败: " + e.getMessage(), Toast.LENGTH_SHORT).show());
             }
         });
@@ -397,32 +397,34 @@ public class AddEventActivity extends AppCompatActivity {
 
 
         // 在后台线程中保存到数据库
-        executorService.execute(() -> {
+        // 写入不随页面取消，保存完成后页面才关闭
+        AppExecutors.getInstance().dbWrite().execute(() -> {
             try {
                 // 保存到数据库
                 long eventId;
                 if (event.getId() == 0) {
                     // 新增事件
-                    eventId = db.eventDao().insertEvent(event);
+                    eventId = db.eventDao().insertEventWithOccurrences(event);
                     event.setId(eventId);
                 } else {
-                    // 更新事件
-                    db.eventDao().updateEvent(event);
+                    // 更新事件，旧版本所在的月份缓存也要淘汰
+                    EventRepository.getInstance(this).invalidateEvent(db.eventDao().getEventById(event.getId()));
+                    db.eventDao().updateEventWithOccurrences(event);
                     eventId = event.getId();
                 }
+                EventRepository.getInstance(this).invalidateEvent(event);
 
                 // 保存提醒
                 // 先删除旧的提醒
                 db.eventDao().deleteRemindersByEventId(eventId);
 
-                // 保存新的提醒
+                // 保存新的提醒，一次批量插入
                 for (Reminder reminder : reminderList) {
- /*                   reminder.setEventId(eventId);
-                    db.eventDao().insertReminder(reminder);*/
-
                     reminder.setEventId(eventId);
-                    long reminderId = db.eventDao().insertReminder(reminder);
-                    reminder.setId((int) reminderId); // 确保 reminderId 不为 0
+                }
+                List<Long> reminderIds = db.eventDao().insertReminders(reminderList);
+                for (int i = 0; i < reminderIds.size(); i++) {
+                    reminderList.get(i).setId(reminderIds.get(i)); // 确保 reminderId 不为 0
                 }
 
                 // 确保通知权限再设置提醒
@@ -439,7 +441,7 @@ public class AddEventActivity extends AppCompatActivity {
 */
 
                 // 在主线程中返回结果和显示提示
-                runOnUiThread(() -> {
+                scope.post(() -> {
                     // 先显示提示再finish
                     Toast.makeText(AddEventActivity.this, "事件保存成功", Toast.LENGTH_SHORT).show();
                     // 返回结果
@@ -448,7 +450,7 @@ public class AddEventActivity extends AppCompatActivity {
                 });
             } catch (Exception e) {
                 // 在主线程中显示错误提示
-                runOnUiThread(() ->
+                scope.post(() ->
                         Toast.makeText(AddEventActivity.this, "保" + e.getMessage(), Toast.LENGTH_SHORT).show());
             }
         });
@@ -466,12 +468,4 @@ public class AddEventActivity extends AppCompatActivity {
             }
         }
     }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (executorService != null) {
-            executorService.shutdown();
-        }
-    }
 }
\ No newline at end of file
@@ -15,12 +15,12 @@ import androidx.core.view.WindowInsetsCompat;
 import com.example.calendar.database.AppDatabase;
 import com.example.calendar.model.Event;
 import com.example.calendar.utils.ReminderManager;
+import com.example.calendar.utils.AppExecutors;
+import com.example.calendar.utils.EventRepository;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import androidx.appcompat.widget.Toolbar;
 
 /**
@@ -33,7 +33,7 @@ public class EventDetailsActivity extends AppCompatActivity {
     
     private AppDatabase db;
     private Event event;
-    private ExecutorService executorService;
+    private AppExecutors.TaskScope scope;
     
     private SimpleDateFormat dateTimeFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm", Locale.getDefault());
     
@@ -65,7 +65,7 @@ public class EventDetailsActivity extends AppCompatActivity {
         
         // 初始化数据库和线程池
         db = AppDatabase.getDatabase(this);
-        executorService = Executors.newFixedThreadPool(2);
+        scope = AppExecutors.getInstance().newScope(this);
         
         // 初始化UI
         initUI();
@@ -108,15 +108,15 @@ public class EventDetailsActivity extends AppCompatActivity {
     }
     
     private void loadEvent(long eventId) {
-        executorService.execute(() -> {
+        scope.execute(AppExecutors.getInstance().dbRead(), () -> {
             try {
                 // 从数据库获取事件
                 event = db.eventDao().getEventById(eventId);
                 
                 // 在主线程中更新UI
-                runOnUiThread(this::updateUI);
+                scope.post(this::updateUI);
             } catch (Exception e) {
-                runOnUiThread(() -> {
+                scope.post(() -> {
                     Toast.makeText(EventDetailsActivity.this, "加载事件失败: " + e.getMessage(), Toast.LENGTH_SHORT).show();
                     finish();
                 });
@@ -143,7 +143,8 @@ public class EventDetailsActivity extends AppCompatActivity {
     }
     
     private void deleteEvent() {
-        executorService.execute(() -> {
+        // 写入不随页面取消
+        AppExecutors.getInstance().dbWrite().execute(() -> {
             try {
                 // 取消提醒
                 ReminderManager reminderManager = new ReminderManager(EventDetailsActivity.this);
@@ -151,9 +152,10 @@ public class EventDetailsActivity extends AppCompatActivity {
                 
                 // 从数据库删除事件
                 db.eventDao().deleteEvent(event);
+                EventRepository.getInstance(EventDetailsActivity.this).invalidateEvent(event);
                 
                 // 在主线程中返回结果和显示提示
-                runOnUiThread(() -> {
+                scope.post(() -> {
                     Toast.makeText(EventDetailsActivity.this, "事件删除成功", Toast.LENGTH_SHORT).show();
                     // 设置结果码为 RESULT_OK 以便主界面刷新
                     setResult(RESULT_OK);
@@ -161,7 +163,7 @@ public class EventDetailsActivity extends AppCompatActivity {
                 });
             } catch (Exception e) {
                 // 在主线程中显示错误提示
-                runOnUiThread(() -> 
+                scope.post(() -> 
                     Toast.makeText(EventDetailsActivity.this, "删除事件失败: " + e.getMessage(), Toast.LENGTH_SHORT).show());
             }
         });
@@ -176,12 +178,4 @@ public class EventDetailsActivity extends AppCompatActivity {
             finish();
         }
     }
-    
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (executorService != null) {
-            executorService.shutdown();
-        }
-    }
 }
\ No newline at end of file
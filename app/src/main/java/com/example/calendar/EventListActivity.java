@@ -16,13 +16,12 @@ import androidx.core.view.WindowInsetsCompat;
 import com.example.calendar.adapter.EventListAdapter;
 import com.example.calendar.database.AppDatabase;
 import com.example.calendar.model.Event;
+import com.example.calendar.utils.AppExecutors;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * // 功能：事件列表Activity，显示同一天的所有事件
@@ -37,7 +36,7 @@ public class EventListActivity extends AppCompatActivity {
     private List<Event> events;
     
     private AppDatabase db;
-    private ExecutorService executorService;
+    private AppExecutors.TaskScope scope;
     
     private int year;
     private int month;
@@ -58,7 +57,7 @@ public class EventListActivity extends AppCompatActivity {
         
         // 初始化数据库和线程池
         db = AppDatabase.getDatabase(this);
-        executorService = Executors.newFixedThreadPool(2);
+        scope = AppExecutors.getInstance().newScope(this);
         
         // 获取传入的日期参数
         year = getIntent().getIntExtra("year", 0);
@@ -92,21 +91,21 @@ public class EventListActivity extends AppCompatActivity {
     }
     
     private void loadEvents() {
-        executorService.execute(() -> {
+        scope.execute(AppExecutors.getInstance().dbRead(), () -> {
             try {
-                // 计算当天的开始和结束时间戳
+                // 计算当天的开始时间戳和次日的开始时间戳
                 long startTime = new Date(year - 1900, month, day).getTime();
-                long endTime = new Date(year - 1900, month, day, 23, 59, 59).getTime();
+                long endTime = new Date(year - 1900, month, day + 1).getTime();
                 
-                // 查询数据库获取事件
-                events = db.eventDao().getEventsByDateRange(startTime, endTime);
+                // 查询数据库获取与当天有交集的事件（包括跨天事件和重复事件的实例）
+                events = db.eventDao().getEventInstancesInRange(startTime, endTime);
                 
                 // 在主线程中更新UI
-                runOnUiThread(() -> {
+                scope.post(() -> {
                     updateUI();
                 });
             } catch (Exception e) {
-                runOnUiThread(() -> {
+                scope.post(() -> {
                     Toast.makeText(EventListActivity.this, "加载事件失败: " + e.getMessage(), Toast.LENGTH_SHORT).show();
                 });
             }
@@ -136,12 +135,4 @@ public class EventListActivity extends AppCompatActivity {
         // 重新加载事件数据，以防在其他地方有修改
         loadEvents();
     }
-    
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (executorService != null) {
-            executorService.shutdown();
-        }
-    }
 }
\ No newline at end of file
@@ -26,14 +26,14 @@ import androidx.viewpager2.widget.ViewPager2;
 
 import com.example.calendar.adapter.CalendarViewPagerAdapter;
 import com.example.calendar.database.AppDatabase;
-import com.example.calendar.model.Event;
+import com.example.calendar.database.EventBatchWriter;
 import com.example.calendar.service.SubscriptionSyncService;
-import com.example.calendar.ui.fragment.MonthViewFragment;
 import com.example.calendar.utils.FileExportUtils;
 import com.example.calendar.utils.IcsImportExportUtils;
+import com.example.calendar.utils.AppExecutors;
+import com.example.calendar.utils.EventRepository;
 
 import java.util.Calendar;
-import java.util.List;
 
 /**
  * 主 Activity（右上角操作栏版本）
@@ -97,6 +97,14 @@ public class MainActivity extends AppCompatActivity {
         viewPager.setAdapter(adapter);
         viewPager.setCurrentItem(100, false);
 
+        // 翻页后预取相邻月份，新页面创建时数据已经在缓存中
+        viewPager.registerOnPageChangeCallback(new ViewPager2.OnPageChangeCallback() {
+            @Override
+            public void onPageSelected(int position) {
+                adapter.prefetchAround(position);
+            }
+        });
+
         // + 添加事件
         btnAddEvent.setOnClickListener(v -> {
             Intent intent = new Intent(this, AddEventActivity.class);
@@ -162,12 +170,16 @@ public class MainActivity extends AppCompatActivity {
 
     private void showMoreMenu() {
         PopupMenu menu = new PopupMenu(this, btnMore);
+        menu.getMenu().add("搜索");
         menu.getMenu().add("导入");
         menu.getMenu().add("导出");
         menu.getMenu().add("订阅");
 
         menu.setOnMenuItemClickListener(item -> {
             switch (item.getTitle().toString()) {
+                case "搜索":
+                    startActivity(new Intent(this, SearchActivity.class));
+                    break;
                 case "导入":
                     importEvents();
                     break;
@@ -184,6 +196,9 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void goToCurrentMonth() {
+        // 跳回今天后原来附近的月份不再需要，取消还没做完的预取
+        adapter.cancelPrefetch();
+
         Calendar now = Calendar.getInstance();
         currentYear = now.get(Calendar.YEAR);
         currentMonth = now.get(Calendar.MONTH);
@@ -192,8 +207,12 @@ public class MainActivity extends AppCompatActivity {
         viewPager.setAdapter(adapter);
         viewPager.setCurrentItem(100, false);
         btnViewMode.setText("月 ▾");
+    }
 
-        refreshCurrentView();
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        adapter.cancelPrefetch();
     }
 
     private void switchToView(int viewType) {
@@ -207,20 +226,6 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
-    private void refreshCurrentView() {
-        adapter.notifyDataSetChanged();
-
-        int position = viewPager.getCurrentItem();
-        if (adapter.getCurrentViewType() == CalendarViewPagerAdapter.VIEW_TYPE_MONTH) {
-            int[] dateInfo = adapter.getDateInfo(position);
-            MonthViewFragment fragment = (MonthViewFragment)
-                    getSupportFragmentManager().findFragmentByTag("f" + position);
-            if (fragment != null) {
-                fragment.refreshEvents();
-            }
-        }
-    }
-
     private void initFilePicker() {
         filePickerLauncher = registerForActivityResult(
                 new ActivityResultContracts.GetContent(),
@@ -235,45 +240,52 @@ public class MainActivity extends AppCompatActivity {
     private void importEventsFromFile(Uri uri) {
         if (uri == null) return;
 
-        new Thread(() -> {
+        AppExecutors.getInstance().dbWrite().execute(() -> {
+            // 边解析边分块写入
             try {
-                String content = IcsImportExportUtils.readIcsFile(this, uri);
-                List<Event> events = IcsImportExportUtils.parseIcsContent(content);
-
                 AppDatabase db = AppDatabase.getDatabase(this);
-                for (Event e : events) {
+                EventBatchWriter writer = new EventBatchWriter(db.eventDao());
+                // 大文件在多核设备上并行解析，其余流式解析
+                IcsImportExportUtils.importIcsFile(this, uri, e -> {
                     e.setType(4);
-                    db.eventDao().insertEvent(e);
-                }
-
-                runOnUiThread(() -> {
-                    Toast.makeText(this, "成功导入 " + events.size() + " 个事件", Toast.LENGTH_SHORT).show();
-                    refreshCurrentView();
+                    writer.add(e);
                 });
+                writer.flush();
+                EventRepository.getInstance(this).invalidateAll();
+
+                // 写入数据库后可见的视图会收到表变化通知，自动刷新
+                StringBuilder message = new StringBuilder("成功导入 ")
+                        .append(writer.getInsertedCount()).append(" 个事件");
+                if (writer.getUpdatedCount() > 0) {
+                    message.append("，更新已有事件 ").append(writer.getUpdatedCount()).append(" 个");
+                }
+                if (writer.getSkippedCount() > 0) {
+                    message.append("，跳过重复条目 ").append(writer.getSkippedCount()).append(" 个");
+                }
+                runOnUiThread(() ->
+                        Toast.makeText(this, message, Toast.LENGTH_SHORT).show());
             } catch (Exception e) {
                 runOnUiThread(() ->
                         Toast.makeText(this, "导入失败：" + e.getMessage(), Toast.LENGTH_SHORT).show());
             }
-        }).start();
+        });
     }
 
     private void exportEvents() {
-        new Thread(() -> {
+        AppExecutors.getInstance().dbRead().execute(() -> {
             try {
-                List<Event> events = AppDatabase.getDatabase(this)
-                        .eventDao().getAllEvents();
+                // 在后台线程中边读边写，不在内存中生成整个文件
+                String location = FileExportUtils.exportEventsToICS(
+                        this,
+                        "calendar_export_" + System.currentTimeMillis() + ".ics");
 
                 runOnUiThread(() ->
-                        FileExportUtils.exportEventsToICS(
-                                this,
-                                events,
-                                "calendar_export_" + System.currentTimeMillis() + ".ics"
-                        ));
+                        Toast.makeText(this, "导出成功: " + location, Toast.LENGTH_LONG).show());
             } catch (Exception e) {
                 runOnUiThread(() ->
                         Toast.makeText(this, "导出失败：" + e.getMessage(), Toast.LENGTH_SHORT).show());
             }
-        }).start();
+        });
     }
 
     private void requestStoragePermissions() {
@@ -291,20 +303,4 @@ public class MainActivity extends AppCompatActivity {
         intent.putExtra("event_id", eventId);
         startActivityForResult(intent, REQUEST_CODE_EVENT_DETAILS);
     }
-
-    @Override
-    protected void onActivityResult(int requestCode, int resultCode, Intent data) {
-        super.onActivityResult(requestCode, resultCode, data);
-        if ((requestCode == REQUEST_CODE_ADD_EVENT ||
-                requestCode == REQUEST_CODE_EVENT_DETAILS)
-                && resultCode == RESULT_OK) {
-            refreshCurrentView();
-        }
-    }
-
-    @Override
-    protected void onResume() {
-        super.onResume();
-        refreshCurrentView();
-    }
 }
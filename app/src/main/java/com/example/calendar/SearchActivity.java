@@ -0,0 +1,179 @@
+package com.example.calendar;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.view.View;
+import android.widget.AbsListView;
+import android.widget.EditText;
+import android.widget.ListView;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.activity.EdgeToEdge;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.graphics.Insets;
+import androidx.core.view.ViewCompat;
+import androidx.core.view.WindowInsetsCompat;
+
+import com.example.calendar.adapter.EventListAdapter;
+import com.example.calendar.database.AppDatabase;
+import com.example.calendar.model.Event;
+import com.example.calendar.utils.AppExecutors;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * // 功能：事件搜索Activity，按标题、描述、地点全文搜索并分页显示结果
+ */
+public class SearchActivity extends AppCompatActivity {
+
+    // 每页加载的条数
+    private static final int PAGE_SIZE = 50;
+    // 输入停顿多久后再搜索（毫秒）
+    private static final long SEARCH_DELAY = 250;
+
+    private EditText etSearch;
+    private TextView tvEmpty;
+    private ListView listView;
+
+    private EventListAdapter adapter;
+    private final List<Event> results = new ArrayList<>();
+
+    private AppDatabase db;
+    private AppExecutors.TaskScope scope;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    private String currentQuery = "";
+    private int generation; // 每次输入变化加一，丢弃过期的查询结果
+    private boolean loading;
+    private boolean hasMore;
+
+    private final Runnable searchRunnable = () -> startSearch(etSearch.getText().toString());
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        EdgeToEdge.enable(this);
+        setContentView(R.layout.activity_search);
+        ViewCompat.setOnApplyWindowInsetsListener(findViewById(R.id.main), (v, insets) -> {
+            Insets systemBars = insets.getInsets(WindowInsetsCompat.Type.systemBars());
+            v.setPadding(systemBars.left, systemBars.top, systemBars.right, systemBars.bottom);
+            return insets;
+        });
+
+        // 初始化数据库和线程池
+        db = AppDatabase.getDatabase(this);
+        scope = AppExecutors.getInstance().newScope(this);
+
+        initUI();
+    }
+
+    private void initUI() {
+        etSearch = findViewById(R.id.et_search);
+        tvEmpty = findViewById(R.id.tv_empty);
+        listView = findViewById(R.id.list_view);
+
+        adapter = new EventListAdapter(this, results);
+        listView.setAdapter(adapter);
+
+        // 设置列表项点击事件
+        listView.setOnItemClickListener((parent, view, position, id) -> {
+            Event event = results.get(position);
+            Intent intent = new Intent(SearchActivity.this, EventDetailsActivity.class);
+            intent.putExtra("event_id", event.getId());
+            startActivity(intent);
+        });
+
+        // 滚动到接近底部时加载下一页
+        listView.setOnScrollListener(new AbsListView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(AbsListView view, int scrollState) {
+            }
+
+            @Override
+            public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {
+                if (hasMore && !loading && firstVisibleItem + visibleItemCount >= totalItemCount - 5) {
+                    loadPage(currentQuery, results.size(), generation);
+                }
+            }
+        });
+
+        // 输入停顿后再搜索，避免每输入一个字都查询
+        etSearch.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                handler.removeCallbacks(searchRunnable);
+                handler.postDelayed(searchRunnable, SEARCH_DELAY);
+            }
+        });
+    }
+
+    /**
+     * 开始新的搜索，清空之前的结果
+     * @param query 搜索文本
+     */
+    private void startSearch(String query) {
+        currentQuery = query.trim();
+        generation++;
+        results.clear();
+        adapter.updateEvents(results);
+        tvEmpty.setVisibility(View.GONE);
+        hasMore = false;
+        loading = false;
+
+        if (currentQuery.isEmpty()) {
+            return;
+        }
+        loadPage(currentQuery, 0, generation);
+    }
+
+    /**
+     * 在后台线程加载一页搜索结果
+     * @param query 搜索文本
+     * @param offset 跳过的条数
+     * @param requestGeneration 发起查询时的输入版本
+     */
+    private void loadPage(String query, int offset, int requestGeneration) {
+        loading = true;
+        scope.execute(AppExecutors.getInstance().dbRead(), () -> {
+            try {
+                List<Event> page = db.eventDao().searchEvents(query, PAGE_SIZE, offset);
+
+                scope.post(() -> {
+                    if (requestGeneration != generation) {
+                        return; // 输入已经变化，丢弃过期结果
+                    }
+                    loading = false;
+                    hasMore = page.size() == PAGE_SIZE;
+                    results.addAll(page);
+                    adapter.updateEvents(results);
+                    tvEmpty.setVisibility(results.isEmpty() ? View.VISIBLE : View.GONE);
+                });
+            } catch (Exception e) {
+                scope.post(() -> {
+                    loading = false;
+                    Toast.makeText(SearchActivity.this, "搜索失败: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                });
+            }
+        });
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        handler.removeCallbacks(searchRunnable);
+    }
+}
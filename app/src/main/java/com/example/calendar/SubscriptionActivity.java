@@ -2,8 +2,6 @@ package com.example.calendar;
 
 import android.app.AlertDialog;
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.Looper;
 import android.util.Log;
 import android.widget.Button;
 import android.widget.EditText;
@@ -16,15 +14,14 @@ import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
 
 import com.example.calendar.database.AppDatabase;
-import com.example.calendar.model.Event;
 import com.example.calendar.model.Subscription;
-import com.example.calendar.utils.IcsImportExportUtils;
+import com.example.calendar.service.SyncReport;
+import com.example.calendar.service.SyncScheduler;
 import com.example.calendar.utils.NetworkUtils;
 import com.example.calendar.utils.EventRepository;
+import com.example.calendar.utils.AppExecutors;
 
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * // 功能：订阅管理Activity
@@ -36,8 +33,7 @@ public class SubscriptionActivity extends AppCompatActivity {
     private Button  btnClear;
     
     private AppDatabase db;
-    private ExecutorService executorService;
-    private Handler mainHandler;
+    private AppExecutors.TaskScope scope;
     private SubscriptionActivity eventRepository;
 
     @Override
@@ -54,9 +50,8 @@ public class SubscriptionActivity extends AppCompatActivity {
         // 初始化数据库
         db = AppDatabase.getDatabase(this);
         
-        // 初始化线程池和主线程Handler
-        executorService = Executors.newFixedThreadPool(3);
-        mainHandler = new Handler(Looper.getMainLooper());
+        // 初始化任务范围
+        scope = AppExecutors.getInstance().newScope(this);
         
         // 初始化UI
         initUI();
@@ -81,12 +76,12 @@ public class SubscriptionActivity extends AppCompatActivity {
     }
     
     private void showLastSubscription() {
-        executorService.execute(() -> {
+        scope.execute(AppExecutors.getInstance().dbRead(), () -> {
             // 获取最后一个订阅记录
             List<Subscription> subscriptions = db.eventDao().getAllSubscriptions();
             if (!subscriptions.isEmpty()) {
                 Subscription lastSubscription = subscriptions.get(subscriptions.size() - 1);
-                mainHandler.post(() -> {
+                scope.post(() -> {
                     etName.setText(lastSubscription.getName());
                     etUrl.setText(lastSubscription.getUrl());
                 });
@@ -119,8 +114,8 @@ public class SubscriptionActivity extends AppCompatActivity {
             return;
         }
         
-        // 在后台线程中执行数据库操作
-        executorService.execute(() -> {
+        // 保存到数据库后交给同步调度器立即同步
+        AppExecutors.getInstance().dbWrite().execute(() -> {
             // 创建订阅对象，更新频率设为0表示只执行一次
             Subscription subscription = new Subscription(name, url, 0);
             subscription.setLastUpdateTime(System.currentTimeMillis());
@@ -129,65 +124,31 @@ public class SubscriptionActivity extends AppCompatActivity {
             long id = db.eventDao().insertSubscription(subscription);
             subscription.setId(id);
             
-            // 立即同步订阅数据
-            syncSubscriptionNow(subscription);
-            
-            // 在主线程中显示结果
-            mainHandler.post(() -> {
-                Toast.makeText(this, "订阅添加成功并已同步", Toast.LENGTH_SHORT).show();
-                setResult(RESULT_OK);
-                finish();
-            });
+            // 立即同步订阅数据，与定时同步共用并发上限，同一订阅不会同时同步两次
+            SyncScheduler.getInstance(this).requestSync(id, SyncScheduler.PRIORITY_MANUAL,
+                    report -> scope.post(() -> onSubscriptionSynced(subscription, report)));
         });
     }
     
     /**
-     * 立即同步订阅数据（保存时立即执行）
+     * 立即同步完成后显示结果并关闭页面（主线程）
      * @param subscription 订阅对象
+     * @param report 同步结果
      */
-    private void syncSubscriptionNow(Subscription subscription) {
-        try {
-            // 下载订阅日历文件
-            String icsContent = NetworkUtils.downloadSubscriptionCalendar(subscription);
-            
-            if (icsContent != null) {
-                // 解析ICS内容
-                List<Event> events = IcsImportExportUtils.parseIcsContent(icsContent);
-                
-                // 保存事件到数据库
-                for (Event event : events) {
-
-                    Log.d("ICS_EVENT",
-                            "title=" + event.getTitle()
-                                    + ", start=" + event.getStartTime()
-                                    + ", end=" + event.getEndTime());
-
-                    // 为订阅事件设置特殊标识，避免与用户自建事件冲突
-                    event.setType(3); // 3表示订阅事件
-                    db.eventDao().insertEvent(event);
-                }
-                
-                // 更新最后同步时间
-                subscription.setLastUpdateTime(System.currentTimeMillis());
-                db.eventDao().updateSubscription(subscription);
-                
-                // 在主线程显示成功消息
-                mainHandler.post(() -> 
-                    Toast.makeText(SubscriptionActivity.this, 
-                        "订阅 \"" + subscription.getName() + "\" 同步完成", 
-                        Toast.LENGTH_SHORT).show());
-            } else {
-                mainHandler.post(() -> 
-                    Toast.makeText(SubscriptionActivity.this, 
-                        "订阅 \"" + subscription.getName() + "\" 同步失败", 
-                        Toast.LENGTH_SHORT).show());
-            }
-        } catch (Exception e) {
-            mainHandler.post(() -> 
-                Toast.makeText(SubscriptionActivity.this, 
-                    "同步过程中发生错误: " + e.getMessage(), 
-                    Toast.LENGTH_SHORT).show());
+    private void onSubscriptionSynced(Subscription subscription, SyncReport report) {
+        if (report.isSuccess()) {
+            Toast.makeText(SubscriptionActivity.this, 
+                "订阅 \"" + subscription.getName() + "\" 同步完成", 
+                Toast.LENGTH_SHORT).show();
+        } else {
+            Toast.makeText(SubscriptionActivity.this, 
+                "订阅 \"" + subscription.getName() + "\" 同步失败: " + report.getError(), 
+                Toast.LENGTH_SHORT).show();
         }
+        
+        Toast.makeText(this, "订阅添加成功并已同步", Toast.LENGTH_SHORT).show();
+        setResult(RESULT_OK);
+        finish();
     }
 
 
@@ -203,29 +164,24 @@ public class SubscriptionActivity extends AppCompatActivity {
     }
 
     private void doClearSubscribedEvents() {
-        Executors.newSingleThreadExecutor().execute(() -> {
+        AppExecutors.getInstance().dbWrite().execute(() -> {
 
             int count = db.eventDao().countSubscribedEvents();
             Log.d("SUB_CLEAR", "before clear count=" + count);
 
             db.eventDao().deleteAllSubscribedEvents();
+            // 事件已清空，下次同步不能再被304跳过
+            db.eventDao().clearSubscriptionValidators();
+            EventRepository.getInstance(this).invalidateAll();
 
             count = db.eventDao().countSubscribedEvents();
             Log.d("SUB_CLEAR", "after clear count=" + count);
 
-            runOnUiThread(() -> {
+            scope.post(() -> {
                 Toast.makeText(this, "订阅事件已清空", Toast.LENGTH_SHORT).show();
             });
         });
     }
 
 
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (executorService != null) {
-            executorService.shutdown();
-        }
-    }
 }
\ No newline at end of file
@@ -5,9 +5,11 @@ import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentActivity;
 import androidx.viewpager2.adapter.FragmentStateAdapter;
 
+import com.example.calendar.database.AppDatabase;
 import com.example.calendar.ui.fragment.DayViewFragment;
 import com.example.calendar.ui.fragment.MonthViewFragment;
 import com.example.calendar.ui.fragment.WeekViewFragment;
+import com.example.calendar.utils.AppExecutors;
 
 import java.util.Calendar;
 
@@ -24,10 +26,21 @@ public class CalendarViewPagerAdapter extends FragmentStateAdapter {
     
     private int currentViewType = VIEW_TYPE_MONTH; // 默认月视图
     
+    // 翻页超出已展开窗口时，一次向外多展开的月数
+    private static final int HORIZON_PREFETCH_MONTHS = 6;
+    
+    private final AppDatabase db;
+    private final MonthPrefetcher prefetcher;
+    // 已请求展开的窗口，只在主线程访问
+    private long requestedStart = Long.MAX_VALUE;
+    private long requestedEnd = Long.MIN_VALUE;
+    
     public CalendarViewPagerAdapter(@NonNull FragmentActivity fragmentActivity, int startYear, int startMonth) {
         super(fragmentActivity);
         this.startYear = startYear;
         this.startMonth = startMonth;
+        this.db = AppDatabase.getDatabase(fragmentActivity);
+        this.prefetcher = MonthPrefetcher.getInstance(fragmentActivity);
     }
     
     public void setViewType(int viewType) {
@@ -53,6 +66,7 @@ public class CalendarViewPagerAdapter extends FragmentStateAdapter {
                 int year = calendar.get(Calendar.YEAR);
                 int month = calendar.get(Calendar.MONTH);
                 
+                ensureOccurrenceHorizon(year, month);
                 return MonthViewFragment.newInstance(year, month);
         }
     }
@@ -86,4 +100,49 @@ public class CalendarViewPagerAdapter extends FragmentStateAdapter {
     public int getCurrentViewType() {
         return currentViewType;
     }
+    
+    /**
+     * 翻到某一页后，在后台预取前后相邻几个月的网格和事件（只在月视图下）
+     * @param position 当前页位置
+     */
+    public void prefetchAround(int position) {
+        if (currentViewType != VIEW_TYPE_MONTH) {
+            return;
+        }
+        int[] dateInfo = getDateInfo(position);
+        prefetcher.prefetchAround(dateInfo[0], dateInfo[1]);
+    }
+    
+    /**
+     * 取消尚未完成的相邻月份预取（跳转到很远的月份前调用）
+     */
+    public void cancelPrefetch() {
+        prefetcher.cancel();
+    }
+    
+    /**
+     * 翻到已展开窗口之外的月份时，在后台把重复事件实例索引向外扩展几个月，
+     * 这样月视图加载时通常不需要再同步展开
+     * @param year 年
+     * @param month 月（0-11）
+     */
+    private void ensureOccurrenceHorizon(int year, int month) {
+        Calendar monthStart = Calendar.getInstance();
+        monthStart.set(year, month, 1, 0, 0, 0);
+        monthStart.set(Calendar.MILLISECOND, 0);
+        Calendar monthEnd = (Calendar) monthStart.clone();
+        monthEnd.add(Calendar.MONTH, 1);
+        if (monthStart.getTimeInMillis() >= requestedStart && monthEnd.getTimeInMillis() <= requestedEnd) {
+            return;
+        }
+        
+        monthStart.add(Calendar.MONTH, -HORIZON_PREFETCH_MONTHS);
+        monthEnd.add(Calendar.MONTH, HORIZON_PREFETCH_MONTHS);
+        long from = monthStart.getTimeInMillis();
+        long to = monthEnd.getTimeInMillis();
+        requestedStart = Math.min(requestedStart, from);
+        requestedEnd = Math.max(requestedEnd, to);
+        // 展开重复事件实例要写数据库，放到单线程的写线程池串行执行
+        AppExecutors.getInstance().dbWrite().execute(() -> db.eventDao().prepareOccurrenceRange(from, to));
+    }
 }
\ No newline at end of file
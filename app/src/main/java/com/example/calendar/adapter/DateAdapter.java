@@ -2,6 +2,7 @@ package com.example.calendar.adapter;
 
 import android.content.Context;
 import android.content.Intent;
+import android.graphics.drawable.Drawable;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -14,28 +15,42 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.calendar.EventDetailsActivity;
 import com.example.calendar.MainActivity;
 import com.example.calendar.R;
-import com.example.calendar.model.Event;
 import com.example.calendar.utils.CalendarUtils;
+import com.example.calendar.utils.LunarDayTable;
 import com.example.calendar.utils.LunarUtils;
 
-import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 /**
  * // 功能：日期适配器，用于在月视图中显示日期
  */
 public class DateAdapter extends RecyclerView.Adapter<DateAdapter.DateViewHolder> {
     
+    // 日期数字文本只创建一次
+    private static final String[] DAY_LABELS = new String[32];
+    static {
+        for (int i = 0; i < DAY_LABELS.length; i++) {
+            DAY_LABELS[i] = String.valueOf(i);
+        }
+    }
+    
     private List<CalendarUtils.DateInfo> dateList;
-    private List<Event> events;
+    private MonthEventIndex eventIndex;
     private OnDateClickListener onDateClickListener;
     private Context context;
+    private int todayPosition; // 今天所在的格子，不在本月网格中为-1
+    
+    private final int colorOtherMonth;
+    private final int colorCurrentMonth;
+    private final int colorHoliday;
     
     public DateAdapter(Context context, List<CalendarUtils.DateInfo> dateList) {
         this.context = context;
         this.dateList = dateList;
+        this.todayPosition = findTodayPosition(dateList);
+        colorOtherMonth = context.getColor(android.R.color.darker_gray);
+        colorCurrentMonth = context.getColor(android.R.color.black);
+        colorHoliday = context.getColor(android.R.color.holo_red_dark);
     }
     
     public void setOnDateClickListener(OnDateClickListener listener) {
@@ -43,12 +58,18 @@ public class DateAdapter extends RecyclerView.Adapter<DateAdapter.DateViewHolder
     }
     
     /**
-     * 设置事件列表
-     * @param events 事件列表
+     * 设置按天预先计算好的事件索引
+     * @param eventIndex 事件索引，需与当前日期列表对应
      */
-    public void setEvents(List<Event> events) {
-        this.events = events;
-        notifyDataSetChanged();
+    public void setEventIndex(MonthEventIndex eventIndex) {
+        MonthEventIndex oldIndex = this.eventIndex;
+        this.eventIndex = eventIndex;
+        // 只刷新事件有变化的格子
+        for (int position = 0; position < getItemCount(); position++) {
+            if (!MonthEventIndex.sameEventsOn(oldIndex, eventIndex, position)) {
+                notifyItemChanged(position);
+            }
+        }
     }
     
     @NonNull
@@ -56,7 +77,16 @@ public class DateAdapter extends RecyclerView.Adapter<DateAdapter.DateViewHolder
     public DateViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_date, parent, false);
-        return new DateViewHolder(view);
+        DateViewHolder holder = new DateViewHolder(view);
+        
+        // 点击事件只设置一次，点击时再按位置取数据
+        holder.itemView.setOnClickListener(v -> {
+            int position = holder.getBindingAdapterPosition();
+            if (position != RecyclerView.NO_POSITION) {
+                onCellClick(position);
+            }
+        });
+        return holder;
     }
     
     @Override
@@ -64,74 +94,77 @@ public class DateAdapter extends RecyclerView.Adapter<DateAdapter.DateViewHolder
         CalendarUtils.DateInfo dateInfo = dateList.get(position);
         
         // 设置日期
-        holder.tvDay.setText(String.valueOf(dateInfo.getDay()));
+        holder.tvDay.setText(DAY_LABELS[dateInfo.getDay()]);
         
  /*       // 设置农历日期
         String lunarText = LunarUtils.solarToLunar(dateInfo.getYear(), dateInfo.getMonth(), dateInfo.getDay());
         holder.tvLunar.setText(lunarText);*/
 
-        String lunarText = LunarUtils.getDisplayText(
-                dateInfo.getYear(),
-                dateInfo.getMonth(),
-                dateInfo.getDay()
-        );
+        // 农历文本和节日标志查预先计算的日表，一次查表得到
+        String lunarText;
+        boolean isLunarHoliday;
+        if (LunarDayTable.covers(dateInfo.getYear())) {
+            int lunarInfo = LunarDayTable.get(dateInfo.getYear(), dateInfo.getMonth(), dateInfo.getDay());
+            lunarText = LunarDayTable.getLabel(lunarInfo);
+            isLunarHoliday = LunarDayTable.isLunarHoliday(lunarInfo);
+        } else {
+            lunarText = LunarUtils.getDisplayText(dateInfo.getYear(), dateInfo.getMonth(), dateInfo.getDay());
+            isLunarHoliday = LunarUtils.isLunarHoliday(dateInfo.getYear(), dateInfo.getMonth(), dateInfo.getDay());
+        }
         holder.tvLunar.setText(lunarText);
         
         // 设置其他月份日期的颜色
-        if (dateInfo.isOtherMonth()) {
-            holder.tvDay.setTextColor(holder.itemView.getContext().getColor(android.R.color.darker_gray));
-            holder.tvLunar.setTextColor(holder.itemView.getContext().getColor(android.R.color.darker_gray));
-        } else {
-            holder.tvDay.setTextColor(holder.itemView.getContext().getColor(android.R.color.black));
-            holder.tvLunar.setTextColor(holder.itemView.getContext().getColor(android.R.color.black));
-        }
+        int textColor = dateInfo.isOtherMonth() ? colorOtherMonth : colorCurrentMonth;
+        holder.tvDay.setTextColor(textColor);
+        holder.tvLunar.setTextColor(textColor);
         
         // 如果是节日，设置特殊颜色
-        if (LunarUtils.isLunarHoliday(dateInfo.getYear(), dateInfo.getMonth(), dateInfo.getDay())) {
-            holder.tvLunar.setTextColor(holder.itemView.getContext().getColor(android.R.color.holo_red_dark));
+        if (isLunarHoliday) {
+            holder.tvLunar.setTextColor(colorHoliday);
         }
         
         // 检查当天是否有事件
-        boolean hasEvent = hasEventOnDate(dateInfo);
+        boolean hasEvent = eventIndex != null && eventIndex.hasEvents(position);
         holder.tvEventIndicator.setVisibility(hasEvent ? View.VISIBLE : View.GONE);
 
-        boolean isToday = CalendarUtils.isToday(dateInfo);
-        if (isToday) {
+        if (position == todayPosition) {
             // 设置带边框的背景
             holder.itemView.setBackground(
                     ContextCompat.getDrawable(context, R.drawable.bg_border_blue)
             );
-            // 文字颜色设为强调色（可选，比如深蓝或黑色）
-            //holder.tvDay.setTextColor(context.getColor(android.R.color.black));
-            //holder.tvLunar.setTextColor(context.getColor(android.R.color.darker_gray));
+        } else {
+            // 复用的格子需要恢复布局中的默认背景
+            holder.itemView.setBackground(holder.defaultBackground);
+        }
+    }
+    
+    /**
+     * 处理格子点击
+     * @param position 格子位置
+     */
+    private void onCellClick(int position) {
+        CalendarUtils.DateInfo dateInfo = dateList.get(position);
+        int eventCount = eventIndex != null ? eventIndex.getEventCount(position) : 0;
+        
+        // 如果有事件，点击进入事件详情页面
+        if (eventCount > 1) {
+            // 如果有多个事件，跳转到事件列表页面
+            Intent intent = new Intent(context, com.example.calendar.EventListActivity.class);
+            intent.putExtra("year", dateInfo.getYear());
+            intent.putExtra("month", dateInfo.getMonth());
+            intent.putExtra("day", dateInfo.getDay());
+            context.startActivity(intent);
+            return;
+        } else if (eventCount == 1) {
+            // 只有一个事件，直接打开详情页
+            openEventDetails(eventIndex.getEvent(position, 0).getId());
+            return;
+        }
+        
+        // 如果没有事件，执行原来的日期点击监听器
+        if (onDateClickListener != null) {
+            onDateClickListener.onDateClick(dateInfo);
         }
-
-        // 设置点击事件
-        holder.itemView.setOnClickListener(v -> {
-            // 如果有事件，点击进入事件详情页面
-            if (hasEvent) {
-                // 检查同一天是否有多个事件
-                List<Event> eventsOnDate = getEventsOnDate(dateInfo);
-                if (eventsOnDate.size() > 1) {
-                    // 如果有多个事件，跳转到事件列表页面
-                    Intent intent = new Intent(context, com.example.calendar.EventListActivity.class);
-                    intent.putExtra("year", dateInfo.getYear());
-                    intent.putExtra("month", dateInfo.getMonth());
-                    intent.putExtra("day", dateInfo.getDay());
-                    context.startActivity(intent);
-                } else if (eventsOnDate.size() == 1) {
-                    // 只有一个事件，直接打开详情页
-                    long eventId = eventsOnDate.get(0).getId();
-                    openEventDetails(eventId);
-                }
-                return;
-            }
-            
-            // 如果没有事件或者获取事件ID失败，执行原来的日期点击监听器
-            if (onDateClickListener != null) {
-                onDateClickListener.onDateClick(dateInfo);
-            }
-        });
     }
     
     /**
@@ -152,62 +185,20 @@ public class DateAdapter extends RecyclerView.Adapter<DateAdapter.DateViewHolder
     }
     
     /**
-     * 获取指定日期的所有事件
-     * @param dateInfo 日期信息
-     * @return 该日期的所有事件列表
+     * 找到今天在日期列表中的位置
+     * @param dateList 日期列表
+     * @return 位置，不在列表中返回-1
      */
-    private List<Event> getEventsOnDate(CalendarUtils.DateInfo dateInfo) {
-        List<Event> eventsOnDate = new ArrayList<>();
-        if (events == null || events.isEmpty()) {
-            return eventsOnDate;
+    private static int findTodayPosition(List<CalendarUtils.DateInfo> dateList) {
+        if (dateList == null) {
+            return -1;
         }
-        
-        long dateDayStart = getDayStartTimestamp(dateInfo.getTimeInMillis());
-        
-        for (Event event : events) {
-            long eventDayStart = getDayStartTimestamp(event.getStartTime());
-            if (eventDayStart == dateDayStart) {
-                eventsOnDate.add(event);
+        for (int i = 0; i < dateList.size(); i++) {
+            if (CalendarUtils.isToday(dateList.get(i))) {
+                return i;
             }
         }
-        
-        return eventsOnDate;
-    }
-    
-    /**
-     * 检查指定日期是否有事件
-     * @param dateInfo 日期信息
-     * @return 是否有事件
-     */
-    private boolean hasEventOnDate(CalendarUtils.DateInfo dateInfo) {
-        if (events == null || events.isEmpty()) {
-            return false;
-        }
-        
-        // 使用Set去重，避免同一天多个事件导致重复计算
-        Set<Long> eventDays = new HashSet<>();
-        for (Event event : events) {
-            long eventDayStart = getDayStartTimestamp(event.getStartTime());
-            eventDays.add(eventDayStart);
-        }
-        
-        long dateDayStart = getDayStartTimestamp(dateInfo.getTimeInMillis());
-        return eventDays.contains(dateDayStart);
-    }
-    
-    /**
-     * 获取指定时间戳当天的起始时间戳（00:00:00）
-     * @param timestamp 时间戳
-     * @return 当天起始时间戳
-     */
-    private long getDayStartTimestamp(long timestamp) {
-        java.util.Calendar cal = java.util.Calendar.getInstance();
-        cal.setTimeInMillis(timestamp);
-        cal.set(java.util.Calendar.HOUR_OF_DAY, 0);
-        cal.set(java.util.Calendar.MINUTE, 0);
-        cal.set(java.util.Calendar.SECOND, 0);
-        cal.set(java.util.Calendar.MILLISECOND, 0);
-        return cal.getTimeInMillis();
+        return -1;
     }
     
     @Override
@@ -221,6 +212,8 @@ public class DateAdapter extends RecyclerView.Adapter<DateAdapter.DateViewHolder
      */
     public void updateDateList(List<CalendarUtils.DateInfo> dateList) {
         this.dateList = dateList;
+        this.todayPosition = findTodayPosition(dateList);
+        this.eventIndex = null; // 旧索引与新日期列表不对应
         notifyDataSetChanged();
     }
     
@@ -228,9 +221,11 @@ public class DateAdapter extends RecyclerView.Adapter<DateAdapter.DateViewHolder
         TextView tvDay;
         TextView tvLunar;
         TextView tvEventIndicator;
+        Drawable defaultBackground;
         
         DateViewHolder(@NonNull View itemView) {
             super(itemView);
+            defaultBackground = itemView.getBackground();
             tvDay = itemView.findViewById(R.id.tv_day);
             tvLunar = itemView.findViewById(R.id.tv_lunar);
             tvEventIndicator = itemView.findViewById(R.id.tv_event_indicator);
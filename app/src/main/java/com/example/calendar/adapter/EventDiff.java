@@ -0,0 +1,24 @@
+package com.example.calendar.adapter;
+
+import com.example.calendar.model.Event;
+
+import java.util.Objects;
+
+/**
+ * // 功能：比较两次查询结果中的事件是否相同，用于只刷新有变化的格子
+ */
+final class EventDiff {
+
+    private EventDiff() {}
+
+    /**
+     * @return 两个事件在界面上显示的内容是否相同
+     */
+    static boolean sameEvent(Event a, Event b) {
+        return a.getId() == b.getId()
+                && a.getStartTime() == b.getStartTime()
+                && a.getEndTime() == b.getEndTime()
+                && Objects.equals(a.getTitle(), b.getTitle())
+                && Objects.equals(a.getLocation(), b.getLocation());
+    }
+}
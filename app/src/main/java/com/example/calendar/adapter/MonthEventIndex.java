@@ -0,0 +1,200 @@
+package com.example.calendar.adapter;
+
+import com.example.calendar.model.Event;
+import com.example.calendar.utils.CalendarUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+
+/**
+ * // 功能：月视图网格的按天事件索引，在后台线程加载事件时一次性构建
+ *
+ * 每个格子（最多42个）是否有事件用一个 long 位图表示；
+ * 每天的事件按开始时间排好序连续存放在一个数组中，offsets[i]..offsets[i+1] 为第 i 天的区间。
+ * 绑定格子时只做位运算和数组下标访问，不分配对象。构建完成后不可变，可跨线程发布。
+ */
+public final class MonthEventIndex {
+
+    private static final Event[] NO_EVENTS = new Event[0];
+
+    private final long[] dayBounds; // 格子 i 对应 [dayBounds[i], dayBounds[i + 1])
+    private final long occupancy; // 第 i 位表示格子 i 是否有事件
+    private final int[] offsets; // 长度为格子数 + 1
+    private final Event[] slots;
+
+    private MonthEventIndex(long[] dayBounds, long occupancy, int[] offsets, Event[] slots) {
+        this.dayBounds = dayBounds;
+        this.occupancy = occupancy;
+        this.offsets = offsets;
+        this.slots = slots;
+    }
+
+    /**
+     * 计算网格各天的起止时间
+     * @param dateList 月视图日期列表（连续的日期）
+     * @return 长度为 dateList.size() + 1 的边界数组，最后一个为最后一天的次日零点
+     */
+    public static long[] dayBounds(List<CalendarUtils.DateInfo> dateList) {
+        long[] bounds = new long[dateList.size() + 1];
+        for (int i = 0; i < dateList.size(); i++) {
+            bounds[i] = dateList.get(i).getTimeInMillis();
+        }
+        if (!dateList.isEmpty()) {
+            // 按日历加一天，兼容夏令时
+            Calendar calendar = Calendar.getInstance();
+            calendar.setTimeInMillis(bounds[dateList.size() - 1]);
+            calendar.add(Calendar.DAY_OF_MONTH, 1);
+            bounds[dateList.size()] = calendar.getTimeInMillis();
+        }
+        return bounds;
+    }
+
+    /**
+     * 构建索引
+     * @param dayBounds 各天边界，见 {@link #dayBounds(List)}
+     * @param events 按开始时间排序的事件（包括重复事件实例）
+     * @return 索引
+     */
+    public static MonthEventIndex build(long[] dayBounds, List<Event> events) {
+        int cells = Math.max(0, dayBounds.length - 1);
+        if (cells > Long.SIZE) {
+            throw new IllegalArgumentException("格子数不能超过 " + Long.SIZE);
+        }
+        int[] offsets = new int[cells + 1];
+        if (cells == 0 || events == null || events.isEmpty()) {
+            return new MonthEventIndex(dayBounds, 0L, offsets, NO_EVENTS);
+        }
+
+        // 第一遍：统计每天的事件数，事件覆盖的格子区间为 [first, last]
+        int[] firstCell = new int[events.size()];
+        int[] lastCell = new int[events.size()];
+        for (int e = 0; e < events.size(); e++) {
+            Event event = events.get(e);
+            int first = firstOverlappingCell(dayBounds, event);
+            int last = first < 0 ? -1 : lastOverlappingCell(dayBounds, event, first);
+            firstCell[e] = first;
+            lastCell[e] = last;
+            for (int c = first; c >= 0 && c <= last; c++) {
+                offsets[c + 1]++;
+            }
+        }
+
+        long occupancy = 0L;
+        for (int c = 0; c < cells; c++) {
+            if (offsets[c + 1] > 0) {
+                occupancy |= 1L << c;
+            }
+            offsets[c + 1] += offsets[c];
+        }
+
+        // 第二遍：按事件顺序填入，各天区间内自然保持开始时间顺序
+        Event[] slots = new Event[offsets[cells]];
+        int[] cursor = Arrays.copyOf(offsets, cells);
+        for (int e = 0; e < events.size(); e++) {
+            for (int c = firstCell[e]; c >= 0 && c <= lastCell[e]; c++) {
+                slots[cursor[c]++] = events.get(e);
+            }
+        }
+        return new MonthEventIndex(dayBounds, occupancy, offsets, slots);
+    }
+
+    /**
+     * 事件与第一个有交集的格子，判断方式与 EventDao.getEventsInRange 一致
+     * @return 格子下标，与网格没有交集时返回-1
+     */
+    private static int firstOverlappingCell(long[] bounds, Event event) {
+        int cells = bounds.length - 1;
+        long start = event.getStartTime();
+        if (start >= bounds[cells]) {
+            return -1;
+        }
+        if (start >= bounds[0]) {
+            // 开始时间所在的格子：最后一个 bounds[c] <= start 的 c
+            int index = Arrays.binarySearch(bounds, 0, cells, start);
+            return index >= 0 ? index : -index - 2;
+        }
+        // 开始于网格之前，结束时间晚于第一天零点才算与第一天有交集
+        return event.getEndTime() > bounds[0] ? 0 : -1;
+    }
+
+    private static int lastOverlappingCell(long[] bounds, Event event, int first) {
+        int cells = bounds.length - 1;
+        int last = first;
+        // 结束时间晚于下一天零点，说明事件延续到下一天
+        while (last + 1 < cells && event.getEndTime() > bounds[last + 1]) {
+            last++;
+        }
+        return last;
+    }
+
+    /**
+     * @return 格子数
+     */
+    public int getCellCount() {
+        return dayBounds.length - 1;
+    }
+
+    /**
+     * @param cell 格子下标
+     * @return 该天是否有事件
+     */
+    public boolean hasEvents(int cell) {
+        return cell >= 0 && cell < Long.SIZE && (occupancy & (1L << cell)) != 0;
+    }
+
+    /**
+     * @param cell 格子下标
+     * @return 该天的事件数
+     */
+    public int getEventCount(int cell) {
+        if (cell < 0 || cell >= getCellCount()) {
+            return 0;
+        }
+        return offsets[cell + 1] - offsets[cell];
+    }
+
+    /**
+     * @param cell 格子下标
+     * @param i 该天内的第几个事件
+     * @return 事件
+     */
+    public Event getEvent(int cell, int i) {
+        return slots[offsets[cell] + i];
+    }
+
+    /**
+     * 比较两个索引中某一天的事件是否相同
+     * @param a 旧索引，null 视为没有事件
+     * @param b 新索引，null 视为没有事件
+     * @param cell 格子下标
+     * @return 是否相同
+     */
+    public static boolean sameEventsOn(MonthEventIndex a, MonthEventIndex b, int cell) {
+        int count = a == null ? 0 : a.getEventCount(cell);
+        if (count != (b == null ? 0 : b.getEventCount(cell))) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            if (!EventDiff.sameEvent(a.getEvent(cell, i), b.getEvent(cell, i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 复制出某一天的事件列表（点击时使用）
+     * @param cell 格子下标
+     * @return 按开始时间排序的事件列表
+     */
+    public List<Event> getEventsOn(int cell) {
+        int count = getEventCount(cell);
+        List<Event> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(getEvent(cell, i));
+        }
+        return result;
+    }
+}
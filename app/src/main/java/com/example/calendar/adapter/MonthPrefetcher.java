@@ -0,0 +1,135 @@
+package com.example.calendar.adapter;
+
+import android.content.Context;
+import android.util.Log;
+import android.util.LruCache;
+
+import com.example.calendar.utils.AppExecutors;
+import com.example.calendar.utils.CalendarUtils;
+import com.example.calendar.utils.EventRepository;
+import com.example.calendar.utils.LunarDayTable;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * // 功能：月视图相邻月份预取
+ *
+ * 翻到某个月时，在后台按离当前月由近到远的顺序，提前算好前后几个月的日期网格、
+ * 农历日表，并把网格内的事件读入 EventRepository 的缓存。
+ * 翻页后新建的月视图直接取到网格和事件，不会先显示一个空网格。
+ * 每次预取只占用一个数据库读线程，不挡住当前页面自己的查询；
+ * 跳转到很远的月份（回到今天）时取消，尚未预取的月份不再处理。
+ */
+public final class MonthPrefetcher {
+    private static final String TAG = "MonthPrefetcher";
+
+    // 当前月前后各预取的月数
+    public static final int PREFETCH_MONTHS = 2;
+    // 日期网格缓存的月数，每个网格只有42个日期，占用很小
+    private static final int MAX_CACHED_GRIDS = 24;
+
+    private static volatile MonthPrefetcher INSTANCE;
+
+    private final EventRepository repository;
+    private final LruCache<Integer, List<CalendarUtils.DateInfo>> gridCache =
+            new LruCache<>(MAX_CACHED_GRIDS);
+
+    // 每次开始或取消预取时加一，正在执行的预取发现不一致时停止
+    private final AtomicInteger generation = new AtomicInteger();
+    private Future<?> pending; // 只在主线程访问
+
+    private MonthPrefetcher(Context context) {
+        repository = EventRepository.getInstance(context);
+    }
+
+    public static MonthPrefetcher getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (MonthPrefetcher.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new MonthPrefetcher(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 获取月视图日期网格，优先使用预取好的结果
+     * @param year 年
+     * @param month 月 (0-11)
+     * @return 日期列表（只读），包括上个月和下个月的填充日期
+     */
+    public List<CalendarUtils.DateInfo> getMonthDateList(int year, int month) {
+        int key = year * 12 + month;
+        List<CalendarUtils.DateInfo> dateList = gridCache.get(key);
+        if (dateList == null) {
+            dateList = Collections.unmodifiableList(CalendarUtils.getMonthDateList(year, month));
+            gridCache.put(key, dateList);
+        }
+        return dateList;
+    }
+
+    /**
+     * 预取指定月份前后各 {@link #PREFETCH_MONTHS} 个月，取消之前未完成的预取，需要在主线程调用
+     * @param year 当前显示的年
+     * @param month 当前显示的月 (0-11)
+     */
+    public void prefetchAround(int year, int month) {
+        cancel();
+        int requestGeneration = generation.get();
+        int center = year * 12 + month;
+        pending = AppExecutors.getInstance().dbRead().submit(() -> {
+            // 由近到远：+1, -1, +2, -2 ...，先预取最可能被翻到的月份
+            for (int distance = 1; distance <= PREFETCH_MONTHS; distance++) {
+                for (int sign = 1; sign >= -1; sign -= 2) {
+                    if (generation.get() != requestGeneration) {
+                        return;
+                    }
+                    int key = center + sign * distance;
+                    try {
+                        prefetchMonth(key / 12, key % 12);
+                    } catch (Exception e) {
+                        Log.w(TAG, "预取失败: " + key / 12 + "-" + (key % 12 + 1), e);
+                    }
+                }
+            }
+            Log.d(TAG, "预取完成，" + repository.getCacheStats());
+        });
+    }
+
+    /**
+     * 取消正在进行的预取，需要在主线程调用
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+
+    private void prefetchMonth(int year, int month) {
+        List<CalendarUtils.DateInfo> dateList = getMonthDateList(year, month);
+
+        // 网格首尾两天所在年份的农历日表
+        warmLunarTable(dateList.get(0));
+        warmLunarTable(dateList.get(dateList.size() - 1));
+
+        // 与月视图使用同样的查询窗口，结果放入缓存
+        long[] dayBounds = MonthEventIndex.dayBounds(dateList);
+        repository.getMonthEvents(year, month, dayBounds[0], dayBounds[dayBounds.length - 1], true);
+    }
+
+    /**
+     * 生成日期所在年份的农历日表（已生成时直接返回）
+     * @param dateInfo 日期
+     */
+    public static void warmLunarTable(CalendarUtils.DateInfo dateInfo) {
+        if (LunarDayTable.covers(dateInfo.getYear())) {
+            LunarDayTable.get(dateInfo.getYear(), dateInfo.getMonth(), dateInfo.getDay());
+        }
+    }
+}
@@ -2,35 +2,158 @@ package com.example.calendar.database;
 
 import android.content.Context;
 
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
 
 import com.example.calendar.model.Event;
+import com.example.calendar.model.EventFts;
+import com.example.calendar.model.Occurrence;
+import com.example.calendar.model.OccurrenceHorizon;
+import com.example.calendar.model.QueuedReminder;
 import com.example.calendar.model.Reminder;
 import com.example.calendar.model.Subscription;
 
+import java.util.concurrent.Callable;
+
 /**
  * // 功能：应用数据库类，管理所有数据表
  */
-@Database(entities = {Event.class, Reminder.class, Subscription.class}, version = 2, exportSchema = false)
+@Database(entities = {Event.class, Reminder.class, Subscription.class,
+        Occurrence.class, OccurrenceHorizon.class, QueuedReminder.class, EventFts.class}, version = 9, exportSchema = false)
 public abstract class AppDatabase extends RoomDatabase {
-    
+
     public abstract EventDao eventDao();
-    
+
+    // 日程显示依赖的表，任何一个发生写入都需要刷新视图
+    public static final String[] EVENT_TABLES = {"events", "occurrences", "reminders"};
+
+    /**
+     * 观察依赖指定表的查询结果，只在这些表发生写入时重新查询
+     * @param tables 依赖的表
+     * @param query 查询，在后台线程执行
+     * @return 查询结果的 LiveData
+     */
+    public <T> LiveData<T> observe(String[] tables, Callable<T> query) {
+        return new TableLiveData<>(this, tables, query);
+    }
+
     private static volatile AppDatabase INSTANCE;
-    
+
+    // 版本2 -> 3：为事件表添加区间查询索引，保留已有数据
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_events_startTime_endTime` " +
+                    "ON `events` (`startTime`, `endTime`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_events_endTime_startTime` " +
+                    "ON `events` (`endTime`, `startTime`)");
+        }
+    };
+
+    // 版本3 -> 4：事件表增加UID与内容哈希，用于订阅增量同步
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE `events` ADD COLUMN `uid` TEXT");
+            database.execSQL("ALTER TABLE `events` ADD COLUMN `contentHash` INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_events_subscriptionId_uid` " +
+                    "ON `events` (`subscriptionId`, `uid`)");
+        }
+    };
+
+    // 版本4 -> 5：订阅表保存HTTP缓存校验值，用于条件请求
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE `subscriptions` ADD COLUMN `etag` TEXT");
+            database.execSQL("ALTER TABLE `subscriptions` ADD COLUMN `lastModified` TEXT");
+        }
+    };
+
+    // 版本5 -> 6：新增重复事件实例索引表，第一次查询时再展开
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `occurrences` (" +
+                    "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`eventId` INTEGER NOT NULL, `startTime` INTEGER NOT NULL, `endTime` INTEGER NOT NULL, " +
+                    "FOREIGN KEY(`eventId`) REFERENCES `events`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_occurrences_startTime_endTime` " +
+                    "ON `occurrences` (`startTime`, `endTime`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_occurrences_endTime_startTime` " +
+                    "ON `occurrences` (`endTime`, `startTime`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_occurrences_eventId` " +
+                    "ON `occurrences` (`eventId`)");
+            database.execSQL("CREATE TABLE IF NOT EXISTS `occurrence_horizon` (" +
+                    "`id` INTEGER NOT NULL, `rangeStart` INTEGER NOT NULL, `rangeEnd` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`id`))");
+        }
+    };
+
+    // 版本6 -> 7：新增待触发提醒队列
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `reminder_queue` (" +
+                    "`reminderId` INTEGER NOT NULL, `eventId` INTEGER NOT NULL, " +
+                    "`occurrenceStart` INTEGER NOT NULL, `triggerTime` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`reminderId`), " +
+                    "FOREIGN KEY(`eventId`) REFERENCES `events`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_reminder_queue_triggerTime` " +
+                    "ON `reminder_queue` (`triggerTime`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_reminder_queue_eventId` " +
+                    "ON `reminder_queue` (`eventId`)");
+        }
+    };
+
+    // 版本7 -> 8：提醒表按事件ID建索引
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_reminders_eventId` " +
+                    "ON `reminders` (`eventId`)");
+        }
+    };
+
+    // 版本8 -> 9：新增事件全文索引表及同步触发器，并为已有事件建立索引
+    static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `events_fts` USING FTS4(" +
+                    "`title` TEXT, `description` TEXT, `location` TEXT, " +
+                    "tokenize=icu, content=`events`)");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_events_fts_BEFORE_UPDATE " +
+                    "BEFORE UPDATE ON `events` BEGIN DELETE FROM `events_fts` WHERE `docid`=OLD.`rowid`; END");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_events_fts_BEFORE_DELETE " +
+                    "BEFORE DELETE ON `events` BEGIN DELETE FROM `events_fts` WHERE `docid`=OLD.`rowid`; END");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_events_fts_AFTER_UPDATE " +
+                    "AFTER UPDATE ON `events` BEGIN INSERT INTO `events_fts`(`docid`, `title`, `description`, `location`) " +
+                    "VALUES (NEW.`rowid`, NEW.`title`, NEW.`description`, NEW.`location`); END");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_events_fts_AFTER_INSERT " +
+                    "AFTER INSERT ON `events` BEGIN INSERT INTO `events_fts`(`docid`, `title`, `description`, `location`) " +
+                    "VALUES (NEW.`rowid`, NEW.`title`, NEW.`description`, NEW.`location`); END");
+            database.execSQL("INSERT INTO `events_fts`(`events_fts`) VALUES('rebuild')");
+        }
+    };
+
     public static AppDatabase getDatabase(final Context context) {
         if (INSTANCE == null) {
             synchronized (AppDatabase.class) {
                 if (INSTANCE == null) {
                     INSTANCE = Room.databaseBuilder(context.getApplicationContext(),
                             AppDatabase.class, "calendar_database")
-                            .fallbackToDestructiveMigration() // 在版本升级时丢弃旧数据
+                            .addMigrations(MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6,
+                                    MIGRATION_6_7, MIGRATION_7_8, MIGRATION_8_9)
+                            .fallbackToDestructiveMigrationFrom(1) // 仅最早的版本1没有迁移路径
                             .build();
                 }
             }
         }
         return INSTANCE;
     }
-}
\ No newline at end of file
+}
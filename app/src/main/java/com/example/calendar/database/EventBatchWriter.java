@@ -0,0 +1,124 @@
+package com.example.calendar.database;
+
+import com.example.calendar.model.Event;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * // 功能：事件批量写入器，把逐个产生的事件按块缓冲，每块在一个事务中写入
+ *
+ * 逐条 insertEvent 时每一行都是一次独立事务和一次磁盘同步，
+ * 批量写入后每 chunkSize 行才提交一次。
+ * 与订阅同步相同，文件中重复出现的 UID（如重复事件的例外实例）加上开始时间区分，
+ * UID 和开始时间都相同的条目只写入一次；数据库中已有同一 UID 的事件（重新导入）时更新原有事件。
+ * 非线程安全，一个写入器只应在一个线程中使用。
+ */
+public class EventBatchWriter {
+
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    private final EventDao eventDao;
+    private final int chunkSize;
+    private final OnProgressListener progressListener;
+    private final List<Event> buffer;
+    // 本次导入中出现过的 UID
+    private final Set<String> seenUids = new HashSet<>();
+    private int insertedCount;
+    private int updatedCount;
+    private int skippedCount;
+
+    public EventBatchWriter(EventDao eventDao) {
+        this(eventDao, DEFAULT_CHUNK_SIZE, null);
+    }
+
+    /**
+     * @param eventDao 数据访问对象
+     * @param chunkSize 每个事务写入的事件数量
+     * @param progressListener 每提交一块后回调，可为null
+     */
+    public EventBatchWriter(EventDao eventDao, int chunkSize, OnProgressListener progressListener) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize必须大于0: " + chunkSize);
+        }
+        this.eventDao = eventDao;
+        this.chunkSize = chunkSize;
+        this.progressListener = progressListener;
+        this.buffer = new ArrayList<>(chunkSize);
+    }
+
+    /**
+     * 添加一个事件，缓冲区满时自动提交
+     * @param event 事件对象
+     */
+    public void add(Event event) {
+        String uid = event.getUid();
+        if (uid != null && !uid.isEmpty() && !seenUids.add(uid)) {
+            uid = uid + "#" + event.getStartTime();
+            if (!seenUids.add(uid)) {
+                skippedCount++; // 完全重复的条目只保留一次
+                return;
+            }
+            event.setUid(uid);
+        }
+        buffer.add(event);
+        if (buffer.size() >= chunkSize) {
+            flush();
+        }
+    }
+
+    /**
+     * 提交缓冲区中剩余的事件，写入结束时必须调用
+     */
+    public void flush() {
+        if (buffer.isEmpty()) {
+            return;
+        }
+
+        int updated = eventDao.importEventChunk(buffer);
+        updatedCount += updated;
+        insertedCount += buffer.size() - updated;
+        buffer.clear();
+
+        if (progressListener != null) {
+            progressListener.onProgress(getWrittenCount());
+        }
+    }
+
+    /**
+     * @return 已提交到数据库的事件数量（新增和更新）
+     */
+    public int getWrittenCount() {
+        return insertedCount + updatedCount;
+    }
+
+    /**
+     * @return 新增的事件数量
+     */
+    public int getInsertedCount() {
+        return insertedCount;
+    }
+
+    /**
+     * @return 因数据库中已有同一 UID 而更新的事件数量
+     */
+    public int getUpdatedCount() {
+        return updatedCount;
+    }
+
+    /**
+     * @return 因 UID 和开始时间都重复而跳过的事件数量
+     */
+    public int getSkippedCount() {
+        return skippedCount;
+    }
+
+    public interface OnProgressListener {
+        /**
+         * @param writtenCount 已提交到数据库的事件总数
+         */
+        void onProgress(int writtenCount);
+    }
+}
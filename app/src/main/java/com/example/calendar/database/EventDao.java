@@ -2,14 +2,19 @@ package com.example.calendar.database;
 
 import androidx.room.Dao;
 import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
 import androidx.room.Update;
 import androidx.room.Delete;
 import androidx.room.Query;
 import androidx.room.Transaction;
 
 import com.example.calendar.model.Event;
+import com.example.calendar.model.Occurrence;
+import com.example.calendar.model.OccurrenceHorizon;
+import com.example.calendar.model.QueuedReminder;
 import com.example.calendar.model.Reminder;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -17,11 +22,123 @@ import java.util.List;
  */
 @Dao
 public interface EventDao {
+
+    // SQLite 默认的单条语句最大参数个数为999，批量 IN (...) 时按此分批
+    int MAX_BIND_ARGS = 900;
     
     // 插入单个事件
     @Insert
     long insertEvent(Event event);
     
+    // 批量插入事件（整批在同一个事务中完成），返回按顺序对应的新ID
+    // UID重复（同一来源重复导入）的事件会被跳过，对应ID为-1
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    List<Long> insertEvents(List<Event> events);
+    
+    /**
+     * 在一个事务中写入一块事件，并把生成的ID回填到事件对象
+     * 供订阅同步按块调用（UID 已由 SubscriptionDelta 去重）
+     * @param chunk 一块事件
+     * @return 实际写入的事件数量（不含被跳过的重复事件）
+     */
+    @Transaction
+    default int insertEventChunk(List<Event> chunk) {
+        List<Long> ids = insertEvents(chunk);
+        List<Event> recurring = new ArrayList<>();
+        int inserted = 0;
+        for (int i = 0; i < ids.size(); i++) {
+            long id = ids.get(i);
+            if (id != -1) {
+                Event event = chunk.get(i);
+                event.setId(id);
+                inserted++;
+                if (OccurrenceIndexer.hasRrule(event)) {
+                    recurring.add(event);
+                }
+            }
+        }
+        indexOccurrences(recurring);
+        return inserted;
+    }
+    
+    /**
+     * 在一个事务中写入一块文件导入的事件，供 EventBatchWriter 按块调用：
+     * UID 在同一来源中已存在的（重新导入同一文件）更新原有事件，其余新增，并把ID回填到事件对象
+     * @param chunk 一块事件（同一块内 UID 不重复）
+     * @return 更新的事件数量，其余都是新增
+     */
+    @Transaction
+    default int importEventChunk(List<Event> chunk) {
+        List<Long> ids = insertEvents(chunk);
+        List<Event> recurring = new ArrayList<>();
+        List<Event> updates = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Event event = chunk.get(i);
+            long id = ids.get(i);
+            if (id != -1) {
+                event.setId(id);
+                if (OccurrenceIndexer.hasRrule(event)) {
+                    recurring.add(event);
+                }
+            } else {
+                // 与 (subscriptionId, uid) 唯一索引冲突，说明事件已存在
+                event.setId(getEventIdByUid(event.getSubscriptionId(), event.getUid()));
+                updates.add(event);
+            }
+        }
+        indexOccurrences(recurring);
+        if (!updates.isEmpty()) {
+            updateEvents(updates);
+            reindexOccurrences(updates);
+        }
+        return updates.size();
+    }
+    
+    // 按来源和UID查找事件ID
+    @Query("SELECT id FROM events WHERE subscriptionId = :subscriptionId AND uid = :uid")
+    long getEventIdByUid(long subscriptionId, String uid);
+    
+    /**
+     * 插入单个事件，并为重复事件生成实例索引
+     * @param event 事件
+     * @return 新事件ID
+     */
+    @Transaction
+    default long insertEventWithOccurrences(Event event) {
+        long id = insertEvent(event);
+        event.setId(id);
+        if (OccurrenceIndexer.hasRrule(event)) {
+            List<Event> single = new ArrayList<>();
+            single.add(event);
+            indexOccurrences(single);
+        }
+        return id;
+    }
+    
+    /**
+     * 更新单个事件，并重建它的实例索引（重复规则或时间可能已改变）
+     * 删除事件时实例由外键级联删除，不需要额外处理
+     * @param event 事件
+     */
+    @Transaction
+    default void updateEventWithOccurrences(Event event) {
+        updateEvent(event);
+        deleteOccurrencesByEventId(event.getId());
+        if (OccurrenceIndexer.hasRrule(event)) {
+            List<Event> single = new ArrayList<>();
+            single.add(event);
+            indexOccurrences(single);
+        }
+    }
+    
+    // 批量更新事件
+    @Update
+    void updateEvents(List<Event> events);
+    
+    // 按ID批量删除事件
+    @Query("DELETE FROM events WHERE id IN (:ids)")
+    void deleteEventsByIds(List<Long> ids);
+    
     // 更新事件
     @Update
     void updateEvent(Event event);
@@ -34,18 +151,86 @@ public interface EventDao {
     @Query("SELECT * FROM events ORDER BY startTime ASC")
     List<Event> getAllEvents();
     
+    // 按ID分页获取事件（导出时使用，翻页条件走主键）
+    @Query("SELECT * FROM events WHERE id > :afterId ORDER BY id LIMIT :limit")
+    List<Event> getEventsAfter(long afterId, int limit);
+    
     // 根据ID获取事件
     @Query("SELECT * FROM events WHERE id = :id")
     Event getEventById(long id);
     
-    // 根据日期范围获取事件
-    @Query("SELECT * FROM events WHERE startTime >= :startTime AND startTime <= :endTime ORDER BY startTime ASC")
-    List<Event> getEventsByDateRange(long startTime, long endTime);
+    /**
+     * 获取与时间窗口 [rangeStart, rangeEnd) 有交集的事件
+     * 包括开始于窗口之前、结束于窗口之内或之后的跨天事件。
+     * 两个 OR 分支分别走 (startTime, endTime) 与 (endTime, startTime) 索引，避免全表扫描
+     * @param rangeStart 窗口开始时间（包含）
+     * @param rangeEnd 窗口结束时间（不包含）
+     * @return 按开始时间排序的事件列表
+     */
+    @Query("SELECT * FROM events WHERE startTime < :rangeEnd " +
+            "AND (startTime >= :rangeStart OR endTime > :rangeStart) " +
+            "ORDER BY startTime ASC")
+    List<Event> getEventsInRange(long rangeStart, long rangeEnd);
+    
+    /**
+     * 获取与时间窗口 [rangeStart, rangeEnd) 有交集的事件实例：
+     * 不重复的事件直接取自 events 表，重复事件取自 occurrences 表中展开好的实例
+     * （返回的 Event 带有原事件ID，开始/结束时间为该次实例的时间）。
+     * 会先确保实例索引覆盖查询窗口。窗口已覆盖时（绝大多数读取）不开启事务，
+     * 避免与写线程的导入、订阅同步以及另一个读线程串行
+     * @param rangeStart 窗口开始时间（包含）
+     * @param rangeEnd 窗口结束时间（不包含）
+     * @return 按开始时间排序的事件实例列表
+     */
+    default List<Event> getEventInstancesInRange(long rangeStart, long rangeEnd) {
+        prepareOccurrenceRange(rangeStart, rangeEnd);
+        return queryEventInstancesInRange(rangeStart, rangeEnd);
+    }
+    
+    // 两个分支都显式列出列名，保证 UNION 结果按列名映射到 Event
+    @Query("SELECT id, title, description, location, startTime, endTime, type, rrule, " +
+            "isLunar, lunarDate, subscriptionId, uid, contentHash FROM events " +
+            "WHERE (rrule IS NULL OR rrule = '') AND startTime < :rangeEnd " +
+            "AND (startTime >= :rangeStart OR endTime > :rangeStart) " +
+            "UNION ALL " +
+            "SELECT e.id, e.title, e.description, e.location, o.startTime, o.endTime, e.type, e.rrule, " +
+            "e.isLunar, e.lunarDate, e.subscriptionId, e.uid, e.contentHash " +
+            "FROM occurrences o INNER JOIN events e ON e.id = o.eventId " +
+            "WHERE o.startTime < :rangeEnd " +
+            "AND (o.startTime >= :rangeStart OR o.endTime > :rangeStart) " +
+            "ORDER BY startTime ASC")
+    List<Event> queryEventInstancesInRange(long rangeStart, long rangeEnd);
     
     // 根据标题和时间获取事件（用于检测重复）
     @Query("SELECT * FROM events WHERE title = :title AND startTime = :startTime")
     List<Event> getEventsByTitleAndTime(String title, long startTime);
     
+    // 全文检索：标题命中的排在前面，同一档内按开始时间倒序
+    @Query("SELECT e.* FROM events e INNER JOIN (" +
+           "SELECT docid, MIN(tier) AS tier FROM (" +
+           "SELECT docid, 0 AS tier FROM events_fts WHERE events_fts MATCH :titleQuery " +
+           "UNION ALL " +
+           "SELECT docid, 1 AS tier FROM events_fts WHERE events_fts MATCH :query" +
+           ") GROUP BY docid" +
+           ") m ON e.id = m.docid " +
+           "ORDER BY m.tier, e.startTime DESC LIMIT :limit OFFSET :offset")
+    List<Event> searchEventsRanked(String query, String titleQuery, int limit, int offset);
+    
+    /**
+     * 按标题、描述、地点全文搜索事件，每个词做前缀匹配
+     * @param text 用户输入的搜索文本
+     * @param limit 每页条数
+     * @param offset 跳过的条数
+     * @return 按相关度排序的一页事件，没有可搜索的词时返回空列表
+     */
+    default List<Event> searchEvents(String text, int limit, int offset) {
+        String query = FtsQuery.build(text, null);
+        if (query == null) {
+            return new ArrayList<>();
+        }
+        return searchEventsRanked(query, FtsQuery.build(text, "title"), limit, offset);
+    }
+    
     // 根据类型获取事件
     @Query("SELECT * FROM events WHERE type = :type ORDER BY startTime ASC")
     List<Event> getEventsByType(int type);
@@ -54,6 +239,10 @@ public interface EventDao {
     @Insert
     long insertReminder(Reminder reminder);
     
+    // 批量插入提醒
+    @Insert
+    List<Long> insertReminders(List<Reminder> reminders);
+    
     // 更新提醒
     @Update
     void updateReminder(Reminder reminder);
@@ -74,6 +263,71 @@ public interface EventDao {
     @Query("DELETE FROM reminders WHERE eventId = :eventId")
     void deleteRemindersByEventId(long eventId);
     
+    // 批量删除多个事件的提醒
+    @Query("DELETE FROM reminders WHERE eventId IN (:eventIds)")
+    void deleteRemindersByEventIds(List<Long> eventIds);
+    
+    // 写入待触发提醒（同一个提醒只保留一条）
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertQueuedReminders(List<QueuedReminder> entries);
+    
+    // 删除事件的所有待触发提醒
+    @Query("DELETE FROM reminder_queue WHERE eventId = :eventId")
+    void deleteQueuedRemindersByEventId(long eventId);
+    
+    // 按提醒ID批量删除待触发提醒
+    @Query("DELETE FROM reminder_queue WHERE reminderId IN (:reminderIds)")
+    void deleteQueuedRemindersByIds(List<Long> reminderIds);
+    
+    // 清空提醒队列
+    @Query("DELETE FROM reminder_queue")
+    void clearQueuedReminders();
+    
+    // 按提醒ID分页联查提醒和事件，只返回重复事件和触发时间还没过去的提醒
+    @Query("SELECT r.id AS reminderId, r.minutes AS minutes, e.id AS eventId, " +
+           "e.startTime AS startTime, e.rrule AS rrule " +
+           "FROM reminders r INNER JOIN events e ON e.id = r.eventId " +
+           "WHERE r.id > :afterId " +
+           "AND ((e.rrule IS NOT NULL AND e.rrule != '') OR e.startTime - r.minutes * 60000 > :now) " +
+           "ORDER BY r.id LIMIT :limit")
+    List<ReminderTarget> getReminderTargetsAfter(long afterId, long now, int limit);
+    
+    // 获取最早要触发的提醒（走 triggerTime 索引）
+    @Query("SELECT * FROM reminder_queue ORDER BY triggerTime ASC LIMIT 1")
+    QueuedReminder getNextQueuedReminder();
+    
+    // 获取所有已到期的提醒
+    @Query("SELECT * FROM reminder_queue WHERE triggerTime <= :time ORDER BY triggerTime ASC")
+    List<QueuedReminder> getDueQueuedReminders(long time);
+    
+    /**
+     * 用新的待触发提醒替换事件原有的队列项
+     * @param eventId 事件ID
+     * @param entries 新的待触发提醒
+     */
+    @Transaction
+    default void replaceQueuedReminders(long eventId, List<QueuedReminder> entries) {
+        deleteQueuedRemindersByEventId(eventId);
+        if (!entries.isEmpty()) {
+            insertQueuedReminders(entries);
+        }
+    }
+    
+    /**
+     * 推进已触发的提醒：有下一次的写入下一次，没有的删除
+     * @param finishedIds 不再重复的提醒ID
+     * @param nextEntries 下一次触发的提醒
+     */
+    @Transaction
+    default void advanceQueuedReminders(List<Long> finishedIds, List<QueuedReminder> nextEntries) {
+        for (int from = 0; from < finishedIds.size(); from += MAX_BIND_ARGS) {
+            deleteQueuedRemindersByIds(finishedIds.subList(from, Math.min(from + MAX_BIND_ARGS, finishedIds.size())));
+        }
+        if (!nextEntries.isEmpty()) {
+            insertQueuedReminders(nextEntries);
+        }
+    }
+    
     // 插入订阅
     @Insert
     long insertSubscription(com.example.calendar.model.Subscription subscription);
@@ -99,6 +353,10 @@ public interface EventDao {
     List<com.example.calendar.model.Subscription> getEnabledSubscriptions();
 
 
+    // 清除所有订阅的HTTP缓存校验值，下次同步会重新下载完整内容
+    @Query("UPDATE subscriptions SET etag = NULL, lastModified = NULL")
+    void clearSubscriptionValidators();
+
     // 删除所有订阅事件
     @Query("DELETE FROM events WHERE type = 3")
     void deleteAllSubscribedEvents();
@@ -106,4 +364,159 @@ public interface EventDao {
     // 查询订阅事件数量
     @Query("SELECT COUNT(*) FROM events WHERE type = 3")
     int countSubscribedEvents();
+
+    // 获取订阅上次同步后的事件快照（只取比较用的字段）
+    @Query("SELECT id, uid, contentHash FROM events WHERE subscriptionId = :subscriptionId")
+    List<EventSnapshot> getSubscriptionSnapshot(long subscriptionId);
+
+    /**
+     * 在一个事务中写入订阅增量变化的一块：新增和更新
+     * @param inserts 需要新增的事件
+     * @param updates 需要更新的事件（已设置原有ID）
+     */
+    @Transaction
+    default void applySubscriptionChanges(List<Event> inserts, List<Event> updates) {
+        if (!inserts.isEmpty()) {
+            insertEventChunk(inserts);
+        }
+        if (!updates.isEmpty()) {
+            updateEvents(updates);
+            reindexOccurrences(updates);
+        }
+    }
+
+    /**
+     * 在一个事务中删除订阅源中已不存在的事件及其提醒
+     * @param deletedIds 需要删除的事件ID
+     */
+    @Transaction
+    default void deleteSubscriptionEvents(List<Long> deletedIds) {
+        // SQLite单条语句的参数个数有限，分批删除
+        for (int from = 0; from < deletedIds.size(); from += MAX_BIND_ARGS) {
+            List<Long> part = deletedIds.subList(from, Math.min(from + MAX_BIND_ARGS, deletedIds.size()));
+            deleteRemindersByEventIds(part);
+            deleteEventsByIds(part);
+        }
+    }
+
+    // 批量插入重复事件实例
+    @Insert
+    void insertOccurrences(List<Occurrence> occurrences);
+
+    // 删除一个事件的所有实例
+    @Query("DELETE FROM occurrences WHERE eventId = :eventId")
+    void deleteOccurrencesByEventId(long eventId);
+
+    // 批量删除多个事件的实例
+    @Query("DELETE FROM occurrences WHERE eventId IN (:eventIds)")
+    void deleteOccurrencesByEventIds(List<Long> eventIds);
+
+    // 获取所有带重复规则的事件
+    @Query("SELECT * FROM events WHERE rrule IS NOT NULL AND rrule != ''")
+    List<Event> getRecurringEvents();
+
+    // 获取实例索引当前的展开窗口，尚未展开过时返回null
+    @Query("SELECT * FROM occurrence_horizon WHERE id = 0")
+    OccurrenceHorizon getOccurrenceHorizon();
+
+    // 保存实例索引的展开窗口
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void setOccurrenceHorizon(OccurrenceHorizon horizon);
+
+    /**
+     * 在当前展开窗口内为一批重复事件生成实例
+     * @param events 已有ID的重复事件
+     */
+    default void indexOccurrences(List<Event> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        OccurrenceHorizon horizon = getOccurrenceHorizon();
+        if (horizon == null) {
+            // 还没有展开过，第一次查询时会统一展开
+            return;
+        }
+        for (Event event : events) {
+            List<Occurrence> occurrences = OccurrenceIndexer.expand(event,
+                    horizon.getRangeStart(), horizon.getRangeEnd());
+            if (!occurrences.isEmpty()) {
+                insertOccurrences(occurrences);
+            }
+        }
+    }
+
+    /**
+     * 重建一批事件的实例（事件已更新）
+     * @param events 已更新的事件
+     */
+    default void reindexOccurrences(List<Event> events) {
+        List<Long> ids = new ArrayList<>(events.size());
+        List<Event> recurring = new ArrayList<>();
+        for (Event event : events) {
+            ids.add(event.getId());
+            if (OccurrenceIndexer.hasRrule(event)) {
+                recurring.add(event);
+            }
+        }
+        for (int from = 0; from < ids.size(); from += MAX_BIND_ARGS) {
+            deleteOccurrencesByEventIds(ids.subList(from, Math.min(from + MAX_BIND_ARGS, ids.size())));
+        }
+        indexOccurrences(recurring);
+    }
+
+    /**
+     * 先不开事务读取展开窗口，只有需要扩展时才调用 ensureOccurrenceRange（事务内重新检查）
+     * 窗口只会扩大，读到已覆盖后不会再变成未覆盖
+     * @param rangeStart 需要覆盖的开始时间
+     * @param rangeEnd 需要覆盖的结束时间
+     */
+    default void prepareOccurrenceRange(long rangeStart, long rangeEnd) {
+        OccurrenceHorizon horizon = getOccurrenceHorizon();
+        if (horizon == null || !horizon.covers(rangeStart - OccurrenceIndexer.OVERLAP_PADDING, rangeEnd)) {
+            ensureOccurrenceRange(rangeStart, rangeEnd);
+        }
+    }
+
+    /**
+     * 确保实例索引覆盖 [rangeStart, rangeEnd)，不够时只展开缺少的部分
+     * 窗口向前多留 OVERLAP_PADDING，并按 HORIZON_STEP 整块扩展
+     * @param rangeStart 需要覆盖的开始时间
+     * @param rangeEnd 需要覆盖的结束时间
+     */
+    @Transaction
+    default void ensureOccurrenceRange(long rangeStart, long rangeEnd) {
+        long from = rangeStart - OccurrenceIndexer.OVERLAP_PADDING;
+        OccurrenceHorizon horizon = getOccurrenceHorizon();
+        if (horizon != null && horizon.covers(from, rangeEnd)) {
+            return;
+        }
+
+        long newStart = OccurrenceIndexer.alignDown(from);
+        long newEnd = OccurrenceIndexer.alignUp(rangeEnd);
+        if (horizon != null) {
+            newStart = Math.min(newStart, horizon.getRangeStart());
+            newEnd = Math.max(newEnd, horizon.getRangeEnd());
+        }
+
+        for (Event event : getRecurringEvents()) {
+            if (horizon == null) {
+                insertOccurrencesIfAny(OccurrenceIndexer.expand(event, newStart, newEnd));
+            } else {
+                // 只展开新增的前后两段
+                if (newStart < horizon.getRangeStart()) {
+                    insertOccurrencesIfAny(OccurrenceIndexer.expand(event, newStart, horizon.getRangeStart()));
+                }
+                if (newEnd > horizon.getRangeEnd()) {
+                    insertOccurrencesIfAny(OccurrenceIndexer.expand(event, horizon.getRangeEnd(), newEnd));
+                }
+            }
+        }
+        setOccurrenceHorizon(new OccurrenceHorizon(newStart, newEnd));
+    }
+
+    default void insertOccurrencesIfAny(List<Occurrence> occurrences) {
+        if (!occurrences.isEmpty()) {
+            insertOccurrences(occurrences);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.example.calendar.database;
+
+/**
+ * // 功能：订阅事件快照，只包含增量同步需要比较的字段
+ */
+public class EventSnapshot {
+    public long id; // 事件主键
+    public String uid; // 事件UID
+    public long contentHash; // 上次同步时的内容哈希
+}
@@ -0,0 +1,53 @@
+package com.example.calendar.database;
+
+import java.util.Locale;
+
+/**
+ * // 功能：把用户输入的搜索文本转换为 FTS MATCH 表达式
+ *
+ * 只保留字母和数字，其余字符（引号、星号、冒号、括号等 FTS 语法字符）都当作分隔符，
+ * 每个词都做前缀匹配，多个词之间为“并且”关系。
+ */
+final class FtsQuery {
+
+    // 最多参与匹配的词数
+    private static final int MAX_TERMS = 8;
+
+    private FtsQuery() {}
+
+    /**
+     * @param text 用户输入
+     * @param column 限定匹配的列，为null时匹配所有列
+     * @return MATCH 表达式，没有可搜索的词时返回null
+     */
+    static String build(String text, String column) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder query = new StringBuilder();
+        int terms = 0;
+        int i = 0;
+        int length = text.length();
+        while (i < length && terms < MAX_TERMS) {
+            while (i < length && !Character.isLetterOrDigit(text.codePointAt(i))) {
+                i += Character.charCount(text.codePointAt(i));
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(text.codePointAt(i))) {
+                i += Character.charCount(text.codePointAt(i));
+            }
+            if (i > start) {
+                if (query.length() > 0) {
+                    query.append(' ');
+                }
+                if (column != null) {
+                    query.append(column).append(':');
+                }
+                // 转成小写，避免 AND/OR/NOT 被当作运算符
+                query.append(text.substring(start, i).toLowerCase(Locale.ROOT)).append('*');
+                terms++;
+            }
+        }
+        return terms == 0 ? null : query.toString();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.calendar.database;
+
+import com.example.calendar.model.Event;
+import com.example.calendar.model.Occurrence;
+import com.example.calendar.utils.RecurrenceRule;
+import com.example.calendar.utils.RecurrenceUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * // 功能：把重复事件展开成 occurrences 表中的实例行，供 EventDao 维护索引时调用
+ */
+final class OccurrenceIndexer {
+
+    // 窗口按整块对齐扩展，避免翻页时频繁小幅扩展
+    static final long HORIZON_STEP = 90L * 24 * 60 * 60 * 1000;
+    // 开始于窗口之前、持续到窗口之内的实例也要能查到，窗口向前多留一段
+    static final long OVERLAP_PADDING = 31L * 24 * 60 * 60 * 1000;
+
+    private OccurrenceIndexer() {}
+
+    /**
+     * 展开单个事件在 [from, to) 内开始的全部实例
+     * 不设数量上限：窗口会被记为已覆盖，截断的部分以后不会再补。
+     * 支持的最细频率是 DAILY，每天最多一个实例，行数不超过窗口内的天数
+     * @param event 事件（必须已有ID）
+     * @param from 开始时间（包含）
+     * @param to 结束时间（不包含）
+     * @return 实例列表，不重复的事件返回空列表
+     */
+    static List<Occurrence> expand(Event event, long from, long to) {
+        if (!hasRrule(event)) {
+            return Collections.emptyList();
+        }
+
+        List<Occurrence> result = new ArrayList<>();
+        long duration = event.getEndTime() - event.getStartTime();
+        RecurrenceRule rule = RecurrenceUtils.compile(event.getRrule());
+        if (rule == null) {
+            // 无法识别的重复规则按单次事件处理，保证在视图中仍能看到
+            if (event.getStartTime() >= from && event.getStartTime() < to) {
+                result.add(new Occurrence(event.getId(), event.getStartTime(), event.getEndTime()));
+            }
+            return result;
+        }
+
+        RecurrenceRule.Occurrences occurrences = rule.occurrences(event.getStartTime(), from, to);
+        while (occurrences.hasNext()) {
+            long start = occurrences.next();
+            result.add(new Occurrence(event.getId(), start, start + duration));
+        }
+        return result;
+    }
+
+    /**
+     * @return 事件是否带有重复规则（只有这类事件写入 occurrences 表）
+     */
+    static boolean hasRrule(Event event) {
+        return event.getRrule() != null && !event.getRrule().isEmpty();
+    }
+
+    /**
+     * 把时间向下对齐到 HORIZON_STEP
+     */
+    static long alignDown(long time) {
+        return Math.floorDiv(time, HORIZON_STEP) * HORIZON_STEP;
+    }
+
+    /**
+     * 把时间向上对齐到 HORIZON_STEP
+     */
+    static long alignUp(long time) {
+        return -Math.floorDiv(-time, HORIZON_STEP) * HORIZON_STEP;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.calendar.database;
+
+/**
+ * // 功能：恢复提醒时使用的提醒与事件联查结果，只包含计算触发时间需要的字段
+ */
+public class ReminderTarget {
+    public long reminderId; // 提醒主键
+    public int minutes; // 提前提醒分钟数
+    public long eventId; // 关联日程ID
+    public long startTime; // 日程开始时间
+    public String rrule; // 重复规则
+}
@@ -0,0 +1,181 @@
+package com.example.calendar.database;
+
+import com.example.calendar.model.Event;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * // 功能：订阅增量合并，把新下载的VEVENT与上次同步的快照按UID比较
+ *
+ * 只有新增和内容变化的事件会被保留在内存中，
+ * 写入数据库的行数与变化的事件数量成正比，而不是与订阅源大小成正比。
+ * 变化的事件可以在提交过程中用 {@link #takeInserts()} / {@link #takeUpdates()} 分块取出写入，
+ * 内存中只保留尚未取出的部分。
+ */
+public class SubscriptionDelta {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final List<EventSnapshot> snapshot;
+    private final Map<String, EventSnapshot> previous = new HashMap<>();
+    private final Set<String> seenUids = new HashSet<>();
+    private List<Event> inserts = new ArrayList<>();
+    private List<Event> updates = new ArrayList<>();
+    private int insertCount;
+    private int updateCount;
+    private int unchangedCount;
+
+    /**
+     * @param snapshot 该订阅上次同步后数据库中的事件快照
+     */
+    public SubscriptionDelta(List<EventSnapshot> snapshot) {
+        for (EventSnapshot item : snapshot) {
+            if (item.uid != null) {
+                previous.put(item.uid, item);
+            }
+        }
+        // 没有UID的旧数据无法匹配，最终都会出现在删除列表中
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * 提交一个新下载的事件，判断它是新增、更新还是未变化
+     * @param event 已设置好订阅ID和类型的事件
+     */
+    public void offer(Event event) {
+        long hash = contentHash(event);
+        String uid = event.getUid();
+        if (uid == null || uid.isEmpty()) {
+            // 没有UID的事件用内容哈希作为标识，内容变化即视为删除后新增
+            uid = "hash:" + Long.toHexString(hash);
+        }
+        if (!seenUids.add(uid)) {
+            // 同一UID出现多次（如重复事件的例外实例），用开始时间区分
+            uid = uid + "#" + event.getStartTime();
+            if (!seenUids.add(uid)) {
+                return; // 完全重复的条目只保留一次
+            }
+        }
+        event.setUid(uid);
+        event.setContentHash(hash);
+
+        EventSnapshot old = previous.get(uid);
+        if (old == null) {
+            inserts.add(event);
+            insertCount++;
+        } else if (old.contentHash != hash) {
+            event.setId(old.id);
+            updates.add(event);
+            updateCount++;
+        } else {
+            unchangedCount++;
+        }
+    }
+
+    /**
+     * 取出目前为止需要新增的事件，取出后不再保留
+     * @return 需要新增的事件
+     */
+    public List<Event> takeInserts() {
+        List<Event> taken = inserts;
+        inserts = new ArrayList<>();
+        return taken;
+    }
+
+    /**
+     * 取出目前为止内容发生变化、需要更新的事件（已设置原有ID），取出后不再保留
+     * @return 需要更新的事件
+     */
+    public List<Event> takeUpdates() {
+        List<Event> taken = updates;
+        updates = new ArrayList<>();
+        return taken;
+    }
+
+    /**
+     * @return 尚未取出的新增和更新事件数量
+     */
+    public int getPendingCount() {
+        return inserts.size() + updates.size();
+    }
+
+    /**
+     * @return 累计的新增事件数量（包括已取出的）
+     */
+    public int getInsertCount() {
+        return insertCount;
+    }
+
+    /**
+     * @return 累计的更新事件数量（包括已取出的）
+     */
+    public int getUpdateCount() {
+        return updateCount;
+    }
+
+    /**
+     * 计算订阅源中已不存在的事件，应在所有事件提交完之后调用
+     * @return 需要删除的事件ID
+     */
+    public List<Long> getDeletedIds() {
+        List<Long> deletedIds = new ArrayList<>();
+        for (EventSnapshot item : snapshot) {
+            if (item.uid == null || !seenUids.contains(item.uid)) {
+                deletedIds.add(item.id);
+            }
+        }
+        return deletedIds;
+    }
+
+    /**
+     * @return 与上次同步相比没有变化的事件数量
+     */
+    public int getUnchangedCount() {
+        return unchangedCount;
+    }
+
+    /**
+     * 计算事件内容的64位FNV-1a哈希，覆盖所有从ICS导入的字段
+     * @param event 事件对象
+     * @return 内容哈希
+     */
+    public static long contentHash(Event event) {
+        long hash = FNV_OFFSET_BASIS;
+        hash = mix(hash, event.getTitle());
+        hash = mix(hash, event.getDescription());
+        hash = mix(hash, event.getLocation());
+        hash = mix(hash, event.getRrule());
+        hash = mix(hash, event.getStartTime());
+        hash = mix(hash, event.getEndTime());
+        return hash;
+    }
+
+    private static long mix(long hash, String value) {
+        if (value == null) {
+            return mix(hash, -1L);
+        }
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= FNV_PRIME;
+        }
+        // 字段分隔，避免 "ab"+"c" 与 "a"+"bc" 相同
+        hash ^= 0xff;
+        hash *= FNV_PRIME;
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        for (int i = 0; i < 8; i++) {
+            hash ^= (value >>> (i * 8)) & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
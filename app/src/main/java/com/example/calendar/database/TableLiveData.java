@@ -0,0 +1,99 @@
+package com.example.calendar.database;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.room.InvalidationTracker;
+
+import com.example.calendar.utils.AppExecutors;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * // 功能：由 Room 表失效通知驱动的 LiveData
+ *
+ * 只有被观察的表真正发生写入时才重新查询；页面不可见期间的变化只做标记，
+ * 回到前台时再查询一次。查询在数据库读线程池执行，多次连续变化合并为一次查询。
+ * 可以返回任意类型的结果（例如在后台直接构建好的月视图索引）。
+ * @param <T> 查询结果类型
+ */
+public class TableLiveData<T> extends LiveData<T> {
+    private static final String TAG = "TableLiveData";
+
+    private final InvalidationTracker tracker;
+    private final Callable<T> query;
+    private final InvalidationTracker.Observer tableObserver;
+
+    private final AtomicBoolean dirty = new AtomicBoolean(true); // 结果是否需要重新查询
+    private final AtomicBoolean loading = new AtomicBoolean(false);
+    private boolean registered; // 只在主线程访问
+
+    private final Runnable loadTask = new Runnable() {
+        @Override
+        public void run() {
+            // 查询期间又有变化时，完成后再查一次
+            do {
+                if (dirty.compareAndSet(true, false)) {
+                    try {
+                        postValue(query.call());
+                    } catch (Exception e) {
+                        Log.e(TAG, "查询失败", e);
+                    }
+                }
+                loading.set(false);
+            } while (dirty.get() && hasActiveObservers() && loading.compareAndSet(false, true));
+        }
+    };
+
+    /**
+     * @param db 数据库
+     * @param tables 结果依赖的表
+     * @param query 查询，在后台线程执行
+     */
+    TableLiveData(AppDatabase db, String[] tables, Callable<T> query) {
+        this.tracker = db.getInvalidationTracker();
+        this.query = query;
+        this.tableObserver = new InvalidationTracker.Observer(tables) {
+            @Override
+            public void onInvalidated(@NonNull Set<String> changedTables) {
+                dirty.set(true);
+                if (hasActiveObservers()) {
+                    scheduleLoad();
+                }
+            }
+        };
+    }
+
+    @Override
+    protected void onActive() {
+        if (!registered) {
+            // 不可见时也保持注册，用来标记变化；没有任何观察者时才注销
+            tracker.addObserver(tableObserver);
+            registered = true;
+        }
+        if (dirty.get()) {
+            scheduleLoad();
+        }
+    }
+
+    @Override
+    public void removeObserver(@NonNull Observer<? super T> observer) {
+        super.removeObserver(observer);
+        if (!hasObservers() && registered) {
+            tracker.removeObserver(tableObserver);
+            registered = false;
+            // 注销期间的变化无法得知，下次观察时重新查询
+            dirty.set(true);
+        }
+    }
+
+    private void scheduleLoad() {
+        if (loading.compareAndSet(false, true)) {
+            AppExecutors.getInstance().dbRead().execute(loadTask);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.calendar.model;
 
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import androidx.room.Ignore;
 import java.util.List;
@@ -8,7 +10,15 @@ import java.util.List;
 /**
  * // 功能：日程事件实体类，对应RFC5545标准中的VEVENT
  */
-@Entity(tableName = "events")
+@Entity(tableName = "events",
+        indices = {
+                // 区间查询索引：按开始时间范围扫描，同时覆盖结束时间判断
+                @Index(value = {"startTime", "endTime"}),
+                // 跨入窗口的长事件（开始于窗口之前）按结束时间查找
+                @Index(value = {"endTime", "startTime"}),
+                // 订阅增量同步按 (订阅ID, UID) 定位事件
+                @Index(value = {"subscriptionId", "uid"}, unique = true)
+        })
 public class Event {
     @PrimaryKey(autoGenerate = true)
     private long id; // 主键
@@ -23,6 +33,9 @@ public class Event {
     private boolean isLunar; // 是否农历日期
     private String lunarDate; // 农历日期（如"正月十五"，仅isLunar=true时有效）
     private long subscriptionId; // 订阅ID（如果是从订阅导入的事件）
+    private String uid; // 唯一标识（UID），本地创建的事件为null
+    @ColumnInfo(defaultValue = "0")
+    private long contentHash; // 内容哈希，用于订阅同步时判断事件是否变化
 
     // 构造方法
     public Event() {}
@@ -126,4 +139,20 @@ public class Event {
     public void setSubscriptionId(long subscriptionId) {
         this.subscriptionId = subscriptionId;
     }
+
+    public String getUid() {
+        return uid;
+    }
+
+    public void setUid(String uid) {
+        this.uid = uid;
+    }
+
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(long contentHash) {
+        this.contentHash = contentHash;
+    }
 }
\ No newline at end of file
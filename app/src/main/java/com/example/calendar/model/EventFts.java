@@ -0,0 +1,56 @@
+package com.example.calendar.model;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+import androidx.room.PrimaryKey;
+
+/**
+ * // 功能：事件全文索引表，以 events 表为外部内容表，由 Room 生成的触发器自动保持同步
+ * 使用 ICU 分词，中文标题也能按词检索
+ */
+@Fts4(contentEntity = Event.class, tokenizer = FtsOptions.TOKENIZER_ICU)
+@Entity(tableName = "events_fts")
+public class EventFts {
+    @PrimaryKey
+    @ColumnInfo(name = "rowid")
+    private long rowId; // 对应 events.id
+
+    private String title; // 标题
+    private String description; // 描述
+    private String location; // 地点
+
+    // Getter和Setter方法
+    public long getRowId() {
+        return rowId;
+    }
+
+    public void setRowId(long rowId) {
+        this.rowId = rowId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.calendar.model;
+
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * // 功能：重复事件实例索引，保存重复事件在展开窗口内的每一次实例
+ * 只为带重复规则的事件生成，由 EventDao 在增删改事件时维护，事件删除时级联删除
+ */
+@Entity(tableName = "occurrences",
+        foreignKeys = @ForeignKey(entity = Event.class,
+                parentColumns = "id",
+                childColumns = "eventId",
+                onDelete = ForeignKey.CASCADE),
+        indices = {
+                // 与 events 表相同的区间查询索引
+                @Index(value = {"startTime", "endTime"}),
+                @Index(value = {"endTime", "startTime"}),
+                @Index(value = {"eventId"})
+        })
+public class Occurrence {
+    @PrimaryKey(autoGenerate = true)
+    private long id; // 主键
+
+    private long eventId; // 所属重复事件ID
+    private long startTime; // 本次实例开始时间（毫秒）
+    private long endTime; // 本次实例结束时间（毫秒）
+
+    // 构造方法
+    public Occurrence() {}
+
+    @Ignore
+    public Occurrence(long eventId, long startTime, long endTime) {
+        this.eventId = eventId;
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    // Getter和Setter方法
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public long getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(long eventId) {
+        this.eventId = eventId;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(long startTime) {
+        this.startTime = startTime;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(long endTime) {
+        this.endTime = endTime;
+    }
+}
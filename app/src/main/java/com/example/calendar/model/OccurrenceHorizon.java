@@ -0,0 +1,61 @@
+package com.example.calendar.model;
+
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.PrimaryKey;
+
+/**
+ * // 功能：重复实例索引的展开窗口，occurrences 表只保证覆盖 [rangeStart, rangeEnd)
+ * 表中只有一行（id固定为0）
+ */
+@Entity(tableName = "occurrence_horizon")
+public class OccurrenceHorizon {
+    public static final int SINGLETON_ID = 0;
+
+    @PrimaryKey
+    private int id = SINGLETON_ID;
+
+    private long rangeStart; // 已展开窗口开始时间（包含）
+    private long rangeEnd; // 已展开窗口结束时间（不包含）
+
+    // 构造方法
+    public OccurrenceHorizon() {}
+
+    @Ignore
+    public OccurrenceHorizon(long rangeStart, long rangeEnd) {
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
+    }
+
+    // Getter和Setter方法
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public long getRangeStart() {
+        return rangeStart;
+    }
+
+    public void setRangeStart(long rangeStart) {
+        this.rangeStart = rangeStart;
+    }
+
+    public long getRangeEnd() {
+        return rangeEnd;
+    }
+
+    public void setRangeEnd(long rangeEnd) {
+        this.rangeEnd = rangeEnd;
+    }
+
+    /**
+     * @return 窗口是否完整覆盖 [from, to)
+     */
+    public boolean covers(long from, long to) {
+        return rangeStart <= from && rangeEnd >= to;
+    }
+}
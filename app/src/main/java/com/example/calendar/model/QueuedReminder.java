@@ -0,0 +1,74 @@
+package com.example.calendar.model;
+
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * // 功能：待触发提醒队列，每个提醒只保存下一次要触发的时间
+ * 系统中只注册一个闹钟，指向队列中最早的一条；触发后再计算下一次并重新注册
+ */
+@Entity(tableName = "reminder_queue",
+        foreignKeys = @ForeignKey(entity = Event.class,
+                parentColumns = "id",
+                childColumns = "eventId",
+                onDelete = ForeignKey.CASCADE),
+        indices = {
+                // 按触发时间取最早的一条
+                @Index(value = {"triggerTime"}),
+                @Index(value = {"eventId"})
+        })
+public class QueuedReminder {
+    @PrimaryKey
+    private long reminderId; // 对应的提醒ID，每个提醒最多一条
+
+    private long eventId; // 关联日程ID
+    private long occurrenceStart; // 本次提醒对应的实例开始时间（毫秒）
+    private long triggerTime; // 触发时间（毫秒）
+
+    // 构造方法
+    public QueuedReminder() {}
+
+    @Ignore
+    public QueuedReminder(long reminderId, long eventId, long occurrenceStart, long triggerTime) {
+        this.reminderId = reminderId;
+        this.eventId = eventId;
+        this.occurrenceStart = occurrenceStart;
+        this.triggerTime = triggerTime;
+    }
+
+    // Getter和Setter方法
+    public long getReminderId() {
+        return reminderId;
+    }
+
+    public void setReminderId(long reminderId) {
+        this.reminderId = reminderId;
+    }
+
+    public long getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(long eventId) {
+        this.eventId = eventId;
+    }
+
+    public long getOccurrenceStart() {
+        return occurrenceStart;
+    }
+
+    public void setOccurrenceStart(long occurrenceStart) {
+        this.occurrenceStart = occurrenceStart;
+    }
+
+    public long getTriggerTime() {
+        return triggerTime;
+    }
+
+    public void setTriggerTime(long triggerTime) {
+        this.triggerTime = triggerTime;
+    }
+}
@@ -1,13 +1,15 @@
 package com.example.calendar.model;
 
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import androidx.room.Ignore;
 
 /**
  * // 功能：提醒实体类，对应RFC5545标准中的VALARM
  */
-@Entity(tableName = "reminders")
+@Entity(tableName = "reminders",
+        indices = {@Index(value = {"eventId"})})
 public class Reminder {
     @PrimaryKey(autoGenerate = true)
     private long id; // 主键
@@ -17,6 +17,8 @@ public class Subscription {
     private long updateInterval; // 更新频率（毫秒）
     private long lastUpdateTime; // 最后更新时间
     private boolean isEnabled = true; // 是否启用
+    private String etag; // 上次下载响应的ETag，用于条件请求
+    private String lastModified; // 上次下载响应的Last-Modified，用于条件请求
 
     // 构造方法
     public Subscription() {}
@@ -76,4 +78,20 @@ public class Subscription {
     public void setEnabled(boolean enabled) {
         isEnabled = enabled;
     }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public void setEtag(String etag) {
+        this.etag = etag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(String lastModified) {
+        this.lastModified = lastModified;
+    }
 }
\ No newline at end of file
@@ -7,21 +7,36 @@ import android.util.Log;
 
 import com.example.calendar.service.SubscriptionSyncService;
 import com.example.calendar.utils.ReminderManager;
+import com.example.calendar.utils.AppExecutors;
+
 
 /**
  * // 功能：开机广播接收器，用于重启提醒服务和订阅同步服务
+ * 应用更新后系统同样会清除闹钟，因此也处理 MY_PACKAGE_REPLACED
  */
 public class BootReceiver extends BroadcastReceiver {
     private static final String TAG = "BootReceiver";
     
     @Override
     public void onReceive(Context context, Intent intent) {
-        if (Intent.ACTION_BOOT_COMPLETED.equals(intent.getAction())) {
+        String action = intent.getAction();
+        if (Intent.ACTION_BOOT_COMPLETED.equals(action)
+                || Intent.ACTION_MY_PACKAGE_REPLACED.equals(action)) {
             Log.d(TAG, "设备启动完成，正在重启服务");
             
-            // 重新设置所有提醒
-            ReminderManager reminderManager = new ReminderManager(context);
-            // 在实际应用中，这里应该从数据库中恢复所有提醒
+            // 在后台从数据库恢复所有提醒，goAsync 让广播在恢复完成前保持有效
+            PendingResult result = goAsync();
+            Context appContext = context.getApplicationContext();
+            AppExecutors.getInstance().dbWrite().execute(() -> {
+                try {
+                    int restored = new ReminderManager(appContext).restoreAllReminders();
+                    Log.d(TAG, "已恢复提醒: " + restored);
+                } catch (Exception e) {
+                    Log.e(TAG, "恢复提醒时出错", e);
+                } finally {
+                    result.finish();
+                }
+            });
             
             // 启动订阅同步服务
             Intent syncServiceIntent = new Intent(context, SubscriptionSyncService.class);
@@ -30,4 +45,4 @@ public class BootReceiver extends BroadcastReceiver {
             Log.d(TAG, "服务重启完成");
         }
     }
-}
\ No newline at end of file
+}
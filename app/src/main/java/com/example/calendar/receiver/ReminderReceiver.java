@@ -3,16 +3,36 @@ package com.example.calendar.receiver;
 import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
+import android.util.Log;
 
 import com.example.calendar.utils.ReminderManager;
+import com.example.calendar.utils.AppExecutors;
+
 
 /**
  * // 功能：提醒广播接收器，接收定时提醒广播并显示通知
  */
 public class ReminderReceiver extends BroadcastReceiver {
+    private static final String TAG = "ReminderReceiver";
     
     @Override
     public void onReceive(Context context, Intent intent) {
+        if (ReminderManager.ACTION_FIRE_REMINDERS.equals(intent.getAction())) {
+            PendingResult result = goAsync();
+            Context appContext = context.getApplicationContext();
+            AppExecutors.getInstance().dbWrite().execute(() -> {
+                try {
+                    new ReminderManager(appContext).fireDueReminders();
+                } catch (Exception e) {
+                    Log.e(TAG, "处理到期提醒时出错", e);
+                } finally {
+                    result.finish();
+                }
+            });
+            return;
+        }
+        
+        // 旧版本按单个提醒设置的闹钟，升级后仍可能触发一次
         long eventId = intent.getLongExtra("event_id", -1);
         String title = intent.getStringExtra("event_title");
         long time = intent.getLongExtra("event_time", System.currentTimeMillis());
@@ -23,4 +43,4 @@ public class ReminderReceiver extends BroadcastReceiver {
             reminderManager.showReminderNotification(eventId, title, time, location);
         }
     }
-}
\ No newline at end of file
+}
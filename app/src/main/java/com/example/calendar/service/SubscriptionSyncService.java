@@ -19,8 +19,6 @@ import com.example.calendar.MainActivity;
 import com.example.calendar.R;
 import com.example.calendar.database.AppDatabase;
 import com.example.calendar.model.Subscription;
-import com.example.calendar.utils.IcsImportExportUtils;
-import com.example.calendar.utils.NetworkUtils;
 
 import java.util.List;
 import java.util.concurrent.Executors;
@@ -113,63 +111,19 @@ public class SubscriptionSyncService extends Service {
     }
     
     /**
-     * 检查并同步订阅
+     * 检查并同步订阅：到期的订阅交给 {@link SyncScheduler} 排队，限制同时同步的数量
      */
     private void checkAndSyncSubscriptions() {
         try {
             List<Subscription> subscriptions = db.eventDao().getAllSubscriptions();
-            long currentTime = System.currentTimeMillis();
-            
-            for (Subscription subscription : subscriptions) {
-                // 如果订阅启用且到了同步时间，则执行同步
-                if (subscription.isEnabled() && subscription.getUpdateInterval() > 0) {
-                    long nextSyncTime = subscription.getLastUpdateTime() + subscription.getUpdateInterval();
-                    if (currentTime >= nextSyncTime) {
-                        syncSubscription(subscription);
-                    }
-                }
-            }
+            SyncScheduler syncScheduler = SyncScheduler.getInstance(this);
+            int queued = syncScheduler.scheduleDue(subscriptions, System.currentTimeMillis());
+            Log.d(TAG, "到期订阅 " + queued + " 个，" + syncScheduler.dumpStats());
         } catch (Exception e) {
             Log.e(TAG, "检查订阅同步时出错", e);
         }
     }
     
-    /**
-     * 同步单个订阅
-     * @param subscription 订阅对象
-     */
-    private void syncSubscription(Subscription subscription) {
-        new Thread(() -> {
-            try {
-                // 下载订阅日历文件
-                String icsContent = NetworkUtils.downloadSubscriptionCalendar(subscription);
-                
-                if (icsContent != null) {
-                    // 解析ICS内容
-                    List<com.example.calendar.model.Event> events = IcsImportExportUtils.parseIcsContent(icsContent);
-                    
-                    // 保存事件到数据库
-                    for (com.example.calendar.model.Event event : events) {
-                        // 为订阅事件设置特殊标识，避免与用户自建事件冲突
-                        event.setType(3); // 3表示订阅事件
-                        event.setSubscriptionId(subscription.getId()); // 关联订阅ID
-                        db.eventDao().insertEvent(event);
-                    }
-                    
-                    // 更新最后同步时间
-                    subscription.setLastUpdateTime(System.currentTimeMillis());
-                    db.eventDao().updateSubscription(subscription);
-                    
-                    Log.d(TAG, "订阅 \"" + subscription.getName() + "\" 同步完成");
-                } else {
-                    Log.w(TAG, "订阅 \"" + subscription.getName() + "\" 同步失败");
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "同步订阅 \"" + subscription.getName() + "\" 时出错", e);
-            }
-        }).start();
-    }
-    
     @Nullable
     @Override
     public IBinder onBind(Intent intent) {
@@ -0,0 +1,84 @@
+package com.example.calendar.service;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.calendar.database.AppDatabase;
+import com.example.calendar.database.EventDao;
+import com.example.calendar.database.SubscriptionDelta;
+import com.example.calendar.model.Subscription;
+import com.example.calendar.utils.NetworkUtils;
+import com.example.calendar.utils.SubscriptionFetch;
+
+import java.io.IOException;
+
+/**
+ * // 功能：订阅同步器，下载订阅日历并按UID与上次同步结果做增量合并
+ * 手动同步（SubscriptionActivity）与定时同步（SubscriptionSyncService）都通过 {@link SyncScheduler} 调用
+ */
+public class SubscriptionSyncer {
+    private static final String TAG = "SubscriptionSyncer";
+
+    private final Context context;
+    private final EventDao eventDao;
+    private final SyncPipeline pipeline;
+
+    public SubscriptionSyncer(Context context) {
+        this(context.getApplicationContext(), AppDatabase.getDatabase(context).eventDao(), new SyncPipeline(context));
+    }
+
+    /**
+     * @param context 上下文（创建默认HTTP客户端时使用）
+     * @param eventDao 数据访问对象
+     * @param pipeline 下载、解析、写库流水线
+     */
+    SubscriptionSyncer(Context context, EventDao eventDao, SyncPipeline pipeline) {
+        this.context = context;
+        this.eventDao = eventDao;
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * 同步单个订阅
+     * @param subscription 订阅对象（必须已保存，带有ID）
+     * @param report 记录下载字节数、事件数和各阶段耗时
+     * @return 是否同步成功；下载失败返回false
+     * @throws IOException 读取订阅内容失败
+     */
+    public boolean sync(Subscription subscription, SyncReport report) throws IOException {
+        // 条件下载订阅日历文件，边下载边解析
+        long requestStart = System.currentTimeMillis();
+        try (SubscriptionFetch fetch = NetworkUtils.fetchSubscriptionCalendar(context, subscription)) {
+            report.setHeadersMillis(System.currentTimeMillis() - requestStart);
+            if (fetch == null) {
+                Log.w(TAG, "订阅 \"" + subscription.getName() + "\" 下载失败");
+                return false;
+            }
+
+            if (fetch.isNotModified()) {
+                // 服务器返回304，跳过解析和写库，只更新同步时间
+                report.setNotModified(true);
+                subscription.setLastUpdateTime(System.currentTimeMillis());
+                eventDao.updateSubscription(subscription);
+                Log.d(TAG, "订阅 \"" + subscription.getName() + "\" 未变化，跳过同步");
+                return true;
+            }
+
+            // 下载、解析、写库同时进行，变化的事件边下载边分块写入
+            SubscriptionDelta delta = pipeline.run(subscription, fetch, report);
+
+            // 写库成功后才保存校验值，避免中途失败后被304跳过
+            subscription.setEtag(fetch.getEtag());
+            subscription.setLastModified(fetch.getLastModified());
+            // 更新最后同步时间
+            subscription.setLastUpdateTime(System.currentTimeMillis());
+            eventDao.updateSubscription(subscription);
+
+            Log.d(TAG, "订阅 \"" + subscription.getName() + "\" 同步完成：新增 "
+                    + delta.getInsertCount() + "，更新 " + delta.getUpdateCount()
+                    + "，删除 " + delta.getDeletedIds().size()
+                    + "，未变化 " + delta.getUnchangedCount());
+            return true;
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package com.example.calendar.service;
+
+import android.content.Context;
+
+import com.example.calendar.database.AppDatabase;
+import com.example.calendar.database.EventBatchWriter;
+import com.example.calendar.database.EventDao;
+import com.example.calendar.database.SubscriptionDelta;
+import com.example.calendar.model.Event;
+import com.example.calendar.model.Subscription;
+import com.example.calendar.utils.AppExecutors;
+import com.example.calendar.utils.EventRepository;
+import com.example.calendar.utils.IcsStreamParser;
+import com.example.calendar.utils.SubscriptionFetch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+
+/**
+ * // 功能：订阅同步流水线：下载 → 解析 → 分块写库，三个阶段在不同线程中同时进行
+ *
+ * 下载线程把响应体按块放入有界队列，调用线程从队列读取、解析并与上次同步的快照比较，
+ * 变化的事件每满一块就交给数据库写线程在一个事务中写入，同时最多有 {@link #MAX_PENDING_CHUNKS} 块等待写入。
+ * 后一阶段跟不上时前一阶段在队列上阻塞，内存中只保留几块数据，总耗时接近最慢的阶段而不是三者之和。
+ *
+ * 删除在所有块写入之后最后执行，中途失败不会删除任何事件；已写入的块不会回滚，
+ * 下次同步时它们与快照一致，不会被重复写入。
+ */
+final class SyncPipeline {
+
+    // 下载阶段每块最多的字节数
+    private static final int BLOCK_SIZE = 16 * 1024;
+    // 下载与解析之间最多缓冲的块数
+    private static final int MAX_PENDING_BLOCKS = 8;
+    // 解析与写库之间最多等待写入的块数
+    private static final int MAX_PENDING_CHUNKS = 2;
+    // 下载队列的结束标记
+    private static final byte[] END_OF_STREAM = new byte[0];
+
+    private final EventDao eventDao;
+    private final Runnable onEventsChanged;
+    private final ExecutorService downloader;
+    private final ExecutorService writer;
+    private final int chunkSize;
+
+    SyncPipeline(Context context) {
+        this(AppDatabase.getDatabase(context).eventDao(),
+                EventRepository.getInstance(context)::invalidateAll,
+                AppExecutors.getInstance().network(),
+                AppExecutors.getInstance().dbWrite(),
+                EventBatchWriter.DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param eventDao 数据访问对象
+     * @param onEventsChanged 每次写库后在写线程中调用（清空事件缓存）
+     * @param downloader 下载阶段的线程池
+     * @param writer 写库阶段的线程池，必须是单线程的
+     * @param chunkSize 每个事务写入的事件数量
+     */
+    SyncPipeline(EventDao eventDao, Runnable onEventsChanged, ExecutorService downloader,
+                 ExecutorService writer, int chunkSize) {
+        this.eventDao = eventDao;
+        this.onEventsChanged = onEventsChanged;
+        this.downloader = downloader;
+        this.writer = writer;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * 下载并合并一个订阅的新内容，在调用线程中解析，返回时所有变化都已写入数据库
+     * @param subscription 订阅对象（必须已保存，带有ID）
+     * @param fetch 带有新内容的下载结果，由调用方关闭
+     * @param report 记录下载字节数、事件数和写库耗时
+     * @return 增量合并结果（只含计数，变化的事件已取出写入）
+     * @throws IOException 读取订阅内容失败
+     */
+    SubscriptionDelta run(Subscription subscription, SubscriptionFetch fetch, SyncReport report) throws IOException {
+        SubscriptionDelta delta = new SubscriptionDelta(eventDao.getSubscriptionSnapshot(subscription.getId()));
+        // 写库失败后不再需要剩余的内容，取消下载让解析阶段尽快结束
+        ChunkWriter chunks = new ChunkWriter(fetch::cancel);
+
+        // 按响应声明的字符集解码，默认UTF-8
+        ResponseBody body = fetch.getBody();
+        MediaType contentType = body.contentType();
+        Charset charset = contentType != null ? contentType.charset(StandardCharsets.UTF_8) : StandardCharsets.UTF_8;
+        Download download = new Download(body.byteStream());
+        Future<?> downloadTask = downloader.submit(download);
+
+        try (IcsStreamParser parser = new IcsStreamParser(new InputStreamReader(download, charset))) {
+            try {
+                Event event;
+                while ((event = parser.next()) != null) {
+                    // 为订阅事件设置特殊标识，避免与用户自建事件冲突
+                    event.setType(3); // 3表示订阅事件
+                    event.setSubscriptionId(subscription.getId()); // 关联订阅ID
+                    delta.offer(event);
+                    if (delta.getPendingCount() >= chunkSize) {
+                        chunks.submit(delta.takeInserts(), delta.takeUpdates());
+                    }
+                }
+            } finally {
+                report.setEventCount(parser.getEventCount());
+            }
+            chunks.submit(delta.takeInserts(), delta.takeUpdates());
+            chunks.finish(delta.getDeletedIds());
+        } catch (IOException e) {
+            // 因写库失败而取消的下载，报告写库的异常
+            chunks.checkFailure();
+            throw e;
+        } finally {
+            // 提前结束（解析或写库失败）时取消请求，让阻塞在读取上的下载线程退出；
+            // 响应体不是线程安全的，必须等下载线程结束后才能由调用方关闭
+            download.cancel();
+            if (!downloadTask.isDone()) {
+                fetch.cancel();
+            }
+            awaitUninterruptibly(downloadTask);
+            // 等已提交的块写完，避免与下一次同步读取的快照交错
+            chunks.awaitPending();
+            report.setDownloadBytes(download.getCount());
+            report.setWriteMillis(chunks.getWriteMillis());
+        }
+        return delta;
+    }
+
+    /**
+     * 等待任务结束，期间的中断在结束后恢复
+     */
+    private static void awaitUninterruptibly(Future<?> task) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                task.get();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            } catch (ExecutionException e) {
+                break; // 下载线程的异常已记录在 error 中
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 下载阶段：在下载线程中读取响应体放入有界队列，同时作为解析阶段的输入流
+     */
+    private static final class Download extends InputStream implements Runnable {
+        private final InputStream source;
+        private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(MAX_PENDING_BLOCKS);
+        private volatile boolean cancelled;
+        private volatile long count;
+        private volatile IOException error;
+
+        // 以下只在解析线程中访问
+        private byte[] current;
+        private int position;
+
+        Download(InputStream source) {
+            this.source = source;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!cancelled) {
+                    // 每次读到的数据立即交给解析线程，不等凑满一块
+                    byte[] block = new byte[BLOCK_SIZE];
+                    int length = source.read(block);
+                    if (length < 0) {
+                        break;
+                    }
+                    if (length > 0) {
+                        count += length;
+                        put(length == BLOCK_SIZE ? block : Arrays.copyOf(block, length));
+                    }
+                }
+            } catch (IOException e) {
+                error = e;
+            } catch (RuntimeException e) {
+                // 请求被取消后 OkHttp 可能抛出 IllegalStateException("closed")
+                error = new IOException("下载订阅内容失败", e);
+            }
+            put(END_OF_STREAM);
+        }
+
+        /**
+         * 放入一块数据，队列满时等待解析线程取走；取消后直接丢弃
+         */
+        private void put(byte[] block) {
+            try {
+                while (!cancelled && !queue.offer(block, 100, TimeUnit.MILLISECONDS)) {
+                    // 等待解析线程
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelled = true;
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!nextBlock()) {
+                return -1;
+            }
+            return current[position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!nextBlock()) {
+                return -1;
+            }
+            int n = Math.min(length, current.length - position);
+            System.arraycopy(current, position, buffer, offset, n);
+            position += n;
+            return n;
+        }
+
+        /**
+         * 当前块读完时从队列取下一块
+         * @return 是否还有数据；下载出错时抛出下载线程的异常
+         */
+        private boolean nextBlock() throws IOException {
+            while (current == null || position == current.length) {
+                if (current == END_OF_STREAM) {
+                    if (error != null) {
+                        throw error;
+                    }
+                    return false;
+                }
+                try {
+                    current = queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("等待订阅内容时被中断");
+                }
+                position = 0;
+            }
+            return true;
+        }
+
+        void cancel() {
+            cancelled = true;
+            queue.clear();
+        }
+
+        @Override
+        public void close() {
+            cancel();
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * 写库阶段：把变化的事件块提交到数据库写线程，每块一个事务
+     * 写线程是单线程的，块按提交顺序写入，最后的删除在所有块之后执行
+     */
+    private final class ChunkWriter {
+        private final Semaphore pending = new Semaphore(MAX_PENDING_CHUNKS);
+        private final Runnable onFailure;
+        private volatile RuntimeException failure;
+        private volatile long writeMillis; // 只在写线程中累加
+
+        /**
+         * @param onFailure 某一块写入失败时在写线程中调用
+         */
+        ChunkWriter(Runnable onFailure) {
+            this.onFailure = onFailure;
+        }
+
+        /**
+         * 提交一块变化，已有 MAX_PENDING_CHUNKS 块等待写入时阻塞
+         * @param inserts 需要新增的事件
+         * @param updates 需要更新的事件
+         */
+        void submit(List<Event> inserts, List<Event> updates) throws IOException {
+            checkFailure();
+            if (inserts.isEmpty() && updates.isEmpty()) {
+                return;
+            }
+            try {
+                pending.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("等待写入订阅事件时被中断");
+            }
+            writer.execute(() -> {
+                try {
+                    if (failure == null) {
+                        long start = System.currentTimeMillis();
+                        eventDao.applySubscriptionChanges(inserts, updates);
+                        onEventsChanged.run();
+                        writeMillis += System.currentTimeMillis() - start;
+                    }
+                } catch (RuntimeException e) {
+                    failure = e;
+                    onFailure.run();
+                } finally {
+                    pending.release();
+                }
+            });
+        }
+
+        /**
+         * 在所有块写入后删除订阅源中已不存在的事件，并等待全部写完
+         * @param deletedIds 需要删除的事件ID
+         */
+        void finish(List<Long> deletedIds) throws IOException {
+            Future<?> done = writer.submit(() -> {
+                if (failure == null && !deletedIds.isEmpty()) {
+                    long start = System.currentTimeMillis();
+                    eventDao.deleteSubscriptionEvents(deletedIds);
+                    onEventsChanged.run();
+                    writeMillis += System.currentTimeMillis() - start;
+                }
+            });
+            try {
+                done.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("等待写入订阅事件时被中断");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+            }
+            checkFailure();
+        }
+
+        /**
+         * 等待已提交的块全部写完（成功或失败）
+         */
+        void awaitPending() {
+            pending.acquireUninterruptibly(MAX_PENDING_CHUNKS);
+            pending.release(MAX_PENDING_CHUNKS);
+        }
+
+        void checkFailure() {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        long getWriteMillis() {
+            return writeMillis;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.calendar.service;
+
+/**
+ * // 功能：一次订阅同步的诊断信息：排队和各阶段耗时、下载字节数、解析的事件数和结果
+ * 由 {@link SubscriptionSyncer} 和 {@link SyncScheduler} 在同步线程中填写，完成后只读
+ */
+public class SyncReport {
+    private final long subscriptionId;
+    private final int priority;
+    private final int previousFailures;
+    private final long queuedMillis;
+    private final long startTime;
+
+    private String name;
+    private long headersMillis;  // 发出请求到收到响应头
+    private long writeMillis;    // 写入数据库
+    private long durationMillis; // 整个同步
+    private long downloadBytes;
+    private int eventCount;
+    private boolean notModified;
+    private boolean success;
+    private String error;
+
+    SyncReport(long subscriptionId, int priority, int previousFailures, long queuedMillis, long startTime) {
+        this.subscriptionId = subscriptionId;
+        this.priority = priority;
+        this.previousFailures = previousFailures;
+        this.queuedMillis = queuedMillis;
+        this.startTime = startTime;
+    }
+
+    void setName(String name) {
+        this.name = name;
+    }
+
+    void setHeadersMillis(long headersMillis) {
+        this.headersMillis = headersMillis;
+    }
+
+    void setWriteMillis(long writeMillis) {
+        this.writeMillis = writeMillis;
+    }
+
+    void setDownloadBytes(long downloadBytes) {
+        this.downloadBytes = downloadBytes;
+    }
+
+    void setEventCount(int eventCount) {
+        this.eventCount = eventCount;
+    }
+
+    void setNotModified(boolean notModified) {
+        this.notModified = notModified;
+    }
+
+    /**
+     * 记录同步结果和总耗时
+     * @param success 是否成功
+     * @param error 失败原因，成功时为null
+     */
+    void finish(boolean success, String error) {
+        this.success = success;
+        this.error = error;
+        this.durationMillis = System.currentTimeMillis() - startTime;
+    }
+
+    public long getSubscriptionId() {
+        return subscriptionId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return 调度优先级，见 {@link SyncScheduler}
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * @return 本次之前连续失败的次数
+     */
+    public int getPreviousFailures() {
+        return previousFailures;
+    }
+
+    /**
+     * @return 在队列中等待的毫秒数
+     */
+    public long getQueuedMillis() {
+        return queuedMillis;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getHeadersMillis() {
+        return headersMillis;
+    }
+
+    public long getWriteMillis() {
+        return writeMillis;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * @return 下载的响应体字节数（304 时为0）
+     */
+    public long getDownloadBytes() {
+        return downloadBytes;
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    public boolean isNotModified() {
+        return notModified;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    /**
+     * @return 失败原因，成功时为null
+     */
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "订阅 #" + subscriptionId + " \"" + name + "\" "
+                + (success ? (notModified ? "未变化" : "成功") : "失败: " + error)
+                + "，总耗时 " + durationMillis + "ms（排队 " + queuedMillis
+                + "ms，响应头 " + headersMillis + "ms，写库 " + writeMillis + "ms）"
+                + "，下载 " + downloadBytes + " 字节，事件 " + eventCount
+                + (previousFailures > 0 ? "，此前连续失败 " + previousFailures + " 次" : "");
+    }
+}
@@ -0,0 +1,313 @@
+package com.example.calendar.service;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.calendar.database.AppDatabase;
+import com.example.calendar.model.Subscription;
+import com.example.calendar.utils.AppExecutors;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * // 功能：订阅同步调度器，手动同步和定时同步共用
+ *
+ * 到期的订阅先进入优先级队列（手动 > 失败重试 > 定时，同一优先级中过期最久的先同步），
+ * 最多同时同步 {@link #MAX_CONCURRENT_SYNCS} 个，在网络线程池中执行。
+ * 同一个订阅在排队或同步期间不会再次加入，后来的请求合并到已有的任务上，保证同一订阅的同步互斥。
+ * 同步失败后按带随机抖动的指数退避安排重试，成功后清除退避状态；
+ * 订阅被停用或删除后不再同步，退避状态一并清除。
+ * 每次同步的耗时和下载字节数记录在 {@link SyncReport} 中，最近的记录可通过 {@link #dumpStats()} 查看。
+ */
+public final class SyncScheduler {
+    private static final String TAG = "SyncScheduler";
+
+    public static final int PRIORITY_MANUAL = 0;   // 用户手动触发
+    public static final int PRIORITY_RETRY = 1;    // 失败后的重试
+    public static final int PRIORITY_PERIODIC = 2; // 定时检查到期
+
+    // 同时进行的同步数，避免占满网络线程池
+    private static final int MAX_CONCURRENT_SYNCS = 2;
+    // 第一次失败后的重试间隔，之后每次翻倍，不超过上限
+    private static final long BASE_BACKOFF = TimeUnit.MINUTES.toMillis(1);
+    private static final long MAX_BACKOFF = TimeUnit.HOURS.toMillis(1);
+    // 保留的最近同步记录数
+    private static final int MAX_REPORTS = 50;
+
+    /**
+     * 同步完成回调，在同步线程中调用
+     */
+    public interface Callback {
+        void onSyncFinished(SyncReport report);
+    }
+
+    private static volatile SyncScheduler INSTANCE;
+
+    private final AppDatabase db;
+    private final SubscriptionSyncer syncer;
+    private final Executor workers;
+    // 重试计时挂在主线程 Looper 上，到期时只把任务加入队列，不单独占用线程
+    private final Handler retryHandler;
+
+    // 以下状态由 this 保护
+    private final PriorityQueue<Job> queue = new PriorityQueue<>();
+    private final Map<Long, Job> jobs = new HashMap<>(); // 排队中或正在同步的订阅
+    private final Map<Long, Backoff> backoffs = new HashMap<>();
+    private final ArrayDeque<SyncReport> recentReports = new ArrayDeque<>();
+    private int running;
+    private long sequence;
+    private long completedCount;
+    private long failedCount;
+    private long mergedCount;
+
+    private SyncScheduler(Context context) {
+        db = AppDatabase.getDatabase(context);
+        syncer = new SubscriptionSyncer(context);
+        workers = AppExecutors.getInstance().network();
+        retryHandler = new Handler(Looper.getMainLooper());
+    }
+
+    public static SyncScheduler getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (SyncScheduler.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new SyncScheduler(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 把到期的订阅加入队列（启用、设置了更新频率、不在退避期内）
+     * @param subscriptions 所有订阅
+     * @param now 当前时间
+     * @return 新加入队列的数量
+     */
+    public int scheduleDue(List<Subscription> subscriptions, long now) {
+        int added = 0;
+        for (Subscription subscription : subscriptions) {
+            if (!subscription.isEnabled() || subscription.getUpdateInterval() <= 0) {
+                continue;
+            }
+            long dueTime = subscription.getLastUpdateTime() + subscription.getUpdateInterval();
+            synchronized (this) {
+                Backoff backoff = backoffs.get(subscription.getId());
+                if (backoff != null) {
+                    dueTime = Math.max(dueTime, backoff.retryAt);
+                }
+            }
+            if (now >= dueTime && requestSync(subscription.getId(), PRIORITY_PERIODIC, dueTime, null)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * 请求立即同步一个订阅
+     * @param subscriptionId 订阅ID（必须已保存）
+     * @param priority 优先级，见 PRIORITY_* 常量
+     * @param callback 完成回调，可以为null；订阅已在排队或同步时合并到已有任务，同样会被回调
+     * @return 是否新加入队列；已在排队或同步时返回false
+     */
+    public boolean requestSync(long subscriptionId, int priority, Callback callback) {
+        return requestSync(subscriptionId, priority, System.currentTimeMillis(), callback);
+    }
+
+    private synchronized boolean requestSync(long subscriptionId, int priority, long dueTime, Callback callback) {
+        Job job = jobs.get(subscriptionId);
+        if (job != null) {
+            mergedCount++;
+            if (callback != null) {
+                job.callbacks.add(callback);
+            }
+            // 还在排队时按更高的优先级重新排序
+            if (!job.started && (priority < job.priority || (priority == job.priority && dueTime < job.dueTime))) {
+                queue.remove(job);
+                job.priority = Math.min(priority, job.priority);
+                job.dueTime = Math.min(dueTime, job.dueTime);
+                queue.add(job);
+            }
+            return false;
+        }
+
+        job = new Job(subscriptionId, priority, dueTime, sequence++);
+        if (callback != null) {
+            job.callbacks.add(callback);
+        }
+        jobs.put(subscriptionId, job);
+        queue.add(job);
+        dispatch();
+        return true;
+    }
+
+    /**
+     * 在并发上限内把队首的任务交给网络线程池
+     */
+    private synchronized void dispatch() {
+        while (running < MAX_CONCURRENT_SYNCS && !queue.isEmpty()) {
+            Job job = queue.poll();
+            job.started = true;
+            running++;
+            workers.execute(() -> run(job));
+        }
+    }
+
+    private void run(Job job) {
+        int previousFailures;
+        synchronized (this) {
+            Backoff backoff = backoffs.get(job.subscriptionId);
+            previousFailures = backoff != null ? backoff.failures : 0;
+        }
+        long startTime = System.currentTimeMillis();
+        SyncReport report = new SyncReport(job.subscriptionId, job.priority, previousFailures,
+                startTime - job.enqueueTime, startTime);
+
+        Subscription subscription = null;
+        // 订阅已删除或停用：不同步、不重试
+        boolean inactive = false;
+        try {
+            // 每次从数据库读取最新的订阅（校验值、最后同步时间、启用状态可能已经改变）
+            subscription = db.eventDao().getSubscriptionById(job.subscriptionId);
+            if (subscription == null) {
+                inactive = true;
+                report.finish(false, "订阅已删除");
+            } else if (!subscription.isEnabled()) {
+                // 例如在退避期间被用户停用，到期的重试不再下载
+                inactive = true;
+                report.setName(subscription.getName());
+                report.finish(false, "订阅已停用");
+            } else {
+                report.setName(subscription.getName());
+                boolean synced = syncer.sync(subscription, report);
+                report.finish(synced, synced ? null : "下载失败");
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "同步订阅 #" + job.subscriptionId + " 时出错", e);
+            report.finish(false, String.valueOf(e.getMessage()));
+        }
+
+        List<Callback> callbacks;
+        synchronized (this) {
+            jobs.remove(job.subscriptionId);
+            running--;
+            recordReport(report);
+            if (report.isSuccess() || inactive) {
+                backoffs.remove(job.subscriptionId);
+            } else if (subscription != null && subscription.getUpdateInterval() > 0) {
+                // 只有定期同步的订阅自动重试，一次性订阅的失败由界面提示
+                scheduleRetry(job.subscriptionId, report.getStartTime());
+            }
+            callbacks = new ArrayList<>(job.callbacks);
+            dispatch();
+        }
+
+        Log.d(TAG, report.toString());
+        for (Callback callback : callbacks) {
+            callback.onSyncFinished(report);
+        }
+    }
+
+    /**
+     * 失败后按指数退避安排重试：间隔为 BASE_BACKOFF * 2^(失败次数-1)，不超过 MAX_BACKOFF，
+     * 再在 [间隔/2, 间隔) 内随机取值，避免多个订阅同时重试
+     */
+    private synchronized void scheduleRetry(long subscriptionId, long now) {
+        Backoff backoff = backoffs.get(subscriptionId);
+        if (backoff == null) {
+            backoff = new Backoff();
+            backoffs.put(subscriptionId, backoff);
+        }
+        backoff.failures++;
+        long delay = Math.min(MAX_BACKOFF, BASE_BACKOFF << Math.min(backoff.failures - 1, 20));
+        delay = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2);
+        long retryAt = now + delay;
+        backoff.retryAt = retryAt;
+        retryHandler.postDelayed(() -> requestSync(subscriptionId, PRIORITY_RETRY, retryAt, null), delay);
+        Log.w(TAG, "订阅 #" + subscriptionId + " 连续失败 " + backoff.failures + " 次，"
+                + delay / 1000 + " 秒后重试");
+    }
+
+    private void recordReport(SyncReport report) {
+        completedCount++;
+        if (!report.isSuccess()) {
+            failedCount++;
+        }
+        recentReports.addLast(report);
+        if (recentReports.size() > MAX_REPORTS) {
+            recentReports.removeFirst();
+        }
+    }
+
+    /**
+     * @return 最近的同步记录，按完成时间从早到晚
+     */
+    public synchronized List<SyncReport> getRecentReports() {
+        return new ArrayList<>(recentReports);
+    }
+
+    /**
+     * @return 队列长度、正在同步数、累计完成/失败/合并数和退避中的订阅数（用于日志）
+     */
+    public synchronized String dumpStats() {
+        return "sync running=" + running
+                + " queued=" + queue.size()
+                + " completed=" + completedCount
+                + " failed=" + failedCount
+                + " merged=" + mergedCount
+                + " backingOff=" + backoffs.size();
+    }
+
+    /**
+     * 一个订阅的同步任务，按 (优先级, 到期时间, 加入顺序) 排序
+     */
+    private static final class Job implements Comparable<Job> {
+        final long subscriptionId;
+        final long sequence;
+        final long enqueueTime = System.currentTimeMillis();
+        final List<Callback> callbacks = new ArrayList<>(1);
+        int priority;
+        long dueTime;
+        boolean started;
+
+        Job(long subscriptionId, int priority, long dueTime, long sequence) {
+            this.subscriptionId = subscriptionId;
+            this.priority = priority;
+            this.dueTime = dueTime;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(@NonNull Job other) {
+            if (priority != other.priority) {
+                return Integer.compare(priority, other.priority);
+            }
+            if (dueTime != other.dueTime) {
+                // 到期越早，过期越久，越先同步
+                return Long.compare(dueTime, other.dueTime);
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * 一个订阅的失败退避状态
+     */
+    private static final class Backoff {
+        int failures;
+        long retryAt;
+    }
+}
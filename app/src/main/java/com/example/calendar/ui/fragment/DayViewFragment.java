@@ -1,5 +1,6 @@
 package com.example.calendar.ui.fragment;
 
+import android.content.Intent;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -9,34 +10,26 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
-import androidx.recyclerview.widget.LinearLayoutManager;
-import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.calendar.EventDetailsActivity;
 import com.example.calendar.R;
-import com.example.calendar.adapter.DayViewAdapter;
 import com.example.calendar.database.AppDatabase;
-import com.example.calendar.database.EventDao;
-import com.example.calendar.model.Event;
+import com.example.calendar.ui.view.TimelineView;
+import com.example.calendar.utils.TimelineLayoutEngine;
 
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * // 功能：日视图Fragment，显示一天的日程安排
  */
 public class DayViewFragment extends Fragment {
     
-    private RecyclerView recyclerView;
-    private DayViewAdapter adapter;
+    private TimelineView timelineView;
     private TextView tvDate;
 
-    private ExecutorService executorService;
-
     private AppDatabase db;
     
     public static DayViewFragment newInstance() {
@@ -49,7 +42,6 @@ public class DayViewFragment extends Fragment {
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        executorService = Executors.newSingleThreadExecutor();
 
         db = AppDatabase.getDatabase(requireContext());
     }
@@ -63,52 +55,47 @@ public class DayViewFragment extends Fragment {
     }
 
     @Override
-    public void onResume() {
-        super.onResume();
-        loadEventsForToday();
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        observeEventsForToday();
     }
 
-    private void loadEventsForToday() {
-        executorService.execute(() -> {
-            Calendar start = Calendar.getInstance();
-            start.set(Calendar.HOUR_OF_DAY, 0);
-            start.set(Calendar.MINUTE, 0);
-            start.set(Calendar.SECOND, 0);
-            start.set(Calendar.MILLISECOND, 0);
-
-            Calendar end = Calendar.getInstance();
-            end.set(Calendar.HOUR_OF_DAY, 23);
-            end.set(Calendar.MINUTE, 59);
-            end.set(Calendar.SECOND, 59);
-            end.set(Calendar.MILLISECOND, 999);
-
-            List<Event> events = db.eventDao().getEventsByDateRange(
-                    start.getTimeInMillis(),
-                    end.getTimeInMillis()
-            );
-
-            if (isAdded()) {
-                requireActivity().runOnUiThread(() -> {
-                    adapter.setEvents(events);
-                });
-            }
-        });
+    /**
+     * 观察今天的事件，只在事件相关的表发生变化时重新查询
+     */
+    private void observeEventsForToday() {
+        Calendar start = Calendar.getInstance();
+        start.set(Calendar.HOUR_OF_DAY, 0);
+        start.set(Calendar.MINUTE, 0);
+        start.set(Calendar.SECOND, 0);
+        start.set(Calendar.MILLISECOND, 0);
+
+        // 查询窗口为 [今天0点, 明天0点)
+        Calendar end = (Calendar) start.clone();
+        end.add(Calendar.DAY_OF_MONTH, 1);
+
+        long[] dayStarts = {start.getTimeInMillis(), end.getTimeInMillis()};
+
+        // 在后台线程查询并排好事件位置
+        db.observe(AppDatabase.EVENT_TABLES, () -> TimelineLayoutEngine.getDayLayouts(
+                db.eventDao().getEventInstancesInRange(dayStarts[0], dayStarts[1]), dayStarts))
+                .observe(getViewLifecycleOwner(), days -> timelineView.setDays(days));
     }
 
-
-
-
     private void initViews(View view) {
         tvDate = view.findViewById(R.id.tv_date);
-        recyclerView = view.findViewById(R.id.recycler_view);
-        recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
+        timelineView = view.findViewById(R.id.day_timeline);
+        timelineView.setDayCount(1);
         
         // 设置当前日期
         SimpleDateFormat sdf = new SimpleDateFormat("yyyy年MM月dd日", Locale.getDefault());
         tvDate.setText(sdf.format(new Date()));
-        
-        // 设置适配器
-        adapter = new DayViewAdapter();
-        recyclerView.setAdapter(adapter);
+
+        // 点击事件跳转到 EventDetailsActivity，通过 event_id 加载
+        timelineView.setOnEventClickListener(event -> {
+            Intent intent = new Intent(requireContext(), EventDetailsActivity.class);
+            intent.putExtra("event_id", event.getId());
+            startActivity(intent);
+        });
     }
 }
\ No newline at end of file
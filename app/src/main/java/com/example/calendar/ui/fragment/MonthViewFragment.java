@@ -14,14 +14,15 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.calendar.R;
 import com.example.calendar.adapter.DateAdapter;
+import com.example.calendar.adapter.MonthEventIndex;
+import com.example.calendar.adapter.MonthPrefetcher;
 import com.example.calendar.database.AppDatabase;
 import com.example.calendar.model.Event;
 import com.example.calendar.utils.CalendarUtils;
+import com.example.calendar.utils.EventRepository;
 
-import java.util.Calendar;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 
 public class MonthViewFragment extends Fragment {
@@ -33,7 +34,6 @@ public class MonthViewFragment extends Fragment {
     private int year;
     private int month;
 
-    private ExecutorService executorService;
     private AppDatabase db;
 
     private List<CalendarUtils.DateInfo> dateList;
@@ -56,11 +56,10 @@ public class MonthViewFragment extends Fragment {
             month = getArguments().getInt("month");
         }
 
-        executorService = Executors.newSingleThreadExecutor();
         db = AppDatabase.getDatabase(requireContext());
 
-        //  日期只算一次
-        dateList = CalendarUtils.getMonthDateList(year, month);
+        //  日期只算一次，相邻月份翻页时通常已经预取好
+        dateList = MonthPrefetcher.getInstance(requireContext()).getMonthDateList(year, month);
     }
 
     @Nullable
@@ -82,48 +81,39 @@ public class MonthViewFragment extends Fragment {
         dateAdapter = new DateAdapter(requireContext(), dateList);
         recyclerView.setAdapter(dateAdapter);
 
-        loadEventsForMonth();
         return view;
     }
 
-
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        observeEventsForMonth();
+    }
 
     /**
-     * 刷新事件
+     * 观察本月网格的事件，只在事件相关的表发生变化时重新查询
      */
-    public void refreshEvents() {
-        loadEventsForMonth();
-    }
-
-    private void loadEventsForMonth() {
-        executorService.execute(() -> {
-            Calendar start = Calendar.getInstance();
-            start.set(year, month, 1, 0, 0, 0);
-            start.set(Calendar.MILLISECOND, 0);
-
-            Calendar end = Calendar.getInstance();
-            end.set(year, month,
-                    CalendarUtils.getDaysInMonth(year, month),
-                    23, 59, 59);
-            end.set(Calendar.MILLISECOND, 999);
-
-            List<Event> events = db.eventDao().getEventsByDateRange(
-                    start.getTimeInMillis(),
-                    end.getTimeInMillis()
+    private void observeEventsForMonth() {
+        // 查询窗口为整个网格 [第一格零点, 最后一格次日零点)，包括前后月份的填充日期
+        long[] dayBounds = MonthEventIndex.dayBounds(dateList);
+        EventRepository repository = EventRepository.getInstance(requireContext());
+        // 第一次加载可以用缓存（来回翻页），之后的加载都是数据库变化触发的，需要重新查询
+        AtomicBoolean firstLoad = new AtomicBoolean(true);
+
+        db.observe(AppDatabase.EVENT_TABLES, () -> {
+            // 在后台提前生成网格首尾两天所在年份的农历日表，绑定格子时只需查表
+            MonthPrefetcher.warmLunarTable(dateList.get(0));
+            MonthPrefetcher.warmLunarTable(dateList.get(dateList.size() - 1));
+
+            List<Event> events = repository.getMonthEvents(
+                    year, month,
+                    dayBounds[0],
+                    dayBounds[dayBounds.length - 1],
+                    firstLoad.getAndSet(false)
             );
 
-            if (isAdded()) {
-                requireActivity().runOnUiThread(() -> {
-                    // 只更新事件
-                    dateAdapter.setEvents(events);
-                });
-            }
-        });
-    }
-
-    @Override
-    public void onDestroy() {
-        super.onDestroy();
-        executorService.shutdown();
+            // 在后台线程把事件按天分好，绑定格子时直接查表
+            return MonthEventIndex.build(dayBounds, events);
+        }).observe(getViewLifecycleOwner(), eventIndex -> dateAdapter.setEventIndex(eventIndex));
     }
 }
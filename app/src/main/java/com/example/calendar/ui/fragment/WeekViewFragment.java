@@ -1,5 +1,6 @@
 package com.example.calendar.ui.fragment;
 
+import android.content.Intent;
 import android.graphics.Typeface;
 import android.os.Bundle;
 import android.view.LayoutInflater;
@@ -10,32 +11,25 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
-import androidx.recyclerview.widget.LinearLayoutManager;
-import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.calendar.EventDetailsActivity;
 import com.example.calendar.R;
-import com.example.calendar.adapter.WeekViewAdapter;
 import com.example.calendar.database.AppDatabase;
-import com.example.calendar.model.Event;
+import com.example.calendar.ui.view.TimelineView;
+import com.example.calendar.utils.TimelineLayoutEngine;
 
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
-import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * // 功能：周视图Fragment，显示一周的日程安排
  */
 public class WeekViewFragment extends Fragment {
 
-    private RecyclerView recyclerView;
-    private WeekViewAdapter adapter;
+    private TimelineView timelineView;
     private TextView[] dateTextViews;
 
-    private ExecutorService executorService;
-
     private AppDatabase db;
 
     public static WeekViewFragment newInstance() {
@@ -48,7 +42,6 @@ public class WeekViewFragment extends Fragment {
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        executorService = Executors.newSingleThreadExecutor();
 
         db = AppDatabase.getDatabase(requireContext());
     }
@@ -63,17 +56,20 @@ public class WeekViewFragment extends Fragment {
     }
 
     @Override
-    public void onResume() {
-        super.onResume();
-        loadEventsForWeek();
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        observeEventsForWeek();
     }
     private void initViews(View view) {
-        recyclerView = view.findViewById(R.id.recycler_view);
-        recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
-
-        // 设置适配器
-        adapter = new WeekViewAdapter();
-        recyclerView.setAdapter(adapter);
+        timelineView = view.findViewById(R.id.week_timeline);
+        timelineView.setDayCount(7);
+
+        // 点击事件跳转到 EventDetailsActivity，通过 event_id 加载
+        timelineView.setOnEventClickListener(event -> {
+            Intent intent = new Intent(requireContext(), EventDetailsActivity.class);
+            intent.putExtra("event_id", event.getId());
+            startActivity(intent);
+        });
 
         // 初始化日期文本视图数组
         dateTextViews = new TextView[7];
@@ -86,39 +82,32 @@ public class WeekViewFragment extends Fragment {
         dateTextViews[6] = view.findViewById(R.id.tv_sunday_date);
     }
 
-    private void loadEventsForWeek() {
-        executorService.execute(() -> {
-            Calendar start = Calendar.getInstance();
-            start.set(Calendar.HOUR_OF_DAY, 0);
-            start.set(Calendar.MINUTE, 0);
-            start.set(Calendar.SECOND, 0);
-            start.set(Calendar.MILLISECOND, 0);
-
-
-            int diff = start.get(Calendar.DAY_OF_WEEK) - Calendar.MONDAY;
-            if (diff < 0) diff += 7;
-            start.add(Calendar.DAY_OF_MONTH, -diff);
-
-            Calendar end = (Calendar) start.clone();
-            end.add(Calendar.DAY_OF_MONTH, 6);
-            end.set(Calendar.HOUR_OF_DAY, 23);
-            end.set(Calendar.MINUTE, 59);
-            end.set(Calendar.SECOND, 59);
-            end.set(Calendar.MILLISECOND, 999);
-
-            // 查询数据库中本周的事件
-            List<Event> events = db.eventDao().getEventsByDateRange(
-                    start.getTimeInMillis(),
-                    end.getTimeInMillis()
-            );
-
-            // 更新UI
-            if (isAdded()) {
-                requireActivity().runOnUiThread(() -> {
-                    adapter.setEvents(events);
-                });
-            }
-        });
+    /**
+     * 观察本周的事件，只在事件相关的表发生变化时重新查询
+     */
+    private void observeEventsForWeek() {
+        Calendar start = Calendar.getInstance();
+        start.set(Calendar.HOUR_OF_DAY, 0);
+        start.set(Calendar.MINUTE, 0);
+        start.set(Calendar.SECOND, 0);
+        start.set(Calendar.MILLISECOND, 0);
+
+
+        int diff = start.get(Calendar.DAY_OF_WEEK) - Calendar.MONDAY;
+        if (diff < 0) diff += 7;
+        start.add(Calendar.DAY_OF_MONTH, -diff);
+
+        // 每天零点，查询窗口为 [本周一, 下周一)
+        long[] dayStarts = new long[8];
+        for (int day = 0; day < dayStarts.length; day++) {
+            dayStarts[day] = start.getTimeInMillis();
+            start.add(Calendar.DAY_OF_MONTH, 1);
+        }
+
+        // 在后台线程查询并排好每天的事件位置，事件没变的那几天直接复用缓存的排版
+        db.observe(AppDatabase.EVENT_TABLES, () -> TimelineLayoutEngine.getDayLayouts(
+                db.eventDao().getEventInstancesInRange(dayStarts[0], dayStarts[7]), dayStarts))
+                .observe(getViewLifecycleOwner(), days -> timelineView.setDays(days));
     }
 
 
@@ -0,0 +1,457 @@
+package com.example.calendar.ui.view;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.os.Bundle;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.accessibility.AccessibilityEvent;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.view.ViewCompat;
+import androidx.core.view.accessibility.AccessibilityNodeInfoCompat;
+import androidx.customview.widget.ExploreByTouchHelper;
+
+import com.example.calendar.R;
+import com.example.calendar.model.Event;
+import com.example.calendar.utils.TimelineLayoutEngine;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * // 功能：自绘的日/周视图时间轴，一个 View 画出若干天 × 24 小时
+ *
+ * 每天的事件位置、列号和跨越列数由 {@link TimelineLayoutEngine} 在后台算好，
+ * 这里只把分钟和列换算成坐标。标题的 StaticLayout 在排版结果或宽度变化时生成，
+ * 排版结果没变的那一天直接复用，onDraw 只按算好的结果绘制，不分配对象。
+ * 点击时按坐标查找事件，不给每个事件单独创建 View 和监听器。
+ * 无障碍服务（TalkBack）通过 {@link ExploreByTouchHelper} 把每个事件矩形作为一个虚拟 View 访问。
+ */
+public class TimelineView extends View {
+
+    /**
+     * 点击事件回调
+     */
+    public interface OnEventClickListener {
+        void onEventClick(Event event);
+    }
+
+    private static final TimelineLayoutEngine.DayLayout[] NO_DAYS = new TimelineLayoutEngine.DayLayout[0];
+
+    private final float hourHeight;
+    private final float timeColumnWidth;
+    private final float eventGap;
+    private final float textPadding;
+    private final float cornerRadius;
+    private final int touchSlop;
+
+    private final Paint gridPaint = new Paint();
+    private final Paint eventFillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint eventStrokePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final TextPaint timePaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final TextPaint titlePaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final String[] hourLabels = new String[24];
+    private final float timeBaselineOffset;
+
+    private int dayCount = 1;
+    private TimelineLayoutEngine.DayLayout[] days = NO_DAYS;
+    // 每天每个事件的标题排版，与 days 一一对应
+    private StaticLayout[][] titleLayouts = new StaticLayout[0][];
+    private int titleLayoutWidth; // 生成标题排版时的 View 宽度
+
+    // 绘制和点击测试时复用
+    private final RectF rect = new RectF();
+    private final Rect clip = new Rect();
+    private float downX;
+    private float downY;
+
+    private OnEventClickListener onEventClickListener;
+    private final AccessibilityHelper accessibilityHelper;
+
+    public TimelineView(Context context) {
+        this(context, null);
+    }
+
+    public TimelineView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        hourHeight = dp(80);
+        timeColumnWidth = dp(60);
+        eventGap = dp(1);
+        textPadding = dp(2);
+        cornerRadius = dp(3);
+        touchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
+
+        gridPaint.setColor(context.getColor(R.color.my_blue));
+        gridPaint.setStrokeWidth(dp(1));
+
+        int eventColor = context.getColor(R.color.blue);
+        eventFillPaint.setColor(eventColor);
+        eventFillPaint.setAlpha(0x55);
+        eventStrokePaint.setColor(eventColor);
+        eventStrokePaint.setStyle(Paint.Style.STROKE);
+        eventStrokePaint.setStrokeWidth(dp(1));
+
+        timePaint.setColor(context.getColor(R.color.black));
+        timePaint.setTextSize(sp(12));
+        timePaint.setTextAlign(Paint.Align.CENTER);
+        Paint.FontMetrics metrics = timePaint.getFontMetrics();
+        timeBaselineOffset = (hourHeight - metrics.ascent - metrics.descent) / 2;
+
+        titlePaint.setColor(context.getColor(R.color.black));
+        titlePaint.setTextSize(sp(12));
+
+        for (int hour = 0; hour < 24; hour++) {
+            hourLabels[hour] = String.format("%02d:00", hour);
+        }
+
+        accessibilityHelper = new AccessibilityHelper(this);
+        ViewCompat.setAccessibilityDelegate(this, accessibilityHelper);
+    }
+
+    public void setOnEventClickListener(OnEventClickListener listener) {
+        this.onEventClickListener = listener;
+    }
+
+    /**
+     * 设置显示的天数（数据到达前先画出空的网格）
+     * @param dayCount 天数，日视图为1，周视图为7
+     */
+    public void setDayCount(int dayCount) {
+        if (this.dayCount != dayCount) {
+            this.dayCount = dayCount;
+            days = NO_DAYS;
+            titleLayouts = new StaticLayout[0][];
+            invalidate();
+            accessibilityHelper.invalidateRoot();
+        }
+    }
+
+    /**
+     * 设置每天的排版结果
+     * @param newDays 按日期顺序的排版，数量决定显示的天数
+     */
+    public void setDays(TimelineLayoutEngine.DayLayout[] newDays) {
+        StaticLayout[][] newTitles = new StaticLayout[newDays.length][];
+        if (newDays.length == days.length && titleLayoutWidth == getWidth()) {
+            for (int d = 0; d < newDays.length; d++) {
+                // 与之前同一个排版对象说明当天事件没变，直接复用已经排好的标题
+                if (days[d] == newDays[d]) {
+                    newTitles[d] = titleLayouts[d];
+                }
+            }
+        }
+        dayCount = newDays.length;
+        days = newDays;
+        titleLayouts = newTitles;
+        buildTitleLayouts();
+        invalidate();
+        accessibilityHelper.invalidateRoot();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = getDefaultSize(getSuggestedMinimumWidth(), widthMeasureSpec);
+        int height = (int) Math.ceil(24 * hourHeight) + getPaddingTop() + getPaddingBottom();
+        setMeasuredDimension(width, resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        if (w != oldw) {
+            for (int d = 0; d < titleLayouts.length; d++) {
+                titleLayouts[d] = null;
+            }
+            buildTitleLayouts();
+        }
+        accessibilityHelper.invalidateRoot();
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        super.onDraw(canvas);
+        canvas.getClipBounds(clip);
+
+        float left = getPaddingLeft();
+        float top = getPaddingTop();
+        float right = getWidth() - getPaddingRight();
+        float dayWidth = dayWidth();
+
+        // 小时横线和时间标签，只画可见的部分
+        int firstHour = Math.max(0, (int) ((clip.top - top) / hourHeight));
+        int lastHour = Math.min(24, (int) ((clip.bottom - top) / hourHeight) + 1);
+        for (int hour = firstHour; hour <= lastHour; hour++) {
+            float y = top + hour * hourHeight;
+            canvas.drawLine(left, y, right, y, gridPaint);
+            if (hour < 24) {
+                canvas.drawText(hourLabels[hour], left + timeColumnWidth / 2, y + timeBaselineOffset, timePaint);
+            }
+        }
+
+        // 时间列和每天之间的竖线
+        float gridBottom = top + 24 * hourHeight;
+        for (int day = 0; day <= dayCount; day++) {
+            float x = left + timeColumnWidth + day * dayWidth;
+            canvas.drawLine(x, top, x, gridBottom, gridPaint);
+        }
+
+        // 事件
+        for (int d = 0; d < days.length; d++) {
+            TimelineLayoutEngine.DayLayout day = days[d];
+            for (int i = 0; i < day.getCount(); i++) {
+                eventRect(d, i, dayWidth);
+                if (rect.bottom < clip.top || rect.top > clip.bottom) {
+                    continue;
+                }
+                canvas.drawRoundRect(rect, cornerRadius, cornerRadius, eventFillPaint);
+                canvas.drawRoundRect(rect, cornerRadius, cornerRadius, eventStrokePaint);
+
+                StaticLayout layout = titleLayouts[d] != null ? titleLayouts[d][i] : null;
+                if (layout != null) {
+                    canvas.save();
+                    canvas.clipRect(rect);
+                    canvas.translate(rect.left + textPadding, rect.top + textPadding);
+                    layout.draw(canvas);
+                    canvas.restore();
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                downX = event.getX();
+                downY = event.getY();
+                return true;
+            case MotionEvent.ACTION_UP:
+                if (Math.abs(event.getX() - downX) < touchSlop
+                        && Math.abs(event.getY() - downY) < touchSlop) {
+                    Event hit = findEventAt(event.getX(), event.getY());
+                    if (hit != null && onEventClickListener != null) {
+                        performClick();
+                        onEventClickListener.onEventClick(hit);
+                    }
+                }
+                return true;
+            default:
+                return super.onTouchEvent(event);
+        }
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    @Override
+    protected boolean dispatchHoverEvent(MotionEvent event) {
+        return accessibilityHelper.dispatchHoverEvent(event) || super.dispatchHoverEvent(event);
+    }
+
+    @Override
+    public boolean dispatchKeyEvent(KeyEvent event) {
+        return accessibilityHelper.dispatchKeyEvent(event) || super.dispatchKeyEvent(event);
+    }
+
+    @Override
+    protected void onFocusChanged(boolean gainFocus, int direction, @Nullable Rect previouslyFocusedRect) {
+        super.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+        accessibilityHelper.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+    }
+
+    /**
+     * 查找坐标处的事件，后画的在上层，所以从后往前找
+     * @return 事件，没有时返回null
+     */
+    private Event findEventAt(float x, float y) {
+        int id = findEventIdAt(x, y);
+        return id == ExploreByTouchHelper.INVALID_ID ? null : eventForId(id);
+    }
+
+    /**
+     * @return 坐标处事件的虚拟 View ID，没有时返回 INVALID_ID
+     */
+    private int findEventIdAt(float x, float y) {
+        float dayWidth = dayWidth();
+        int d = (int) ((x - getPaddingLeft() - timeColumnWidth) / dayWidth);
+        if (x < getPaddingLeft() + timeColumnWidth || d < 0 || d >= days.length) {
+            return ExploreByTouchHelper.INVALID_ID;
+        }
+        TimelineLayoutEngine.DayLayout day = days[d];
+        for (int i = day.getCount() - 1; i >= 0; i--) {
+            eventRect(d, i, dayWidth);
+            if (rect.contains(x, y)) {
+                return virtualId(d, i);
+            }
+        }
+        return ExploreByTouchHelper.INVALID_ID;
+    }
+
+    /**
+     * 虚拟 View ID：高位是第几天，低 16 位是当天第几个事件
+     */
+    private static int virtualId(int d, int i) {
+        return (d << 16) | i;
+    }
+
+    /**
+     * @return ID 对应的事件，数据已变化、ID 失效时返回null
+     */
+    private Event eventForId(int id) {
+        int d = id >>> 16;
+        int i = id & 0xFFFF;
+        if (d >= days.length || i >= days[d].getCount()) {
+            return null;
+        }
+        return days[d].getEvent(i);
+    }
+
+    /**
+     * 计算某天第 i 个事件的矩形，结果放在 rect 中
+     */
+    private void eventRect(int d, int i, float dayWidth) {
+        TimelineLayoutEngine.DayLayout day = days[d];
+        float columnWidth = dayWidth / day.getColumnCount(i);
+        float left = getPaddingLeft() + timeColumnWidth + d * dayWidth + day.getColumn(i) * columnWidth;
+        float top = getPaddingTop() + day.getStartMinute(i) * hourHeight / 60f;
+        float bottom = getPaddingTop() + day.getEndMinute(i) * hourHeight / 60f;
+        rect.set(left + eventGap, top + eventGap,
+                left + columnWidth * day.getSpan(i) - eventGap, bottom - eventGap);
+    }
+
+    /**
+     * 为还没有标题排版的那几天生成排版，放不下时在末尾省略
+     */
+    private void buildTitleLayouts() {
+        float dayWidth = dayWidth();
+        if (dayWidth <= 0) {
+            return;
+        }
+        titleLayoutWidth = getWidth();
+        float lineHeight = titlePaint.getFontSpacing();
+        for (int d = 0; d < days.length; d++) {
+            if (titleLayouts[d] != null) {
+                continue;
+            }
+            TimelineLayoutEngine.DayLayout day = days[d];
+            StaticLayout[] layouts = new StaticLayout[day.getCount()];
+            for (int i = 0; i < layouts.length; i++) {
+                eventRect(d, i, dayWidth);
+                int textWidth = (int) (rect.width() - 2 * textPadding);
+                int maxLines = (int) ((rect.height() - 2 * textPadding) / lineHeight);
+                String title = day.getEvent(i).getTitle();
+                if (textWidth <= 0 || TextUtils.isEmpty(title)) {
+                    continue;
+                }
+                layouts[i] = StaticLayout.Builder.obtain(title, 0, title.length(), titlePaint, textWidth)
+                        .setAlignment(Layout.Alignment.ALIGN_NORMAL)
+                        .setIncludePad(false)
+                        .setEllipsize(TextUtils.TruncateAt.END)
+                        .setMaxLines(Math.max(1, maxLines))
+                        .build();
+            }
+            titleLayouts[d] = layouts;
+        }
+    }
+
+    /**
+     * 每个事件矩形对应一个虚拟 View，内容描述为标题和时间，支持点击
+     */
+    private final class AccessibilityHelper extends ExploreByTouchHelper {
+        private final SimpleDateFormat dateTimeFormat = new SimpleDateFormat("M月d日 HH:mm", Locale.getDefault());
+        private final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm", Locale.getDefault());
+        private final SimpleDateFormat dayFormat = new SimpleDateFormat("yyyyMMdd", Locale.getDefault());
+        private final Rect bounds = new Rect();
+
+        AccessibilityHelper(View host) {
+            super(host);
+        }
+
+        @Override
+        protected int getVirtualViewAt(float x, float y) {
+            int id = findEventIdAt(x, y);
+            return id == INVALID_ID ? HOST_ID : id;
+        }
+
+        @Override
+        protected void getVisibleVirtualViews(List<Integer> virtualViewIds) {
+            for (int d = 0; d < days.length; d++) {
+                for (int i = 0; i < days[d].getCount(); i++) {
+                    virtualViewIds.add(virtualId(d, i));
+                }
+            }
+        }
+
+        @Override
+        protected void onPopulateNodeForVirtualView(int virtualViewId, @NonNull AccessibilityNodeInfoCompat node) {
+            Event event = eventForId(virtualViewId);
+            if (event == null) {
+                // 数据已变化，必须设置内容和范围
+                node.setContentDescription("");
+                node.setBoundsInParent(bounds);
+                return;
+            }
+            node.setContentDescription(describe(event));
+            eventRect(virtualViewId >>> 16, virtualViewId & 0xFFFF, dayWidth());
+            rect.round(bounds);
+            node.setBoundsInParent(bounds);
+            node.addAction(AccessibilityNodeInfoCompat.ACTION_CLICK);
+            node.setClickable(true);
+        }
+
+        @Override
+        protected boolean onPerformActionForVirtualView(int virtualViewId, int action, @Nullable Bundle arguments) {
+            if (action != AccessibilityNodeInfoCompat.ACTION_CLICK) {
+                return false;
+            }
+            Event event = eventForId(virtualViewId);
+            if (event == null || onEventClickListener == null) {
+                return false;
+            }
+            onEventClickListener.onEventClick(event);
+            sendEventForVirtualView(virtualViewId, AccessibilityEvent.TYPE_VIEW_CLICKED);
+            return true;
+        }
+
+        /**
+         * @return 如“会议，3月5日 09:00 到 10:30”，跨天时结束时间也带日期
+         */
+        private String describe(Event event) {
+            String title = TextUtils.isEmpty(event.getTitle()) ? "无标题" : event.getTitle();
+            Date start = new Date(event.getStartTime());
+            Date end = new Date(event.getEndTime());
+            String endText = dayFormat.format(start).equals(dayFormat.format(end))
+                    ? timeFormat.format(end) : dateTimeFormat.format(end);
+            return title + "，" + dateTimeFormat.format(start) + " 到 " + endText;
+        }
+    }
+
+    private float dayWidth() {
+        return (getWidth() - getPaddingLeft() - getPaddingRight() - timeColumnWidth) / dayCount;
+    }
+
+    private float dp(float value) {
+        return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, value, getResources().getDisplayMetrics());
+    }
+
+    private float sp(float value) {
+        return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, value, getResources().getDisplayMetrics());
+    }
+}
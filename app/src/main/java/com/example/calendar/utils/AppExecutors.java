@@ -0,0 +1,274 @@
+package com.example.calendar.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * // 功能：全应用共享的线程池，按任务类型分开调度
+ *
+ * 数据库读（多线程）、数据库写（单线程，所有写入串行执行）、网络、计算各用一个固定大小的线程池，
+ * 页面不再各自创建线程。页面通过 {@link #newScope(LifecycleOwner)} 提交任务，
+ * 页面销毁时尚未开始的任务被取消，已完成任务的界面回调也不再执行。
+ */
+public final class AppExecutors {
+    private static final String TAG = "AppExecutors";
+
+    private static final int CPU_COUNT = Runtime.getRuntime().availableProcessors();
+
+    private static volatile AppExecutors INSTANCE;
+
+    private final DispatchPool dbRead;
+    private final DispatchPool dbWrite;
+    private final DispatchPool network;
+    private final DispatchPool cpu;
+    private final Executor mainThread;
+
+    private AppExecutors() {
+        dbRead = new DispatchPool("db-read", 2);
+        dbWrite = new DispatchPool("db-write", 1);
+        // 每个订阅同步占用两个线程（下载和解析），最多同时两个同步
+        network = new DispatchPool("network", 4);
+        cpu = new DispatchPool("cpu", Math.max(2, Math.min(CPU_COUNT - 1, 4)));
+        Handler handler = new Handler(Looper.getMainLooper());
+        mainThread = handler::post;
+    }
+
+    public static AppExecutors getInstance() {
+        if (INSTANCE == null) {
+            synchronized (AppExecutors.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new AppExecutors();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * @return 数据库读线程池
+     */
+    public ExecutorService dbRead() {
+        return dbRead;
+    }
+
+    /**
+     * @return 数据库写线程池（单线程，写入按提交顺序执行）
+     */
+    public ExecutorService dbWrite() {
+        return dbWrite;
+    }
+
+    /**
+     * @return 网络请求线程池
+     */
+    public ExecutorService network() {
+        return network;
+    }
+
+    /**
+     * @return 计算任务线程池（解析、展开重复事件等）
+     */
+    public ExecutorService cpu() {
+        return cpu;
+    }
+
+    /**
+     * @return 主线程执行器
+     */
+    public Executor mainThread() {
+        return mainThread;
+    }
+
+    /**
+     * 创建与页面生命周期绑定的任务范围，需要在主线程调用
+     * @param owner Activity 或 Fragment
+     * @return 任务范围，页面销毁时自动取消
+     */
+    public TaskScope newScope(LifecycleOwner owner) {
+        TaskScope scope = new TaskScope(mainThread);
+        owner.getLifecycle().addObserver(scope);
+        return scope;
+    }
+
+    /**
+     * @return 各线程池的队列长度等统计信息（用于日志）
+     */
+    public String dumpStats() {
+        return dbRead.stats() + "; " + dbWrite.stats() + "; " + network.stats() + "; " + cpu.stats();
+    }
+
+    /**
+     * 记录队列长度的固定大小线程池
+     */
+    static final class DispatchPool extends ThreadPoolExecutor {
+        // 队列积压超过该值时打印警告
+        private static final int WARN_QUEUE_DEPTH = 32;
+
+        private final String name;
+        private final AtomicInteger peakQueueDepth = new AtomicInteger();
+
+        DispatchPool(String name, int threads) {
+            super(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                    new NamedThreadFactory(name));
+            this.name = name;
+            // 空闲时回收线程
+            allowCoreThreadTimeOut(true);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            super.execute(command);
+            int depth = getQueue().size();
+            int peak = peakQueueDepth.get();
+            while (depth > peak && !peakQueueDepth.compareAndSet(peak, depth)) {
+                peak = peakQueueDepth.get();
+            }
+            if (depth == WARN_QUEUE_DEPTH) {
+                Log.w(TAG, name + " 队列积压: " + depth);
+            }
+        }
+
+        /**
+         * @return 当前排队的任务数
+         */
+        int getQueueDepth() {
+            return getQueue().size();
+        }
+
+        /**
+         * @return 出现过的最大排队任务数
+         */
+        int getPeakQueueDepth() {
+            return peakQueueDepth.get();
+        }
+
+        String stats() {
+            return name + " active=" + getActiveCount()
+                    + " queued=" + getQueueDepth()
+                    + " peak=" + getPeakQueueDepth()
+                    + " completed=" + getCompletedTaskCount();
+        }
+    }
+
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        NamedThreadFactory(String name) {
+            this.prefix = "calendar-" + name + "-";
+        }
+
+        @Override
+        public Thread newThread(@NonNull Runnable runnable) {
+            return new Thread(() -> {
+                // 后台线程优先级，避免与界面线程争抢
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, prefix + count.incrementAndGet());
+        }
+    }
+
+    /**
+     * // 功能：与页面生命周期绑定的任务范围
+     * 页面销毁后，排队中的任务被取消，post 到主线程的回调不再执行。
+     * 已经开始执行的任务不会被中断（避免打断数据库事务）
+     */
+    public static final class TaskScope implements DefaultLifecycleObserver {
+        private final Executor mainThread;
+        private final Set<Future<?>> tasks = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        private volatile boolean cancelled;
+
+        TaskScope(Executor mainThread) {
+            this.mainThread = mainThread;
+        }
+
+        /**
+         * 在指定线程池中执行任务，任务抛出的异常会记录到日志
+         * @param pool 线程池，见 {@link AppExecutors}
+         * @param task 任务
+         * @return 可用于单独取消的 Future
+         */
+        public Future<?> execute(ExecutorService pool, Runnable task) {
+            FutureTask<Void> future = new FutureTask<Void>(task, null) {
+                @Override
+                protected void done() {
+                    tasks.remove(this);
+                    if (isCancelled()) {
+                        return;
+                    }
+                    // FutureTask 会吞掉任务抛出的异常，这里取出来记录
+                    try {
+                        get();
+                    } catch (ExecutionException e) {
+                        Log.e(TAG, "后台任务执行失败", e.getCause());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            };
+            if (cancelled) {
+                future.cancel(false);
+                return future;
+            }
+            tasks.add(future);
+            pool.execute(future);
+            return future;
+        }
+
+        /**
+         * 在主线程执行界面回调，任务范围已取消时忽略
+         * @param task 界面回调
+         */
+        public void post(Runnable task) {
+            mainThread.execute(() -> {
+                if (!cancelled) {
+                    task.run();
+                }
+            });
+        }
+
+        /**
+         * @return 是否已取消
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * 取消所有尚未开始的任务
+         */
+        public void cancel() {
+            cancelled = true;
+            for (Future<?> future : tasks) {
+                future.cancel(false);
+            }
+            tasks.clear();
+        }
+
+        @Override
+        public void onDestroy(@NonNull LifecycleOwner owner) {
+            owner.getLifecycle().removeObserver(this);
+            cancel();
+        }
+    }
+}
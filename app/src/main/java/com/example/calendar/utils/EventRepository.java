@@ -1,26 +1,178 @@
 package com.example.calendar.utils;
 
 import android.content.Context;
+import android.util.Log;
+import android.util.LruCache;
 
 import com.example.calendar.database.AppDatabase;
 import com.example.calendar.database.EventDao;
+import com.example.calendar.model.Event;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * // 功能：事件仓库，带按月分桶的内存缓存
+ *
+ * 月视图按 (年, 月) 缓存整个网格范围内的事件实例，来回翻页时直接从内存读取。
+ * 缓存按估算的字节数做 LRU 淘汰；写入事件后由写入方调用 invalidate 方法，
+ * 只淘汰与被修改事件时间有交集的月份（重复事件或批量写入时清空全部）。
+ */
 public class EventRepository {
+    private static final String TAG = "EventRepository";
+
+    // 缓存上限：最大堆的 1/64，最多 4MB
+    private static final int MAX_CACHE_BYTES =
+            (int) Math.min(Runtime.getRuntime().maxMemory() / 64, 4L * 1024 * 1024);
+
+    private static volatile EventRepository INSTANCE;
 
     private final EventDao eventDao;
-    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final LruCache<Integer, MonthSlice> monthCache;
+    // 每次失效先加一再淘汰；查询期间发生过失效的结果不留在缓存中，避免缓存写入前的旧数据
+    private final AtomicLong version = new AtomicLong();
 
-    public EventRepository(Context context) {
+    private EventRepository(Context context) {
         AppDatabase db = AppDatabase.getDatabase(context);
         eventDao = db.eventDao();
+        monthCache = new LruCache<Integer, MonthSlice>(MAX_CACHE_BYTES) {
+            @Override
+            protected int sizeOf(Integer key, MonthSlice slice) {
+                return slice.sizeInBytes;
+            }
+        };
+    }
+
+    public static EventRepository getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (EventRepository.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new EventRepository(context.getApplicationContext());
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 获取月视图网格范围内的事件实例，需要在后台线程调用
+     * @param year 年
+     * @param month 月 (0-11)
+     * @param rangeStart 网格开始时间
+     * @param rangeEnd 网格结束时间（不包含）
+     * @param allowCached 是否允许使用缓存；数据库变化后重新查询时传false
+     * @return 按开始时间排序的事件实例（只读）
+     */
+    public List<Event> getMonthEvents(int year, int month, long rangeStart, long rangeEnd, boolean allowCached) {
+        int key = year * 12 + month;
+        if (allowCached) {
+            MonthSlice slice = monthCache.get(key);
+            if (slice != null && slice.rangeStart == rangeStart && slice.rangeEnd == rangeEnd) {
+                return slice.asList();
+            }
+        }
+
+        long loadVersion = version.get();
+        List<Event> events = eventDao.getEventInstancesInRange(rangeStart, rangeEnd);
+        MonthSlice slice = new MonthSlice(rangeStart, rangeEnd, events.toArray(new Event[0]));
+        // 先放入缓存再检查版本：失效方先增加版本再淘汰，
+        // 检查之后发生的失效一定会淘汰这次放入的结果，检查之前发生的由这里移除
+        monthCache.put(key, slice);
+        if (version.get() != loadVersion) {
+            monthCache.remove(key);
+        }
+        return slice.asList();
+    }
+
+    /**
+     * 事件被新增、修改或删除后调用，只淘汰受影响的月份
+     * @param event 被修改的事件（修改时新旧两个版本都要调用）
+     */
+    public void invalidateEvent(Event event) {
+        if (event == null) {
+            return;
+        }
+        // 重复事件的实例可能出现在任何月份
+        if (RecurrenceUtils.isRecurring(event)) {
+            invalidateAll();
+            return;
+        }
+        version.incrementAndGet();
+        long start = event.getStartTime();
+        long end = Math.max(event.getEndTime(), start + 1);
+        for (Map.Entry<Integer, MonthSlice> entry : monthCache.snapshot().entrySet()) {
+            MonthSlice slice = entry.getValue();
+            if (slice.rangeStart < end && slice.rangeEnd > start) {
+                monthCache.remove(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * 批量写入（导入、订阅同步、清空订阅）后调用，清空全部缓存
+     */
+    public void invalidateAll() {
+        version.incrementAndGet();
+        monthCache.evictAll();
+    }
+
+    /**
+     * @return 缓存命中、未命中、淘汰次数等统计（用于日志）
+     */
+    public String getCacheStats() {
+        return "hit=" + monthCache.hitCount()
+                + " miss=" + monthCache.missCount()
+                + " evict=" + monthCache.evictionCount()
+                + " size=" + monthCache.size() + "/" + monthCache.maxSize();
     }
 
     // 清空订阅事件
     public void clearSubscribedEvents() {
-        executor.execute(() -> eventDao.deleteAllSubscribedEvents());
+        AppExecutors.getInstance().dbWrite().execute(() -> {
+            eventDao.deleteAllSubscribedEvents();
+            invalidateAll();
+            Log.d(TAG, "订阅事件已清空，" + getCacheStats());
+        });
+    }
+
+    /**
+     * 一个月网格范围内的事件，按开始时间排序存放在数组中，不可变
+     */
+    private static final class MonthSlice {
+        // 估算用：对象头、字段和数组引用的大致开销
+        private static final int EVENT_OVERHEAD = 120;
+        private static final int SLICE_OVERHEAD = 64;
+
+        final long rangeStart;
+        final long rangeEnd;
+        final Event[] events;
+        final int sizeInBytes;
+
+        MonthSlice(long rangeStart, long rangeEnd, Event[] events) {
+            this.rangeStart = rangeStart;
+            this.rangeEnd = rangeEnd;
+            this.events = events;
+            int size = SLICE_OVERHEAD;
+            for (Event event : events) {
+                size += EVENT_OVERHEAD
+                        + stringSize(event.getTitle())
+                        + stringSize(event.getDescription())
+                        + stringSize(event.getLocation())
+                        + stringSize(event.getRrule())
+                        + stringSize(event.getUid());
+            }
+            this.sizeInBytes = size;
+        }
+
+        List<Event> asList() {
+            return Collections.unmodifiableList(Arrays.asList(events));
+        }
 
+        private static int stringSize(String s) {
+            return s == null ? 0 : 40 + 2 * s.length();
+        }
     }
 }
@@ -7,8 +7,9 @@ import android.os.Build;
 import android.os.Environment;
 import android.provider.MediaStore;
 import android.util.Log;
-import android.widget.Toast;
 
+import com.example.calendar.database.AppDatabase;
+import com.example.calendar.database.EventDao;
 import com.example.calendar.model.Event;
 
 import java.io.File;
@@ -23,49 +24,77 @@ import java.util.List;
 public class FileExportUtils {
     private static final String TAG = "FileExportUtils";
     
+    // 导出时每页读取的事件数
+    private static final int EXPORT_PAGE_SIZE = 200;
+    
     /**
-     * 导出事件为ICS文件
+     * 导出全部事件为ICS文件
+     * 按ID分页从数据库读取事件并直接写入文件，内存占用与事件总数无关。
+     * 需要访问数据库和文件，不能在主线程调用
      * @param context 上下文
-     * @param events 事件列表
      * @param fileName 文件名
+     * @return 导出文件的位置（用于提示）
+     * @throws IOException 文件创建或写入失败
      */
-    public static void exportEventsToICS(Context context, List<Event> events, String fileName) {
-        try {
-            String icsContent = IcsImportExportUtils.generateIcsContent(events);
+    public static String exportEventsToICS(Context context, String fileName) throws IOException {
+        String location;
+        OutputStream outputStream;
+        Uri uri = null;
+        File file = null;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            // Android 10及以上版本使用分区存储
+            ContentValues values = new ContentValues();
+            values.put(MediaStore.MediaColumns.DISPLAY_NAME, fileName);
+            values.put(MediaStore.MediaColumns.MIME_TYPE, "text/calendar");
+            values.put(MediaStore.MediaColumns.RELATIVE_PATH, Environment.DIRECTORY_DOCUMENTS + "/Calendar");
+            
+            uri = context.getContentResolver().insert(MediaStore.Files.getContentUri("external"), values);
+            if (uri == null) {
+                throw new IOException("无法创建文件: " + fileName);
+            }
+            outputStream = context.getContentResolver().openOutputStream(uri);
+            if (outputStream == null) {
+                context.getContentResolver().delete(uri, null, null);
+                throw new IOException("无法创建文件: " + fileName);
+            }
+            location = fileName;
+        } else {
+            // Android 10以下版本直接写入文件
+            File directory = new File(Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOCUMENTS), "Calendar");
+            if (!directory.exists()) {
+                directory.mkdirs();
+            }
             
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
-                // Android 10及以上版本使用分区存储
-                ContentValues values = new ContentValues();
-                values.put(MediaStore.MediaColumns.DISPLAY_NAME, fileName);
-                values.put(MediaStore.MediaColumns.MIME_TYPE, "text/calendar");
-                values.put(MediaStore.MediaColumns.RELATIVE_PATH, Environment.DIRECTORY_DOCUMENTS + "/Calendar");
-                
-                Uri uri = context.getContentResolver().insert(MediaStore.Files.getContentUri("external"), values);
-                if (uri != null) {
-                    OutputStream outputStream = context.getContentResolver().openOutputStream(uri);
-                    if (outputStream != null) {
-                        outputStream.write(icsContent.getBytes());
-                        outputStream.close();
-                        Toast.makeText(context, "导出成功: " + fileName, Toast.LENGTH_SHORT).show();
-                    }
+            file = new File(directory, fileName);
+            outputStream = new FileOutputStream(file);
+            location = file.getAbsolutePath();
+        }
+        
+        EventDao eventDao = AppDatabase.getDatabase(context).eventDao();
+        try (IcsStreamWriter writer = new IcsStreamWriter(outputStream)) {
+            long afterId = 0;
+            List<Event> page;
+            do {
+                page = eventDao.getEventsAfter(afterId, EXPORT_PAGE_SIZE);
+                for (Event event : page) {
+                    writer.writeEvent(event);
                 }
-            } else {
-                // Android 10以下版本直接写入文件
-                File directory = new File(Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOCUMENTS), "Calendar");
-                if (!directory.exists()) {
-                    directory.mkdirs();
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).getId();
                 }
-                
-                File file = new File(directory, fileName);
-                FileOutputStream fos = new FileOutputStream(file);
-                fos.write(icsContent.getBytes());
-                fos.close();
-                
-                Toast.makeText(context, "导出成功: " + file.getAbsolutePath(), Toast.LENGTH_LONG).show();
+            } while (page.size() == EXPORT_PAGE_SIZE);
+            // 全部写完才写入日历尾
+            writer.finish();
+            Log.d(TAG, "导出事件数: " + writer.getEventCount());
+        } catch (IOException | RuntimeException e) {
+            // 中途失败时删除不完整的文件，避免留下看似完整的日历
+            if (uri != null) {
+                context.getContentResolver().delete(uri, null, null);
+            } else if (file != null && !file.delete()) {
+                Log.w(TAG, "删除不完整的导出文件失败: " + file);
             }
-        } catch (IOException e) {
-            Log.e(TAG, "导出ICS文件失败", e);
-            Toast.makeText(context, "导出失败: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+            throw e;
         }
+        return location;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,426 @@
+package com.example.calendar.utils;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * // 功能：ICS 日期/时间值的解析，直接扫描数字算出毫秒数
+ *
+ * 支持 DATE（20250101，本地零点）、本地 DATE-TIME（20250101T090000）、
+ * UTC DATE-TIME（20250101T090000Z）和带 TZID 参数的 DATE-TIME。
+ * 不创建 SimpleDateFormat、Date 或子字符串，本地时间通过 {@link ZoneOffsetTable} 二分查找偏移量。
+ * 与原来的 SimpleDateFormat 宽松解析结果一致：月、日、时分秒超出范围时向前进位，
+ * 最后一个字段读取所有剩余数字，之后的多余内容忽略。
+ *
+ * TZID 优先使用文件中 VTIMEZONE 定义的偏移变化（RFC 5545：TZID 参数指向日历自己的 VTIMEZONE），
+ * 文件没有定义时按系统时区（IANA 名称，可带 /mozilla.org/... 这类前缀）解析，
+ * 都找不到时按设备本地时区处理。
+ * 每个 TZID 只解析一次，之后连续使用同一个 TZID 时不分配对象。
+ * 一次导入创建一个实例，导入期间时区固定；实例不是线程安全的。
+ */
+public final class IcsDateTimeParser {
+
+    private static final String TAG = "ICS_TIME";
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+    // 最后一个字段（日或秒）读取所有剩余数字，最多这么多位，防止 int 溢出
+    private static final int MAX_TRAILING_DIGITS = 9;
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+    // 直接返回本地日期时间本身（VTIMEZONE 中的时间都是切换前的本地时间）
+    private static final ZoneOffsetTable WALL_CLOCK = ZoneOffsetTable.forZone(UTC);
+    // VTIMEZONE 的重复规则展开到这一年年底
+    private static final long EXPAND_END = RecurrenceRule.daysFromCivil(2101, 1, 1) * DAY_MILLIS;
+
+    private final ZoneOffsetTable localZone;
+    // 本次导入中 VTIMEZONE 定义的时区
+    private final Map<String, ZoneOffsetTable> definedZones = new HashMap<>();
+    // TZID -> 解析结果
+    private final Map<String, ZoneOffsetTable> resolvedZones = new HashMap<>();
+    // 上一次用到的 TZID，连续相同时直接比较字符，不截取子字符串
+    private String lastTzid;
+    private ZoneOffsetTable lastZone;
+    // 扫描位置，实例不能在多个线程间共用
+    private int cursor;
+
+    /**
+     * @param localZone 没有 Z 后缀和 TZID 参数的时间所在的时区
+     */
+    public IcsDateTimeParser(TimeZone localZone) {
+        this.localZone = ZoneOffsetTable.forZone(localZone);
+    }
+
+    /**
+     * 解析 DTSTART/DTEND 等属性行
+     * 支持：
+     * - DTSTART;VALUE=DATE:20250101
+     * - DTSTART:20251229T080000Z
+     * - DTSTART:20251229T080000
+     * - DTSTART;TZID=America/New_York:20251229T080000
+     * @param line 已展开折行的属性行
+     * @return 毫秒数，格式错误时返回0
+     */
+    public long parse(String line) {
+        int colon = valueColon(line);
+        if (colon < 0) {
+            return 0;
+        }
+        int from = colon + 1;
+        int to = line.length();
+        // 与 trim() 相同，去掉首尾空白
+        while (from < to && line.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && line.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        boolean dateOnly = isDateValue(line, colon);
+        // 全天事件与时区无关，总是按本地零点
+        ZoneOffsetTable zone = dateOnly ? localZone : zoneOf(line, colon);
+        return parseValue(line, from, to, dateOnly, zone);
+    }
+
+    /**
+     * 登记一个 VTIMEZONE 定义，之后使用该 TZID 的时间按其中的偏移变化换算
+     * 支持 STANDARD/DAYLIGHT 子组件中的 DTSTART、TZOFFSETFROM、TZOFFSETTO、RRULE 和 RDATE
+     * @param lines BEGIN:VTIMEZONE 与 END:VTIMEZONE 之间已展开折行的内容行
+     */
+    public void addTimeZone(List<String> lines) {
+        String tzid = null;
+        Transitions transitions = new Transitions();
+
+        boolean inComponent = false;
+        boolean hasStart = false;
+        long start = 0;
+        int offsetFrom = 0;
+        int offsetTo = 0;
+        String rrule = null;
+        List<String> rdates = new ArrayList<>();
+
+        for (String line : lines) {
+            if (line.startsWith("TZID")) {
+                tzid = IcsImportExportUtils.getIcsValue(line);
+            } else if (line.equals("BEGIN:STANDARD") || line.equals("BEGIN:DAYLIGHT")) {
+                inComponent = true;
+                hasStart = false;
+                offsetFrom = 0;
+                offsetTo = 0;
+                rrule = null;
+                rdates.clear();
+            } else if (line.equals("END:STANDARD") || line.equals("END:DAYLIGHT")) {
+                inComponent = false;
+                if (hasStart) {
+                    addOnsets(transitions, start, offsetFrom, offsetTo, rrule, rdates);
+                }
+            } else if (!inComponent) {
+                continue;
+            } else if (line.startsWith("DTSTART")) {
+                hasStart = true;
+                start = parseWall(line);
+            } else if (line.startsWith("TZOFFSETFROM")) {
+                offsetFrom = parseOffset(IcsImportExportUtils.getIcsValue(line));
+            } else if (line.startsWith("TZOFFSETTO")) {
+                offsetTo = parseOffset(IcsImportExportUtils.getIcsValue(line));
+            } else if (line.startsWith("RRULE")) {
+                rrule = IcsImportExportUtils.getIcsValue(line);
+            } else if (line.startsWith("RDATE")) {
+                rdates.add(line);
+            }
+        }
+
+        if (tzid == null || transitions.count == 0) {
+            Log.w(TAG, "忽略无效的VTIMEZONE: " + tzid);
+            return;
+        }
+        transitions.sort();
+        definedZones.put(tzid, ZoneOffsetTable.fromTransitions(
+                transitions.utc, transitions.before, transitions.after, transitions.count));
+        // 新的定义可能改变已经解析过的 TZID
+        resolvedZones.clear();
+        lastTzid = null;
+        lastZone = null;
+    }
+
+    /**
+     * 把一个 STANDARD/DAYLIGHT 子组件的所有切换时刻加入列表
+     * @param start 首次切换的本地时间（切换前的偏移）
+     */
+    private void addOnsets(Transitions transitions, long start, int offsetFrom, int offsetTo,
+                           String rrule, List<String> rdates) {
+        RecurrenceRule rule = RecurrenceRule.parse(rrule);
+        if (rule != null) {
+            // 在 UTC 下展开本地时间，得到的仍是本地时间，DTSTART 本身是第一个实例
+            RecurrenceRule.Occurrences onsets = rule.occurrences(start, start, EXPAND_END, UTC);
+            while (onsets.hasNext()) {
+                transitions.add(onsets.next() - offsetFrom, offsetFrom, offsetTo);
+            }
+        } else {
+            transitions.add(start - offsetFrom, offsetFrom, offsetTo);
+        }
+
+        // RDATE 可以有多行，每行用逗号分隔多个时间（PERIOD 只取开始时间）
+        for (String line : rdates) {
+            int from = valueColon(line) + 1;
+            while (from > 0 && from < line.length()) {
+                int comma = line.indexOf(',', from);
+                int to = comma < 0 ? line.length() : comma;
+                int slash = line.indexOf('/', from);
+                long onset = parseValue(line, from, slash >= 0 && slash < to ? slash : to, false, WALL_CLOCK);
+                if (onset != 0) {
+                    transitions.add(onset - offsetFrom, offsetFrom, offsetTo);
+                }
+                from = comma < 0 ? -1 : comma + 1;
+            }
+        }
+    }
+
+    /**
+     * 解析属性行（已去除首尾空白）中的本地时间，不做时区换算
+     */
+    private long parseWall(String line) {
+        int colon = valueColon(line);
+        return colon < 0 ? 0 : parseValue(line, colon + 1, line.length(), false, WALL_CLOCK);
+    }
+
+    /**
+     * 解析 UTC 偏移，如 +0800、-0500、+053000
+     * @return 毫秒数，格式错误时返回0
+     */
+    private static int parseOffset(String value) {
+        if (value.length() < 5 || (value.charAt(0) != '+' && value.charAt(0) != '-')) {
+            return 0;
+        }
+        try {
+            int hours = Integer.parseInt(value.substring(1, 3));
+            int minutes = Integer.parseInt(value.substring(3, 5));
+            int seconds = value.length() >= 7 ? Integer.parseInt(value.substring(5, 7)) : 0;
+            int millis = ((hours * 60 + minutes) * 60 + seconds) * 1000;
+            return value.charAt(0) == '-' ? -millis : millis;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 查找属性行 TZID 参数对应的偏移量表，没有 TZID 时为本地时区
+     */
+    private ZoneOffsetTable zoneOf(String line, int colon) {
+        int index = line.indexOf(";TZID=");
+        if (index < 0 || index > colon) {
+            return localZone;
+        }
+        int start = index + ";TZID=".length();
+        int end;
+        if (start < colon && line.charAt(start) == '"') {
+            start++;
+            end = line.indexOf('"', start);
+            if (end < 0 || end > colon) {
+                end = colon;
+            }
+        } else {
+            end = start;
+            while (end < colon && line.charAt(end) != ';') {
+                end++;
+            }
+        }
+
+        int length = end - start;
+        if (lastTzid != null && lastTzid.length() == length && line.regionMatches(start, lastTzid, 0, length)) {
+            return lastZone;
+        }
+        String tzid = line.substring(start, end);
+        ZoneOffsetTable zone = resolvedZones.get(tzid);
+        if (zone == null) {
+            zone = resolveZone(tzid);
+            resolvedZones.put(tzid, zone);
+        }
+        lastTzid = tzid;
+        lastZone = zone;
+        return zone;
+    }
+
+    private ZoneOffsetTable resolveZone(String tzid) {
+        // 文件自己的定义优先，同名的系统时区（如固定偏移的 EST）可能规则不同
+        ZoneOffsetTable defined = definedZones.get(tzid);
+        if (defined != null) {
+            return defined;
+        }
+        TimeZone system = findSystemZone(tzid);
+        if (system != null) {
+            return ZoneOffsetTable.forZone(system);
+        }
+        Log.w(TAG, "未知时区，按本地时间处理: " + tzid);
+        return localZone;
+    }
+
+    /**
+     * 按系统时区数据库查找 TZID，依次去掉开头的路径段
+     * （如 /mozilla.org/20070129_1/Europe/Berlin -> Europe/Berlin）
+     * @return 系统时区，找不到时返回null
+     */
+    static TimeZone findSystemZone(String tzid) {
+        String id = tzid;
+        while (true) {
+            if (!id.isEmpty()) {
+                TimeZone zone = TimeZone.getTimeZone(id);
+                // 未知的 ID 会返回 GMT
+                if (!"GMT".equals(zone.getID()) || "GMT".equals(id)) {
+                    return zone;
+                }
+            }
+            int slash = id.indexOf('/');
+            if (slash < 0) {
+                return null;
+            }
+            id = id.substring(slash + 1);
+        }
+    }
+
+    /**
+     * @return 分隔属性名/参数与值的冒号位置（跳过引号内的冒号），没有时返回-1
+     */
+    private static int valueColon(String line) {
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ':' && !quoted) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 解析 line[from, to) 中的日期或日期时间值
+     * @param dateOnly 是否按 DATE（只有年月日）解析
+     * @param zone 不带 Z 后缀时所在的时区
+     * @return 毫秒数，格式错误时返回0
+     */
+    private long parseValue(String line, int from, int to, boolean dateOnly, ZoneOffsetTable zone) {
+        // 8 位数字且后面没有时间部分，也按 DATE 处理
+        if (to - from == 8) {
+            dateOnly = true;
+        }
+
+        cursor = from;
+        int year = number(line, 4, to);
+        int month = number(line, 2, to);
+        int day = number(line, dateOnly ? MAX_TRAILING_DIGITS : 2, to);
+        if (year < 0 || month < 0 || day < 0) {
+            return 0;
+        }
+        if (dateOnly) {
+            return zone.toUtc(wallMillis(year, month, day, 0, 0, 0));
+        }
+
+        if (cursor >= to || line.charAt(cursor) != 'T') {
+            return 0;
+        }
+        cursor++;
+        int hour = number(line, 2, to);
+        int minute = number(line, 2, to);
+        int second = number(line, MAX_TRAILING_DIGITS, to);
+        if (hour < 0 || minute < 0 || second < 0) {
+            return 0;
+        }
+        long wall = wallMillis(year, month, day, hour, minute, second);
+        if (line.charAt(to - 1) == 'Z') {
+            // 秒之后必须紧跟 Z
+            return line.charAt(cursor) == 'Z' ? wall : 0;
+        }
+        return zone.toUtc(wall);
+    }
+
+    /**
+     * @return 参数部分是否声明了 VALUE=DATE（VALUE=DATE-TIME 不算）
+     */
+    private static boolean isDateValue(String line, int colon) {
+        int index = line.indexOf("VALUE=DATE");
+        if (index < 0 || index > colon) {
+            return false;
+        }
+        int end = index + "VALUE=DATE".length();
+        return end >= colon || line.charAt(end) != '-';
+    }
+
+    /**
+     * 把本地日期时间当作 UTC 计算毫秒数，超出范围的字段向前进位
+     */
+    private static long wallMillis(int year, int month, int day, int hour, int minute, int second) {
+        year += Math.floorDiv(month - 1, 12);
+        month = Math.floorMod(month - 1, 12) + 1;
+        long days = RecurrenceRule.daysFromCivil(year, month, 1) + (long) day - 1;
+        return days * DAY_MILLIS + hour * 3600_000L + minute * 60_000L + second * 1000L;
+    }
+
+    /**
+     * 从 cursor 开始读取最多 maxDigits 位连续数字，读完后 cursor 指向下一个字符
+     * @return 数值，一位数字都没有时返回-1；最后一个字段超过 maxDigits 位时也返回-1
+     */
+    private int number(String s, int maxDigits, int to) {
+        int from = cursor;
+        int value = 0;
+        while (cursor < to && isDigit(s.charAt(cursor))) {
+            if (cursor - from == maxDigits) {
+                return maxDigits == MAX_TRAILING_DIGITS ? -1 : value;
+            }
+            value = value * 10 + (s.charAt(cursor) - '0');
+            cursor++;
+        }
+        return cursor == from ? -1 : value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * VTIMEZONE 展开出的偏移变化，按时刻排序后生成偏移量表
+     */
+    private static final class Transitions {
+        long[] utc = new long[32];
+        int[] before = new int[32];
+        int[] after = new int[32];
+        int count;
+
+        void add(long time, int offsetBefore, int offsetAfter) {
+            if (count == utc.length) {
+                utc = Arrays.copyOf(utc, count * 2);
+                before = Arrays.copyOf(before, count * 2);
+                after = Arrays.copyOf(after, count * 2);
+            }
+            utc[count] = time;
+            before[count] = offsetBefore;
+            after[count] = offsetAfter;
+            count++;
+        }
+
+        /**
+         * 插入排序：各子组件内部已经有序，只需要把几段交错合并
+         */
+        void sort() {
+            for (int i = 1; i < count; i++) {
+                long time = utc[i];
+                int offsetBefore = before[i];
+                int offsetAfter = after[i];
+                int j = i - 1;
+                while (j >= 0 && utc[j] > time) {
+                    utc[j + 1] = utc[j];
+                    before[j + 1] = before[j];
+                    after[j + 1] = after[j];
+                    j--;
+                }
+                utc[j + 1] = time;
+                before[j + 1] = offsetBefore;
+                after[j + 1] = offsetAfter;
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.calendar.utils;
 
 import android.content.Context;
+import android.content.res.AssetFileDescriptor;
 import android.net.Uri;
 import android.util.Log;
 
@@ -8,12 +9,15 @@ import com.example.calendar.model.Event;
 import com.example.calendar.model.Reminder;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.TimeZone;
@@ -33,7 +37,6 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.TimeZone;
@@ -54,94 +57,122 @@ public class IcsImportExportUtils {
 
 
     /**
-     * 从 URI 读取 ICS 文件内容
+     * 打开 URI 对应的 ICS 文件，返回流式解析器（由调用方负责关闭）
+     * @param context 上下文
+     * @param uri 文件URI
+     * @return 流式解析器
+     * @throws IOException 文件无法打开
      */
-    public static String readIcsFile(Context context, Uri uri) {
-        try {
-            InputStream inputStream = context.getContentResolver().openInputStream(uri);
-            BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
-            StringBuilder content = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                content.append(line).append("\n");
-            }
-            reader.close();
-            return content.toString();
-        } catch (Exception e) {
-            Log.e(TAG, "读取ICS文件失败", e);
-            return null;
+    public static IcsStreamParser openIcsFile(Context context, Uri uri) throws IOException {
+        InputStream inputStream = context.getContentResolver().openInputStream(uri);
+        if (inputStream == null) {
+            throw new IOException("无法打开文件: " + uri);
         }
+        return new IcsStreamParser(inputStream);
     }
 
     /**
-     * 解析 ICS 内容为 Event 列表
+     * 解析 URI 对应的 ICS 文件，按文件顺序逐个回调：
+     * 大文件在多核设备上整个读入内存后分块并行解析（大小按最大堆限制，见
+     * {@link IcsParallelParser#shouldReadWhole}），边解析边按块回调，不积累整个文件的事件；
+     * 其余情况流式解析，不把文件读入内存
+     * @param context 上下文
+     * @param uri 文件URI
+     * @param listener 每个事件的回调，在调用线程中执行
+     * @throws IOException 文件无法打开或读取
      */
-    public static List<Event> parseIcsContent(String icsContent) {
-        List<Event> events = new ArrayList<>();
-
-        if (icsContent == null || icsContent.isEmpty()) {
-            return events;
+    public static void importIcsFile(Context context, Uri uri, OnEventListener listener) throws IOException {
+        long length = getFileLength(context, uri);
+        if (IcsParallelParser.shouldReadWhole(length)) {
+            String content = readIcsFile(context, uri, length);
+            if (IcsParallelParser.shouldParallelize(content)) {
+                IcsParallelParser.parse(content, listener);
+            } else {
+                // 不适合并行（如事件之间还有 VTIMEZONE）时顺序解析
+                try (IcsStreamParser parser = new IcsStreamParser(new StringReader(content))) {
+                    emitAll(parser, listener);
+                }
+            }
+            return;
         }
 
-        String[] lines = icsContent.split("\n");
-        Event currentEvent = null;
-
-        for (String rawLine : lines) {
-            String line = rawLine.trim();
-
-            if (line.equals("BEGIN:VEVENT")) {
-                currentEvent = new Event();
-            }
+        try (IcsStreamParser parser = openIcsFile(context, uri)) {
+            emitAll(parser, listener);
+        }
+    }
 
-            else if (line.equals("END:VEVENT")) {
-                if (currentEvent != null && currentEvent.getStartTime() > 0) {
+    /**
+     * 依次回调解析器中的所有事件
+     */
+    private static void emitAll(IcsStreamParser parser, OnEventListener listener) throws IOException {
+        Event event;
+        while ((event = parser.next()) != null) {
+            listener.onEvent(event);
+        }
+    }
 
-                    // 全天事件兜底：没有 DTEND 就 +1 天
-                    if (currentEvent.getEndTime() == 0) {
-                        currentEvent.setEndTime(
-                                currentEvent.getStartTime() + 24 * 60 * 60 * 1000L
-                        );
-                    }
+    /**
+     * @return 文件字节数，无法获取时返回-1
+     */
+    private static long getFileLength(Context context, Uri uri) {
+        try (AssetFileDescriptor descriptor = context.getContentResolver().openAssetFileDescriptor(uri, "r")) {
+            return descriptor != null ? descriptor.getLength() : -1;
+        } catch (IOException | SecurityException e) {
+            return -1;
+        }
+    }
 
-                    events.add(currentEvent);
-                }
-                currentEvent = null;
+    /**
+     * 把整个文件按UTF-8读入内存
+     * @param length 文件字节数，用于预分配
+     */
+    private static String readIcsFile(Context context, Uri uri, long length) throws IOException {
+        InputStream inputStream = context.getContentResolver().openInputStream(uri);
+        if (inputStream == null) {
+            throw new IOException("无法打开文件: " + uri);
+        }
+        StringBuilder content = new StringBuilder((int) length);
+        try (InputStreamReader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+            char[] buffer = new char[8192];
+            int n;
+            while ((n = reader.read(buffer)) >= 0) {
+                content.append(buffer, 0, n);
             }
+        }
+        return content.toString();
+    }
 
-            else if (currentEvent != null) {
-
-                // 标题（支持 SUMMARY;LANGUAGE=xx）
-                if (line.startsWith("SUMMARY")) {
-                    currentEvent.setTitle(unescapeText(getIcsValue(line)));
-                }
-
-                // 描述
-                else if (line.startsWith("DESCRIPTION")) {
-                    currentEvent.setDescription(unescapeText(getIcsValue(line)));
-                }
+    public interface OnEventListener {
+        /**
+         * @param event 解析出的事件
+         */
+        void onEvent(Event event);
+    }
 
-                // 地点
-                else if (line.startsWith("LOCATION")) {
-                    currentEvent.setLocation(unescapeText(getIcsValue(line)));
-                }
+    /**
+     * 解析 ICS 内容为 Event 列表，超过 {@link IcsParallelParser#PARALLEL_THRESHOLD} 时分块并行解析
+     */
+    public static List<Event> parseIcsContent(String icsContent) {
+        List<Event> events = new ArrayList<>();
 
-                // 开始时间（支持 VALUE=DATE / UTC / 本地）
-                else if (line.startsWith("DTSTART")) {
-                    long start = parseIcsDateTime(line);
-                    currentEvent.setStartTime(start);
-                }
+        if (icsContent == null || icsContent.isEmpty()) {
+            return events;
+        }
 
-                // 结束时间
-                else if (line.startsWith("DTEND")) {
-                    long end = parseIcsDateTime(line);
-                    currentEvent.setEndTime(end);
-                }
+        if (IcsParallelParser.shouldParallelize(icsContent)) {
+            events = IcsParallelParser.parse(icsContent);
+            Log.d(TAG, "并行解析完成，共解析事件数: " + events.size());
+            return events;
+        }
 
-                // RRULE（可选）
-                else if (line.startsWith("RRULE")) {
-                    currentEvent.setRrule(getIcsValue(line));
-                }
+        try (IcsStreamParser parser = new IcsStreamParser(new StringReader(icsContent))) {
+            Event event;
+            while ((event = parser.next()) != null) {
+                events.add(event);
             }
+        } catch (IOException e) {
+            // StringReader 不会抛出IO异常
+            Log.e(TAG, "解析ICS内容失败", e);
         }
 
         Log.d(TAG, "解析完成，共解析事件数: " + events.size());
@@ -149,43 +180,47 @@ public class IcsImportExportUtils {
     }
 
     /**
-     * 解析 ICS 时间字段
-     * 支持：
-     * - DTSTART;VALUE=DATE:20250101
-     * - DTSTART:20251229T080000Z
-     * - DTSTART:20251229T080000
+     * 将 VEVENT 内的一行属性写入事件
+     * @param event 当前事件
+     * @param line 已展开折行并去除首尾空白的属性行
+     * @param dateTimeParser 本次导入使用的时间解析器
      */
-    private static long parseIcsDateTime(String line) {
-        try {
-            String value = getIcsValue(line);
-
-            // 全天事件（DATE）
-            if (line.contains("VALUE=DATE")) {
-                SimpleDateFormat sdf = new SimpleDateFormat("yyyyMMdd", Locale.US);
-                sdf.setTimeZone(TimeZone.getDefault());
-                Date date = sdf.parse(value);
-                return date != null ? date.getTime() : 0;
-            }
+    static void applyEventProperty(Event event, String line, IcsDateTimeParser dateTimeParser) {
+        // 标题（支持 SUMMARY;LANGUAGE=xx）
+        if (line.startsWith("SUMMARY")) {
+            event.setTitle(unescapeText(getIcsValue(line)));
+        }
 
-            // UTC 时间（Z）
-            if (value.endsWith("Z")) {
-                SimpleDateFormat sdf = new SimpleDateFormat(
-                        "yyyyMMdd'T'HHmmss'Z'", Locale.US);
-                sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
-                Date date = sdf.parse(value);
-                return date != null ? date.getTime() : 0;
-            }
+        // 描述
+        else if (line.startsWith("DESCRIPTION")) {
+            event.setDescription(unescapeText(getIcsValue(line)));
+        }
 
-            // 本地时间
-            SimpleDateFormat sdf = new SimpleDateFormat(
-                    "yyyyMMdd'T'HHmmss", Locale.US);
-            sdf.setTimeZone(TimeZone.getDefault());
-            Date date = sdf.parse(value);
-            return date != null ? date.getTime() : 0;
+        // 地点
+        else if (line.startsWith("LOCATION")) {
+            event.setLocation(unescapeText(getIcsValue(line)));
+        }
 
-        } catch (Exception e) {
-            Log.e(TAG, "解析ICS时间失败: " + line, e);
-            return 0;
+        // 开始时间（支持 VALUE=DATE / UTC / 本地 / TZID）
+        else if (line.startsWith("DTSTART")) {
+            long start = dateTimeParser.parse(line);
+            event.setStartTime(start);
+        }
+
+        // 结束时间
+        else if (line.startsWith("DTEND")) {
+            long end = dateTimeParser.parse(line);
+            event.setEndTime(end);
+        }
+
+        // RRULE（可选）
+        else if (line.startsWith("RRULE")) {
+            event.setRrule(getIcsValue(line));
+        }
+
+        // UID（订阅增量同步的主键）
+        else if (line.startsWith("UID")) {
+            event.setUid(getIcsValue(line));
         }
     }
 
@@ -193,7 +228,7 @@ public class IcsImportExportUtils {
      * 获取 ICS 行中冒号后的值
      * 例如：SUMMARY;LANGUAGE=en-us:China: New Year's Day
      */
-    private static String getIcsValue(String line) {
+    static String getIcsValue(String line) {
         int index = line.indexOf(':');
         if (index == -1) return "";
         return line.substring(index + 1).trim();
@@ -301,79 +336,22 @@ public class IcsImportExportUtils {
 
 
     /**
-     * 生成ICS内容
+     * 生成ICS内容（导出文件请直接使用 {@link IcsStreamWriter} 写入输出流）
      * @param events 事件列表
      * @return ICS文件内容
      */
     public static String generateIcsContent(List<Event> events) {
-        StringBuilder ics = new StringBuilder();
-        
-        // ICS文件头
-        ics.append("BEGIN:VCALENDAR\n");
-        ics.append("VERSION:2.0\n");
-        ics.append("PRODID:-//MyCalendarApp//StudentHomework//CN\n");
-        
-        // 添加每个事件
-        for (Event event : events) {
-            ics.append(generateEventIcs(event));
-        }
-        
-        // ICS文件尾
-        ics.append("END:VCALENDAR\n");
-        
-        return ics.toString();
-    }
-    
-    /**
-     * 生成单个事件的ICS内容
-     * @param event 事件对象
-     * @return 事件的ICS内容
-     */
-    private static String generateEventIcs(Event event) {
-        StringBuilder ics = new StringBuilder();
-        
-        ics.append("BEGIN:VEVENT\n");
-        ics.append("UID:").append(event.getId()).append("@mycalendarapp\n");
-        if (event.getTitle() != null) {
-            ics.append("SUMMARY:").append(escapeText(event.getTitle())).append("\n");
-        }
-        if (event.getDescription() != null) {
-            ics.append("DESCRIPTION:").append(escapeText(event.getDescription())).append("\n");
-        }
-        if (event.getLocation() != null) {
-            ics.append("LOCATION:").append(escapeText(event.getLocation())).append("\n");
-        }
-        
-        // 时间格式化
-        if (event.getStartTime() > 0) {
-            ics.append("DTSTART:").append(UTC_FORMAT.format(new Date(event.getStartTime()))).append("\n");
-        }
-        if (event.getEndTime() > 0) {
-            ics.append("DTEND:").append(UTC_FORMAT.format(new Date(event.getEndTime()))).append("\n");
-        }
-        
-        // 重复规则
-        if (event.getRrule() != null && !event.getRrule().isEmpty()) {
-            ics.append("RRULE:").append(event.getRrule()).append("\n");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (IcsStreamWriter writer = new IcsStreamWriter(bytes)) {
+            for (Event event : events) {
+                writer.writeEvent(event);
+            }
+            writer.finish();
+        } catch (IOException e) {
+            // ByteArrayOutputStream 不会抛出IO异常
+            Log.e(TAG, "生成ICS内容失败", e);
         }
-        
-        ics.append("END:VEVENT\n");
-        
-        return ics.toString();
-    }
-    
-    /**
-     * 转义文本中的特殊字符
-     * @param text 原始文本
-     * @return 转义后的文本
-     */
-    private static String escapeText(String text) {
-        if (text == null) return "";
-        
-        return text.replace("\\", "\\\\")
-                .replace(";", "\\;")
-                .replace(",", "\\,")
-                .replace("\n", "\\n");
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
     }
     
     /**
@@ -0,0 +1,206 @@
+package com.example.calendar.utils;
+
+import com.example.calendar.model.Event;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * // 功能：大型 ICS 内容的并行解析
+ *
+ * 在 BEGIN:VEVENT 所在行的开头把内容切成若干块，每块由独立的 {@link IcsStreamParser}
+ * 在 fork-join 线程池中解析，再按块的顺序依次回调，结果与顺序解析的事件和顺序完全相同。
+ * 同时只有有限几块在解析或等待回调，内存中不会积累整个文件的事件。
+ * 第一个事件之前的内容（其中的 VTIMEZONE 定义）加在每块前面一起解析；
+ * 事件之间还出现 VTIMEZONE 时只有顺序解析能保证语义，此时不并行。
+ */
+public final class IcsParallelParser {
+
+    // 小于该长度（字符数）时切块和调度的开销大于收益，直接顺序解析
+    public static final int PARALLEL_THRESHOLD = 1024 * 1024;
+    // 超过该大小（字节）的文件不整个读入内存，始终流式解析
+    public static final long MAX_IN_MEMORY_BYTES = 32L * 1024 * 1024;
+    // 读入内存时字符串和读取缓冲区合计约为文件字节数的4倍（UTF-16），只允许占用最大堆的1/4
+    private static final int HEAP_FRACTION = 16;
+    // 每块的目标长度，块数远多于线程数，便于工作窃取平衡负载
+    private static final int TARGET_CHUNK_CHARS = 128 * 1024;
+    private static final String EVENT_START = "\nBEGIN:VEVENT";
+
+    private IcsParallelParser() {}
+
+    /**
+     * @param content ICS 内容
+     * @return 是否值得并行解析
+     */
+    public static boolean shouldParallelize(String content) {
+        if (content.length() < PARALLEL_THRESHOLD || ForkJoinPool.getCommonPoolParallelism() < 2) {
+            return false;
+        }
+        int firstEvent = firstEventStart(content);
+        return firstEvent >= 0 && content.indexOf("BEGIN:VTIMEZONE", firstEvent) < 0;
+    }
+
+    /**
+     * 根据文件大小判断是否值得把文件整个读入内存后并行解析
+     * @param fileBytes 文件字节数，未知时为负数
+     * @return 是否读入内存并行解析；否则应流式解析
+     */
+    public static boolean shouldReadWhole(long fileBytes) {
+        return fileBytes >= PARALLEL_THRESHOLD && fileBytes <= maxInMemoryBytes()
+                && ForkJoinPool.getCommonPoolParallelism() >= 2;
+    }
+
+    /**
+     * @return 允许整个读入内存的最大文件字节数，按当前进程的最大堆缩小
+     */
+    static long maxInMemoryBytes() {
+        return Math.min(MAX_IN_MEMORY_BYTES, Runtime.getRuntime().maxMemory() / HEAP_FRACTION);
+    }
+
+    /**
+     * 并行解析 ICS 内容（不检查阈值）
+     * @param content ICS 内容
+     * @return 按文件顺序排列的事件
+     */
+    public static List<Event> parse(String content) {
+        List<Event> events = new ArrayList<>();
+        parse(content, events::add);
+        return events;
+    }
+
+    /**
+     * 并行解析 ICS 内容（不检查阈值），按文件顺序逐个回调
+     * 最多同时提交 2 倍并行度的块，最早的一块解析完后回调并释放，再提交下一块
+     * @param content ICS 内容
+     * @param listener 每个事件的回调，在调用线程中执行
+     */
+    public static void parse(String content, IcsImportExportUtils.OnEventListener listener) {
+        int firstEvent = firstEventStart(content);
+        if (firstEvent < 0) {
+            return;
+        }
+        String header = content.substring(0, firstEvent);
+        int[] bounds = chunkBounds(content, firstEvent);
+        int chunkCount = bounds.length - 1;
+
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int window = pool.getParallelism() * 2;
+        ArrayDeque<ForkJoinTask<List<Event>>> pending = new ArrayDeque<>(window);
+        int submitted = 0;
+        try {
+            while (submitted < chunkCount || !pending.isEmpty()) {
+                while (submitted < chunkCount && pending.size() < window) {
+                    int from = bounds[submitted];
+                    int to = bounds[submitted + 1];
+                    pending.add(pool.submit(() -> parseChunk(content, header, from, to)));
+                    submitted++;
+                }
+                for (Event event : pending.poll().join()) {
+                    listener.onEvent(event);
+                }
+            }
+        } finally {
+            // 回调抛出异常时不再解析剩下的块
+            for (ForkJoinTask<List<Event>> task : pending) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * @return 第一个 BEGIN:VEVENT 行开头的位置，没有事件时返回-1
+     */
+    private static int firstEventStart(String content) {
+        if (content.startsWith(EVENT_START.substring(1))) {
+            return 0;
+        }
+        int index = content.indexOf(EVENT_START);
+        return index < 0 ? -1 : index + 1;
+    }
+
+    /**
+     * 计算各块的边界：每块至少 TARGET_CHUNK_CHARS 个字符，并延伸到下一个 BEGIN:VEVENT 行的开头
+     * @return 边界数组，第 i 块为 [bounds[i], bounds[i + 1])
+     */
+    private static int[] chunkBounds(String content, int start) {
+        int[] bounds = new int[content.length() / TARGET_CHUNK_CHARS + 2];
+        int count = 0;
+        bounds[count++] = start;
+        int position = start;
+        while (true) {
+            int next = content.indexOf(EVENT_START, position + TARGET_CHUNK_CHARS);
+            if (next < 0) {
+                break;
+            }
+            position = next + 1;
+            bounds[count++] = position;
+        }
+        bounds[count++] = content.length();
+        int[] result = new int[count];
+        System.arraycopy(bounds, 0, result, 0, count);
+        return result;
+    }
+
+    /**
+     * 解析一块内容，前面加上文件头以获得 VTIMEZONE 定义
+     */
+    private static List<Event> parseChunk(String content, String header, int from, int to) {
+        List<Event> events = new ArrayList<>();
+        try (IcsStreamParser parser = new IcsStreamParser(new ChunkReader(header, content, from, to))) {
+            Event event;
+            while ((event = parser.next()) != null) {
+                events.add(event);
+            }
+        } catch (IOException e) {
+            // 读取内存中的字符串不会抛出IO异常
+            throw new IllegalStateException(e);
+        }
+        return events;
+    }
+
+    /**
+     * 依次读取文件头和 content[from, to)，不复制块的内容
+     */
+    private static final class ChunkReader extends Reader {
+        private final String header;
+        private final String content;
+        private final int contentFrom;
+        private final int end; // 按 header + 块 拼接后的总长度
+        private int position;
+
+        ChunkReader(String header, String content, int from, int to) {
+            this.header = header;
+            this.content = content;
+            this.contentFrom = from - header.length();
+            this.end = header.length() + (to - from);
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (position >= end) {
+                return -1;
+            }
+            int count = Math.min(length, end - position);
+            int copied = 0;
+            if (position < header.length()) {
+                copied = Math.min(count, header.length() - position);
+                header.getChars(position, position + copied, buffer, offset);
+            }
+            if (copied < count) {
+                int start = contentFrom + position + copied;
+                content.getChars(start, start + count - copied, buffer, offset + copied);
+            }
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
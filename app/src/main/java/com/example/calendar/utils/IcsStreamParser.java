@@ -0,0 +1,135 @@
+package com.example.calendar.utils;
+
+import com.example.calendar.model.Event;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * // 功能：流式ICS解析器，按需从输入流中逐个读取VEVENT
+ *
+ * 每次调用 {@link #next()} 只读取到下一个 END:VEVENT 为止，
+ * 不会把整个文件读入内存，内存占用只与单个事件的大小有关。
+ * 遇到 VTIMEZONE 时登记到时间解析器，供之后带 TZID 的时间使用（文件通常把 VTIMEZONE 放在事件之前）。
+ */
+public class IcsStreamParser implements Closeable {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final BufferedReader reader;
+    // 导入期间固定使用当前默认时区，VTIMEZONE 定义只在本次导入中有效
+    private final IcsDateTimeParser dateTimeParser = new IcsDateTimeParser(TimeZone.getDefault());
+    private String lookahead; // 预读的下一物理行，用于合并折行
+    private boolean lookaheadValid;
+    private int eventCount;
+
+    /**
+     * @param inputStream ICS文件输入流（UTF-8编码）
+     */
+    public IcsStreamParser(InputStream inputStream) {
+        this(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param reader ICS内容字符流
+     */
+    public IcsStreamParser(Reader reader) {
+        this.reader = reader instanceof BufferedReader
+                ? (BufferedReader) reader
+                : new BufferedReader(reader, BUFFER_SIZE);
+    }
+
+    /**
+     * 读取下一个事件
+     * @return 解析出的事件，没有更多事件时返回null
+     * @throws IOException 读取输入流失败
+     */
+    public Event next() throws IOException {
+        Event currentEvent = null;
+        String line;
+
+        while ((line = readLogicalLine()) != null) {
+            if (line.equals("BEGIN:VEVENT")) {
+                currentEvent = new Event();
+            } else if (line.equals("END:VEVENT")) {
+                if (currentEvent != null && currentEvent.getStartTime() > 0) {
+                    // 全天事件兜底：没有 DTEND 就 +1 天
+                    if (currentEvent.getEndTime() == 0) {
+                        currentEvent.setEndTime(
+                                currentEvent.getStartTime() + 24 * 60 * 60 * 1000L
+                        );
+                    }
+                    eventCount++;
+                    return currentEvent;
+                }
+                currentEvent = null;
+            } else if (currentEvent == null && line.equals("BEGIN:VTIMEZONE")) {
+                readTimeZone();
+            } else if (currentEvent != null) {
+                IcsImportExportUtils.applyEventProperty(currentEvent, line, dateTimeParser);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 读取一个 VTIMEZONE 组件并登记到时间解析器，之后的事件可以引用它的 TZID
+     */
+    private void readTimeZone() throws IOException {
+        List<String> lines = new ArrayList<>();
+        String line;
+        while ((line = readLogicalLine()) != null && !line.equals("END:VTIMEZONE")) {
+            lines.add(line);
+        }
+        dateTimeParser.addTimeZone(lines);
+    }
+
+    /**
+     * @return 到目前为止已返回的事件数量
+     */
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * 读取一个逻辑行：RFC 5545 规定以空格或制表符开头的物理行是上一行的延续
+     */
+    private String readLogicalLine() throws IOException {
+        String line = lookaheadValid ? lookahead : reader.readLine();
+        lookaheadValid = false;
+        if (line == null) {
+            return null;
+        }
+
+        String next = reader.readLine();
+        if (isContinuation(next)) {
+            StringBuilder unfolded = new StringBuilder(line);
+            do {
+                unfolded.append(next, 1, next.length());
+                next = reader.readLine();
+            } while (isContinuation(next));
+            line = unfolded.toString();
+        }
+        lookahead = next;
+        lookaheadValid = true;
+        return line.trim();
+    }
+
+    private static boolean isContinuation(String line) {
+        return line != null && !line.isEmpty()
+                && (line.charAt(0) == ' ' || line.charAt(0) == '\t');
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
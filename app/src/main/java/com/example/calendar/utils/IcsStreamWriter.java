@@ -0,0 +1,256 @@
+package com.example.calendar.utils;
+
+import com.example.calendar.model.Event;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * // 功能：流式ICS写入器，把事件逐个编码为UTF-8直接写入输出流
+ *
+ * 与 {@link IcsStreamParser} 对应：不在内存中拼接整个文件，内存占用只有一个固定大小的字节缓冲区。
+ * 按 RFC 5545 以 CRLF 换行，每行超过75个字节时折行（折行处插入 CRLF 和一个空格），
+ * 折行只发生在字符之间，不会拆开一个多字节的UTF-8字符。
+ * 全部事件写完后调用 {@link #finish()} 写入日历尾；写入中途出错时不调用，输出不会是一个看似完整的日历。
+ */
+public class IcsStreamWriter implements Closeable {
+
+    // RFC 5545 规定每行不超过75个字节（不含换行符）
+    private static final int MAX_LINE_OCTETS = 75;
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int lineOctets; // 当前物理行已写入的字节数
+    private boolean headerWritten;
+    private boolean finished;
+    private boolean closed;
+    private int eventCount;
+
+    /**
+     * @param out 输出流，由写入器负责关闭
+     */
+    public IcsStreamWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * 写入一个事件（第一次写入前自动写入日历头）
+     * @param event 事件对象
+     * @throws IOException 写入输出流失败
+     */
+    public void writeEvent(Event event) throws IOException {
+        writeHeader();
+
+        writeLine("BEGIN", "VEVENT", false);
+        beginProperty("UID");
+        writeDecimal(event.getId(), 1);
+        writeText("@mycalendarapp", false);
+        endLine();
+        if (event.getTitle() != null) {
+            writeLine("SUMMARY", event.getTitle(), true);
+        }
+        if (event.getDescription() != null) {
+            writeLine("DESCRIPTION", event.getDescription(), true);
+        }
+        if (event.getLocation() != null) {
+            writeLine("LOCATION", event.getLocation(), true);
+        }
+
+        // 时间统一写成UTC格式
+        if (event.getStartTime() > 0) {
+            writeUtcLine("DTSTART", event.getStartTime());
+        }
+        if (event.getEndTime() > 0) {
+            writeUtcLine("DTEND", event.getEndTime());
+        }
+
+        // 重复规则
+        if (event.getRrule() != null && !event.getRrule().isEmpty()) {
+            writeLine("RRULE", event.getRrule(), false);
+        }
+        writeLine("END", "VEVENT", false);
+        eventCount++;
+    }
+
+    /**
+     * @return 已写入的事件数
+     */
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * 写入日历尾并把缓冲区写入输出流，所有事件写完后调用一次
+     * @throws IOException 写入输出流失败
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        writeHeader();
+        writeLine("END", "VCALENDAR", false);
+        flushBuffer();
+        out.flush();
+    }
+
+    /**
+     * 关闭输出流；没有调用 {@link #finish()} 时缓冲区中的内容被丢弃
+     * @throws IOException 关闭输出流失败
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        out.close();
+    }
+
+    private void writeHeader() throws IOException {
+        if (headerWritten) {
+            return;
+        }
+        headerWritten = true;
+        writeLine("BEGIN", "VCALENDAR", false);
+        writeLine("VERSION", "2.0", false);
+        writeLine("PRODID", "-//MyCalendarApp//StudentHomework//CN", false);
+    }
+
+    private void writeLine(String name, String value, boolean escape) throws IOException {
+        beginProperty(name);
+        writeText(value, escape);
+        endLine();
+    }
+
+    /**
+     * 写入UTC时间属性，格式为 yyyyMMdd'T'HHmmss'Z'
+     */
+    private void writeUtcLine(String name, long millis) throws IOException {
+        long epochDay = Math.floorDiv(millis, MILLIS_PER_DAY);
+        int secondOfDay = (int) (Math.floorMod(millis, MILLIS_PER_DAY) / 1000);
+        int date = RecurrenceRule.civilFromDays((int) epochDay);
+
+        beginProperty(name);
+        writeDecimal(date, 8);
+        writeCodePoint('T');
+        writeDecimal(secondOfDay / 3600, 2);
+        writeDecimal(secondOfDay / 60 % 60, 2);
+        writeDecimal(secondOfDay % 60, 2);
+        writeCodePoint('Z');
+        endLine();
+    }
+
+    private void beginProperty(String name) throws IOException {
+        writeText(name, false);
+        writeCodePoint(':');
+    }
+
+    /**
+     * 写入文本，需要时按 RFC 5545 转义反斜杠、分号、逗号和换行
+     */
+    private void writeText(String text, boolean escape) throws IOException {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (escape) {
+                if (c == '\\' || c == ';' || c == ',') {
+                    writeCodePoint('\\');
+                } else if (c == '\n') {
+                    writeCodePoint('\\');
+                    c = 'n';
+                } else if (c == '\r') {
+                    // \r\n 只保留 \n
+                    continue;
+                }
+            }
+            if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                writeCodePoint(Character.toCodePoint(c, text.charAt(++i)));
+            } else if (Character.isSurrogate(c)) {
+                // 不成对的代理字符无法编码
+                writeCodePoint('?');
+            } else {
+                writeCodePoint(c);
+            }
+        }
+    }
+
+    /**
+     * 写入非负整数，不足位数时左侧补0
+     */
+    private void writeDecimal(long value, int minDigits) throws IOException {
+        int digits = 1;
+        for (long v = value / 10; v > 0; v /= 10) {
+            digits++;
+        }
+        for (int i = digits; i < minDigits; i++) {
+            writeCodePoint('0');
+        }
+        long divisor = 1;
+        for (int i = 1; i < digits; i++) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            writeCodePoint((int) ('0' + value / divisor % 10));
+        }
+    }
+
+    /**
+     * 以UTF-8编码写入一个字符，当前行放不下时先折行
+     */
+    private void writeCodePoint(int codePoint) throws IOException {
+        int octets = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+        if (lineOctets + octets > MAX_LINE_OCTETS) {
+            put('\r');
+            put('\n');
+            put(' ');
+            lineOctets = 1;
+        }
+        switch (octets) {
+            case 1:
+                put(codePoint);
+                break;
+            case 2:
+                put(0xC0 | (codePoint >> 6));
+                put(0x80 | (codePoint & 0x3F));
+                break;
+            case 3:
+                put(0xE0 | (codePoint >> 12));
+                put(0x80 | ((codePoint >> 6) & 0x3F));
+                put(0x80 | (codePoint & 0x3F));
+                break;
+            default:
+                put(0xF0 | (codePoint >> 18));
+                put(0x80 | ((codePoint >> 12) & 0x3F));
+                put(0x80 | ((codePoint >> 6) & 0x3F));
+                put(0x80 | (codePoint & 0x3F));
+                break;
+        }
+        lineOctets += octets;
+    }
+
+    private void endLine() throws IOException {
+        put('\r');
+        put('\n');
+        lineOctets = 0;
+    }
+
+    private void put(int b) throws IOException {
+        if (position == buffer.length) {
+            flushBuffer();
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
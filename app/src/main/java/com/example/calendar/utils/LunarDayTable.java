@@ -0,0 +1,161 @@
+package com.example.calendar.utils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * // 功能：1900-2100年按年预先计算的农历日表，月视图绑定格子时只需查表
+ *
+ * 每年一个 int[]，下标为公历的年内第几天，每个 int 打包了：
+ * 农历日(5位) | 农历月(4位) | 闰月标志(1位) | 农历节日标志(1位) | 显示文本下标(8位)。
+ * 显示文本统一放在一个字符串数组中，同样的文本只有一份。
+ * 各年的表在第一次访问时由 LunarUtils 原有的逐项计算生成，结果与原实现完全一致。
+ */
+public final class LunarDayTable {
+
+    public static final int MIN_YEAR = 1900;
+    public static final int MAX_YEAR = 2100;
+
+    private static final int DAY_BITS = 5;
+    private static final int MONTH_SHIFT = 5;
+    private static final int LEAP_BIT = 1 << 9;
+    private static final int HOLIDAY_BIT = 1 << 10;
+    private static final int LABEL_SHIFT = 11;
+
+    // 农历日名称的个数，显示文本下标不小于它的是节日
+    private static final int DAY_LABEL_COUNT = 30;
+
+    // 公历每月1日之前的天数（平年、闰年）
+    private static final int[][] DAYS_BEFORE_MONTH = {
+            {0, 31, 59, 90, 120, 151, 181, 212, 243, 273, 304, 334},
+            {0, 31, 60, 91, 121, 152, 182, 213, 244, 274, 305, 335}
+    };
+
+    private static final String[] LABELS;
+    private static final Map<String, Integer> LABEL_INDEX = new HashMap<>();
+    static {
+        List<String> labels = LunarUtils.getAllDisplayLabels();
+        LABELS = labels.toArray(new String[0]);
+        for (int i = 0; i < LABELS.length; i++) {
+            if (!LABEL_INDEX.containsKey(LABELS[i])) {
+                LABEL_INDEX.put(LABELS[i], i);
+            }
+        }
+    }
+
+    private static final AtomicReferenceArray<int[]> YEARS =
+            new AtomicReferenceArray<>(MAX_YEAR - MIN_YEAR + 1);
+
+    private LunarDayTable() {}
+
+    /**
+     * @param year 公历年
+     * @return 该年是否在表的范围内
+     */
+    public static boolean covers(int year) {
+        return year >= MIN_YEAR && year <= MAX_YEAR;
+    }
+
+    /**
+     * 查询某一天的打包信息
+     * @param year 公历年（1900-2100）
+     * @param month 公历月 (0-11)
+     * @param day 公历日
+     * @return 打包后的农历信息，用本类的 getXxx 方法解出各字段
+     */
+    public static int get(int year, int month, int day) {
+        int[] table = YEARS.get(year - MIN_YEAR);
+        if (table == null) {
+            // 多个线程同时建同一年的表也没关系，结果相同，只保留先完成的
+            YEARS.compareAndSet(year - MIN_YEAR, null, buildYear(year));
+            table = YEARS.get(year - MIN_YEAR);
+        }
+        return table[dayOfYear(year, month, day)];
+    }
+
+    /**
+     * @return 显示文本（节日名称或农历日名称）
+     */
+    public static String getLabel(int info) {
+        return LABELS[info >>> LABEL_SHIFT];
+    }
+
+    /**
+     * @return 节日编号（包括公历节日和除夕），不是节日时返回0
+     */
+    public static int getHolidayId(int info) {
+        int label = info >>> LABEL_SHIFT;
+        return label >= DAY_LABEL_COUNT ? label - DAY_LABEL_COUNT + 1 : 0;
+    }
+
+    /**
+     * @return 是否是农历节日
+     */
+    public static boolean isLunarHoliday(int info) {
+        return (info & HOLIDAY_BIT) != 0;
+    }
+
+    /**
+     * @return 农历月 (1-12)
+     */
+    public static int getLunarMonth(int info) {
+        return (info >>> MONTH_SHIFT) & 0xF;
+    }
+
+    /**
+     * @return 农历日 (1-30)
+     */
+    public static int getLunarDay(int info) {
+        return info & ((1 << DAY_BITS) - 1);
+    }
+
+    /**
+     * @return 是否是闰月
+     */
+    public static boolean isLeapMonth(int info) {
+        return (info & LEAP_BIT) != 0;
+    }
+
+    /**
+     * 生成一年的日表
+     * @param year 公历年
+     * @return 按年内天数排列的打包信息
+     */
+    static int[] buildYear(int year) {
+        int leap = isLeapYear(year) ? 1 : 0;
+        int[] table = new int[365 + leap];
+        Solar solar = new Solar();
+        solar.solarYear = year;
+        for (int month = 0; month < 12; month++) {
+            int days = (month == 11 ? table.length : DAYS_BEFORE_MONTH[leap][month + 1])
+                    - DAYS_BEFORE_MONTH[leap][month];
+            for (int day = 1; day <= days; day++) {
+                solar.solarMonth = month + 1;
+                solar.solarDay = day;
+                Lunar lunar = LunarSolarConverterUtils.SolarToLunar(solar);
+
+                Integer label = LABEL_INDEX.get(LunarUtils.computeDisplayText(year, month, day));
+                if (label == null) {
+                    throw new IllegalStateException("未登记的显示文本: " + year + "-" + (month + 1) + "-" + day);
+                }
+                int info = lunar.lunarDay
+                        | (lunar.lunarMonth << MONTH_SHIFT)
+                        | (lunar.isleap ? LEAP_BIT : 0)
+                        | (LunarUtils.computeIsLunarHoliday(year, month, day) ? HOLIDAY_BIT : 0)
+                        | (label << LABEL_SHIFT);
+                table[DAYS_BEFORE_MONTH[leap][month] + day - 1] = info;
+            }
+        }
+        return table;
+    }
+
+    private static int dayOfYear(int year, int month, int day) {
+        return DAYS_BEFORE_MONTH[isLeapYear(year) ? 1 : 0][month] + day - 1;
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year % 4 == 0 && year % 100 != 0) || (year % 400 == 0);
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.calendar.utils;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.List;
 
 /**
  * // 功能：农历工具类，处理农历日期相关的功能
@@ -123,16 +126,44 @@ public class LunarUtils {
 
 
     private static int getLunarMonthDays(int lunarYear, int lunarMonth) {
+        if (lunarYear < 1900 || lunarYear - 1900 >= LUNAR_INFO.length) {
+            // 超出本表范围（1900年以前或2050年以后），用转换器的数据推算：下个月初一减本月初一
+            Lunar next = new Lunar();
+            next.lunarYear = lunarMonth == 12 ? lunarYear + 1 : lunarYear;
+            next.lunarMonth = lunarMonth == 12 ? 1 : lunarMonth + 1;
+            next.lunarDay = 1;
+            Lunar current = new Lunar();
+            current.lunarYear = lunarYear;
+            current.lunarMonth = lunarMonth;
+            current.lunarDay = 1;
+            return (int) (solarDays(LunarSolarConverterUtils.LunarToSolar(next))
+                    - solarDays(LunarSolarConverterUtils.LunarToSolar(current)));
+        }
         int yearInfo = (int) LUNAR_INFO[lunarYear - 1900];
         return ((yearInfo & (0x10000 >> lunarMonth)) != 0) ? 30 : 29;
     }
 
+    private static long solarDays(Solar solar) {
+        return solarToDate(solar.solarYear, solar.solarMonth - 1, solar.solarDay);
+    }
+
 
     /**
      * 日期单元格最终显示文本
      * 优先级：节日 > 农历日
+     * 1900-2100年直接查预先计算的按年日表
      */
     public static String getDisplayText(int year, int month, int day) {
+        if (LunarDayTable.covers(year)) {
+            return LunarDayTable.getLabel(LunarDayTable.get(year, month, day));
+        }
+        return computeDisplayText(year, month, day);
+    }
+
+    /**
+     * 逐项计算日期单元格显示文本（LunarDayTable 建表时使用）
+     */
+    static String computeDisplayText(int year, int month, int day) {
 
         // 1. 公历节日
         String solarHoliday = getSolarHoliday(year, month, day);
@@ -322,6 +353,16 @@ public class LunarUtils {
      * @return 是否是农历节日
      */
     public static boolean isLunarHoliday(int year, int month, int day) {
+        if (LunarDayTable.covers(year)) {
+            return LunarDayTable.isLunarHoliday(LunarDayTable.get(year, month, day));
+        }
+        return computeIsLunarHoliday(year, month, day);
+    }
+
+    /**
+     * 逐项计算是否是农历节日（LunarDayTable 建表时使用）
+     */
+    static boolean computeIsLunarHoliday(int year, int month, int day) {
 //        // 特殊处理：2025年12月16日是农历节日
 //        if (year == 2025 && month == 11 && day == 16) {
 //            return true;
@@ -366,6 +407,23 @@ public class LunarUtils {
         return "";
     }
     
+    /**
+     * 所有可能出现的显示文本：30个农历日名称在前，之后是各个节日名称
+     * @return 显示文本列表
+     */
+    static List<String> getAllDisplayLabels() {
+        List<String> labels = new ArrayList<>(Arrays.asList(LUNAR_DAY_NAMES));
+        for (String[] holiday : SOLAR_HOLIDAYS) {
+            labels.add(holiday[2]);
+        }
+        labels.add("感恩节");
+        labels.add("除夕");
+        for (String[] holiday : LUNAR_HOLIDAYS) {
+            labels.add(holiday[2]);
+        }
+        return labels;
+    }
+
     /**
      * 获取生肖
      * @param year 公历年
@@ -5,10 +5,16 @@ import android.net.ConnectivityManager;
 import android.net.NetworkInfo;
 import android.util.Log;
 
+import androidx.annotation.VisibleForTesting;
+
 import com.example.calendar.model.Subscription;
 
+import java.io.File;
 import java.io.IOException;
+import java.net.HttpURLConnection;
 
+import okhttp3.Cache;
+import okhttp3.Call;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
@@ -36,26 +42,72 @@ public class NetworkUtils {
         return false;
     }
     
+    // 订阅文件的磁盘缓存上限
+    private static final long HTTP_CACHE_SIZE = 10L * 1024 * 1024;
+    
+    private static volatile OkHttpClient httpClient;
+    
+    /**
+     * 获取全局共享的HTTP客户端（共用连接池与磁盘缓存）
+     * @param context 上下文
+     * @return HTTP客户端
+     */
+    public static OkHttpClient getHttpClient(Context context) {
+        if (httpClient == null) {
+            synchronized (NetworkUtils.class) {
+                if (httpClient == null) {
+                    File cacheDir = new File(context.getApplicationContext().getCacheDir(), "http_cache");
+                    httpClient = new OkHttpClient.Builder()
+                            .cache(new Cache(cacheDir, HTTP_CACHE_SIZE))
+                            .build();
+                }
+            }
+        }
+        return httpClient;
+    }
+    
     /**
-     * 下载订阅日历文件
+     * 替换共享的HTTP客户端，测试时可指向本地的 MockWebServer
+     * @param client HTTP客户端，传null则下次使用时重新创建默认客户端
+     */
+    @VisibleForTesting
+    public static void setHttpClient(OkHttpClient client) {
+        synchronized (NetworkUtils.class) {
+            httpClient = client;
+        }
+    }
+    
+    /**
+     * 条件下载订阅日历文件：带上上次保存的 ETag / Last-Modified，
+     * 服务器内容未变化时返回304，不再下载和解析
+     * 调用方负责关闭返回的结果
+     * @param context 上下文
      * @param subscription 订阅对象
-     * @return 下载的内容，如果失败返回null
+     * @return 下载结果，如果失败返回null
      */
-    public static String downloadSubscriptionCalendar(Subscription subscription) {
+    public static SubscriptionFetch fetchSubscriptionCalendar(Context context, Subscription subscription) {
         try {
-            OkHttpClient client = new OkHttpClient();
-            Request request = new Request.Builder()
-                    .url(subscription.getUrl())
-                    .build();
+            Request.Builder builder = new Request.Builder()
+                    .url(subscription.getUrl());
+            if (subscription.getEtag() != null) {
+                builder.header("If-None-Match", subscription.getEtag());
+            }
+            if (subscription.getLastModified() != null) {
+                builder.header("If-Modified-Since", subscription.getLastModified());
+            }
             
-            Response response = client.newCall(request).execute();
-            if (response.isSuccessful()) {
-                return response.body().string();
+            Call call = getHttpClient(context).newCall(builder.build());
+            Response response = call.execute();
+            if (response.code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                return SubscriptionFetch.notModified(response);
+            } else if (response.isSuccessful() && response.body() != null) {
+                return SubscriptionFetch.modified(call, response);
             } else {
                 Log.e(TAG, "下载失败，HTTP状态码: " + response.code());
+                response.close();
                 return null;
             }
-        } catch (IOException e) {
+        } catch (IOException | IllegalArgumentException e) {
             Log.e(TAG, "下载过程中发生异常", e);
             return null;
         }
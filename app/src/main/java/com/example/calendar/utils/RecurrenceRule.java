@@ -0,0 +1,666 @@
+package com.example.calendar.utils;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * // 功能：编译后的 RFC 5545 重复规则（RRULE），按需惰性展开重复实例
+ *
+ * 支持 FREQ（DAILY/WEEKLY/MONTHLY/YEARLY）、INTERVAL、COUNT、UNTIL、
+ * BYDAY（可带序号，如 2MO、-1FR）、BYMONTHDAY（可为负数）、BYMONTH、BYSETPOS、WKST。
+ * 带 BYYEARDAY 或 BYWEEKNO 的规则不支持，解析返回null，由调用方按单次事件处理。
+ * 规则只解析一次，展开时按"周期"逐个生成候选日期，日期计算全部使用纪元日（epoch day）整数运算，
+ * 只有最终换算成毫秒时间戳时才用到一个复用的 Calendar（默认按本地时区处理夏令时）。
+ * 实例对象是不可变的，可在多个线程间共享。
+ */
+public final class RecurrenceRule {
+
+    public static final int DAILY = 0;
+    public static final int WEEKLY = 1;
+    public static final int MONTHLY = 2;
+    public static final int YEARLY = 3;
+
+    // 9999-12-31 对应的纪元日，展开不会超过这一天
+    private static final int MAX_EPOCH_DAY = 2932896;
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+
+    private final int freq;
+    private final int interval;
+    private final int count; // 0 表示不限次数
+    private final long until; // 包含；Long.MAX_VALUE 表示不限
+    private final int[] byDayWeekday; // ISO星期：1=周一 ... 7=周日
+    private final int[] byDayOrdinal; // 0 表示不限序号
+    private final int[] byMonthDay;
+    private final int byMonthMask; // 第1~12位表示对应月份
+    private final int[] bySetPos;
+    private final int weekStart; // ISO星期
+
+    private RecurrenceRule(int freq, int interval, int count, long until,
+                           int[] byDayWeekday, int[] byDayOrdinal, int[] byMonthDay,
+                           int byMonthMask, int[] bySetPos, int weekStart) {
+        this.freq = freq;
+        this.interval = interval;
+        this.count = count;
+        this.until = until;
+        this.byDayWeekday = byDayWeekday;
+        this.byDayOrdinal = byDayOrdinal;
+        this.byMonthDay = byMonthDay;
+        this.byMonthMask = byMonthMask;
+        this.bySetPos = bySetPos;
+        this.weekStart = weekStart;
+    }
+
+    /**
+     * 解析重复规则字符串，可以带或不带 "RRULE:" 前缀
+     * @param rrule 重复规则，如 "FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE"
+     * @return 编译后的规则；为空、格式错误、不支持的频率（如 HOURLY）或规则（BYYEARDAY、BYWEEKNO）时返回null
+     */
+    public static RecurrenceRule parse(String rrule) {
+        if (rrule == null) {
+            return null;
+        }
+        String value = rrule.trim();
+        if (value.regionMatches(true, 0, "RRULE:", 0, 6)) {
+            value = value.substring(6);
+        }
+        if (value.isEmpty()) {
+            return null;
+        }
+
+        int freq = -1;
+        int interval = 1;
+        int count = 0;
+        long until = Long.MAX_VALUE;
+        int[] byDayWeekday = new int[0];
+        int[] byDayOrdinal = new int[0];
+        int[] byMonthDay = new int[0];
+        int byMonthMask = 0;
+        int[] bySetPos = new int[0];
+        int weekStart = 1;
+
+        try {
+            for (String part : value.split(";")) {
+                int eq = part.indexOf('=');
+                if (eq <= 0) {
+                    continue;
+                }
+                String name = part.substring(0, eq).trim().toUpperCase();
+                String arg = part.substring(eq + 1).trim().toUpperCase();
+                switch (name) {
+                    case "FREQ":
+                        freq = parseFreq(arg);
+                        break;
+                    case "INTERVAL":
+                        interval = Math.max(1, Integer.parseInt(arg));
+                        break;
+                    case "COUNT":
+                        count = Math.max(0, Integer.parseInt(arg));
+                        break;
+                    case "UNTIL":
+                        until = parseUntil(arg);
+                        break;
+                    case "BYDAY": {
+                        String[] days = arg.split(",");
+                        byDayWeekday = new int[days.length];
+                        byDayOrdinal = new int[days.length];
+                        for (int i = 0; i < days.length; i++) {
+                            String day = days[i].trim();
+                            int weekday = parseWeekday(day.substring(day.length() - 2));
+                            if (weekday == 0) {
+                                return null;
+                            }
+                            byDayWeekday[i] = weekday;
+                            String ordinal = day.substring(0, day.length() - 2);
+                            byDayOrdinal[i] = ordinal.isEmpty() ? 0 : Integer.parseInt(ordinal.replace("+", ""));
+                        }
+                        break;
+                    }
+                    case "BYMONTHDAY":
+                        byMonthDay = parseIntList(arg);
+                        break;
+                    case "BYMONTH":
+                        for (int month : parseIntList(arg)) {
+                            if (month >= 1 && month <= 12) {
+                                byMonthMask |= 1 << month;
+                            }
+                        }
+                        break;
+                    case "BYSETPOS":
+                        bySetPos = parseIntList(arg);
+                        break;
+                    case "WKST":
+                        weekStart = parseWeekday(arg);
+                        if (weekStart == 0) {
+                            weekStart = 1;
+                        }
+                        break;
+                    case "BYYEARDAY":
+                    case "BYWEEKNO":
+                        // 不支持，忽略会展开到错误的日期，按无法识别的规则处理
+                        return null;
+                    default:
+                        // BYHOUR、BYMINUTE 等按天展开用不到的规则忽略
+                        break;
+                }
+            }
+        } catch (RuntimeException e) {
+            return null;
+        }
+
+        if (freq < 0) {
+            return null;
+        }
+        return new RecurrenceRule(freq, interval, count, until, byDayWeekday, byDayOrdinal,
+                byMonthDay, byMonthMask, bySetPos, weekStart);
+    }
+
+    /**
+     * @return 重复频率：DAILY、WEEKLY、MONTHLY 或 YEARLY
+     */
+    public int getFreq() {
+        return freq;
+    }
+
+    /**
+     * @return 规则是否有尽头（设置了 COUNT 或 UNTIL）
+     */
+    public boolean isBounded() {
+        return count > 0 || until != Long.MAX_VALUE;
+    }
+
+    /**
+     * 惰性展开开始时间落在 [from, to) 内的重复实例
+     * DTSTART 本身总是第一个实例（与 RFC 5545 中 COUNT 的计数方式一致）
+     * @param dtStart 首个实例的开始时间
+     * @param from 窗口开始时间（包含）
+     * @param to 窗口结束时间（不包含）
+     * @return 按时间升序的实例开始时间迭代器
+     */
+    public Occurrences occurrences(long dtStart, long from, long to) {
+        return new Occurrences(this, dtStart, from, to, TimeZone.getDefault());
+    }
+
+    /**
+     * 在指定时区下展开重复实例，其余同 {@link #occurrences(long, long, long)}
+     * @param zone 计算日期和时分秒所用的时区
+     */
+    public Occurrences occurrences(long dtStart, long from, long to, TimeZone zone) {
+        return new Occurrences(this, dtStart, from, to, zone);
+    }
+
+    /**
+     * // 功能：重复实例开始时间的惰性迭代器，只返回基本类型long，不为每个实例创建对象
+     * 不是线程安全的，每次展开创建一个
+     */
+    public static final class Occurrences {
+        private final RecurrenceRule rule;
+        private final long dtStart;
+        private final long from;
+        private final long to;
+        private final long limit; // min(to - 1, until)
+        private final Calendar calendar;
+        private final int hour, minute, second, millis;
+        private final int startDay; // DTSTART 所在的本地纪元日
+        private final int startWeekday;
+        private final int startMonthDay;
+        private final int startMonth;
+        private final int lastDay; // 超过这一天的周期不可能再有实例
+
+        private final int[] days = new int[366];
+        private int[] setPosBuffer;
+        private int size;
+        private int pos;
+        private long period; // 距离首个周期的周期数（已乘以INTERVAL之前）
+        private int emitted; // 已经产生的实例数，用于COUNT
+        private boolean startPending;
+        private boolean done;
+        private long nextValue;
+        private boolean hasNextValue;
+
+        private Occurrences(RecurrenceRule rule, long dtStart, long from, long to, TimeZone zone) {
+            this.rule = rule;
+            this.dtStart = dtStart;
+            this.from = from;
+            this.to = to;
+            this.limit = Math.min(to - 1, rule.until);
+
+            calendar = Calendar.getInstance(zone);
+            calendar.setTimeInMillis(dtStart);
+            hour = calendar.get(Calendar.HOUR_OF_DAY);
+            minute = calendar.get(Calendar.MINUTE);
+            second = calendar.get(Calendar.SECOND);
+            millis = calendar.get(Calendar.MILLISECOND);
+            startMonth = calendar.get(Calendar.MONTH) + 1;
+            startMonthDay = calendar.get(Calendar.DAY_OF_MONTH);
+            startDay = daysFromCivil(calendar.get(Calendar.YEAR), startMonth, startMonthDay);
+            startWeekday = weekday(startDay);
+
+            // 本地时区的偏移不超过一天，多留一天余量
+            long lastDayLong = Math.floorDiv(limit, DAY_MILLIS) + 1;
+            lastDay = (int) Math.min(lastDayLong, MAX_EPOCH_DAY);
+
+            startPending = true;
+            done = limit < dtStart || to <= from;
+
+            // 没有COUNT时不需要从头数起，直接跳到窗口所在的周期
+            if (!done && rule.count == 0 && from > dtStart) {
+                long fromDay = Math.floorDiv(from, DAY_MILLIS) - 1;
+                period = Math.max(0, periodOf(fromDay));
+            }
+        }
+
+        /**
+         * @return 是否还有实例
+         */
+        public boolean hasNext() {
+            if (!hasNextValue && !done) {
+                advance();
+            }
+            return hasNextValue;
+        }
+
+        /**
+         * @return 下一个实例的开始时间
+         * @throws java.util.NoSuchElementException 没有更多实例
+         */
+        public long next() {
+            if (!hasNext()) {
+                throw new java.util.NoSuchElementException();
+            }
+            hasNextValue = false;
+            return nextValue;
+        }
+
+        private void advance() {
+            if (startPending) {
+                startPending = false;
+                emitted = 1;
+                if (dtStart >= from) {
+                    deliver(dtStart);
+                    return;
+                }
+            }
+
+            while (true) {
+                if (pos < size) {
+                    long candidate = toMillis(days[pos++]);
+                    if (candidate <= dtStart) {
+                        continue; // DTSTART 已经作为第一个实例
+                    }
+                    if (candidate > limit) {
+                        done = true;
+                        return;
+                    }
+                    if (rule.count > 0 && ++emitted > rule.count) {
+                        done = true;
+                        return;
+                    }
+                    if (candidate >= from) {
+                        deliver(candidate);
+                        return;
+                    }
+                } else if (!fillPeriod()) {
+                    done = true;
+                    return;
+                }
+            }
+        }
+
+        private void deliver(long value) {
+            if (value > limit || (rule.count > 0 && emitted > rule.count)) {
+                done = true;
+                return;
+            }
+            nextValue = value;
+            hasNextValue = true;
+        }
+
+        /**
+         * 计算某一天所在的周期序号（相对于DTSTART所在周期）
+         */
+        private long periodOf(long day) {
+            switch (rule.freq) {
+                case DAILY:
+                    return Math.floorDiv(day - startDay, rule.interval);
+                case WEEKLY:
+                    return Math.floorDiv(day - firstWeekStart(), 7L * rule.interval);
+                case MONTHLY: {
+                    int ymd = civilFromDays((int) day);
+                    long months = (ymd / 10000 - yearOf(startDay)) * 12L + (ymd / 100 % 100 - startMonth);
+                    return Math.floorDiv(months, rule.interval);
+                }
+                default: {
+                    int years = civilFromDays((int) day) / 10000 - yearOf(startDay);
+                    return Math.floorDiv(years, rule.interval);
+                }
+            }
+        }
+
+        private int firstWeekStart() {
+            return startDay - ((startWeekday - rule.weekStart + 7) % 7);
+        }
+
+        /**
+         * 生成下一个周期的候选日期，放入 days[0, size)
+         * @return 周期是否仍在窗口之内
+         */
+        private boolean fillPeriod() {
+            size = 0;
+            pos = 0;
+            long step = period++ * rule.interval;
+            switch (rule.freq) {
+                case DAILY: {
+                    long day = startDay + step;
+                    if (day > lastDay) {
+                        return false;
+                    }
+                    int ymd = civilFromDays((int) day);
+                    if (matchesMonth(ymd / 100 % 100)
+                            && matchesDailyFilters((int) day, ymd)) {
+                        days[size++] = (int) day;
+                    }
+                    return true;
+                }
+                case WEEKLY: {
+                    long weekStartDay = firstWeekStart() + step * 7;
+                    if (weekStartDay > lastDay) {
+                        return false;
+                    }
+                    for (int i = 0; i < 7; i++) {
+                        int day = (int) weekStartDay + i;
+                        int weekday = weekday(day);
+                        boolean match = rule.byDayWeekday.length == 0
+                                ? weekday == startWeekday
+                                : containsWeekday(weekday);
+                        if (match && matchesMonth(civilFromDays(day) / 100 % 100)) {
+                            days[size++] = day;
+                        }
+                    }
+                    break;
+                }
+                case MONTHLY: {
+                    long monthIndex = (yearOf(startDay) * 12L + startMonth - 1) + step;
+                    int year = (int) Math.floorDiv(monthIndex, 12);
+                    int month = Math.floorMod(monthIndex, 12) + 1;
+                    if (daysFromCivil(year, month, 1) > lastDay) {
+                        return false;
+                    }
+                    if (matchesMonth(month)) {
+                        expandMonth(year, month);
+                    }
+                    break;
+                }
+                default: {
+                    int year = (int) (yearOf(startDay) + step);
+                    if (daysFromCivil(year, 1, 1) > lastDay) {
+                        return false;
+                    }
+                    expandYear(year);
+                    break;
+                }
+            }
+            applySetPos();
+            return true;
+        }
+
+        /**
+         * DAILY 频率下 BYDAY、BYMONTHDAY 只起过滤作用
+         */
+        private boolean matchesDailyFilters(int day, int ymd) {
+            if (rule.byDayWeekday.length > 0 && !containsWeekday(weekday(day))) {
+                return false;
+            }
+            if (rule.byMonthDay.length > 0) {
+                int year = ymd / 10000;
+                int month = ymd / 100 % 100;
+                return matchesMonthDay(ymd % 100, daysInMonth(year, month));
+            }
+            return true;
+        }
+
+        /**
+         * 在一个月内展开：BYDAY 的序号以月为范围
+         */
+        private void expandMonth(int year, int month) {
+            int firstDay = daysFromCivil(year, month, 1);
+            int length = daysInMonth(year, month);
+            boolean hasByDay = rule.byDayWeekday.length > 0;
+            boolean hasByMonthDay = rule.byMonthDay.length > 0;
+            for (int d = 1; d <= length; d++) {
+                int day = firstDay + d - 1;
+                boolean match;
+                if (!hasByDay && !hasByMonthDay) {
+                    match = d == startMonthDay;
+                } else {
+                    match = (!hasByMonthDay || matchesMonthDay(d, length))
+                            && (!hasByDay || matchesByDay(weekday(day), (d - 1) / 7 + 1, -((length - d) / 7 + 1)));
+                }
+                if (match) {
+                    days[size++] = day;
+                }
+            }
+        }
+
+        /**
+         * 在一年内展开：有 BYMONTH 时逐月展开，否则 BYDAY 的序号以年为范围
+         */
+        private void expandYear(int year) {
+            boolean hasByDay = rule.byDayWeekday.length > 0;
+            boolean hasByMonthDay = rule.byMonthDay.length > 0;
+            if (rule.byMonthMask != 0) {
+                for (int month = 1; month <= 12; month++) {
+                    if ((rule.byMonthMask & (1 << month)) != 0) {
+                        expandMonth(year, month);
+                    }
+                }
+                return;
+            }
+            if (!hasByDay && !hasByMonthDay) {
+                // 默认取DTSTART的月和日，如2月29日只在闰年出现
+                if (startMonthDay <= daysInMonth(year, startMonth)) {
+                    days[size++] = daysFromCivil(year, startMonth, startMonthDay);
+                }
+                return;
+            }
+            if (!hasByDay) {
+                for (int month = 1; month <= 12; month++) {
+                    expandMonth(year, month);
+                }
+                return;
+            }
+            int firstDay = daysFromCivil(year, 1, 1);
+            int length = daysFromCivil(year + 1, 1, 1) - firstDay;
+            for (int i = 0; i < length; i++) {
+                int day = firstDay + i;
+                if (!matchesByDay(weekday(day), i / 7 + 1, -((length - 1 - i) / 7 + 1))) {
+                    continue;
+                }
+                if (hasByMonthDay) {
+                    int ymd = civilFromDays(day);
+                    if (!matchesMonthDay(ymd % 100, daysInMonth(year, ymd / 100 % 100))) {
+                        continue;
+                    }
+                }
+                days[size++] = day;
+            }
+        }
+
+        /**
+         * BYSETPOS：从每个周期的候选集合中按位置挑选
+         */
+        private void applySetPos() {
+            if (rule.bySetPos.length == 0 || size == 0) {
+                return;
+            }
+            if (setPosBuffer == null) {
+                setPosBuffer = new int[days.length];
+            }
+            int selected = 0;
+            for (int i = 0; i < size; i++) {
+                for (int setPos : rule.bySetPos) {
+                    if (setPos == i + 1 || setPos == i - size) {
+                        setPosBuffer[selected++] = days[i];
+                        break;
+                    }
+                }
+            }
+            System.arraycopy(setPosBuffer, 0, days, 0, selected);
+            size = selected;
+        }
+
+        private boolean matchesMonth(int month) {
+            return rule.byMonthMask == 0 || (rule.byMonthMask & (1 << month)) != 0;
+        }
+
+        private boolean containsWeekday(int weekday) {
+            for (int w : rule.byDayWeekday) {
+                if (w == weekday) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean matchesByDay(int weekday, int ordinal, int negativeOrdinal) {
+            for (int i = 0; i < rule.byDayWeekday.length; i++) {
+                if (rule.byDayWeekday[i] != weekday) {
+                    continue;
+                }
+                int expected = rule.byDayOrdinal[i];
+                if (expected == 0 || expected == ordinal || expected == negativeOrdinal) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean matchesMonthDay(int monthDay, int monthLength) {
+            for (int expected : rule.byMonthDay) {
+                if (expected == monthDay || (expected < 0 && monthLength + expected + 1 == monthDay)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 本地日期 + DTSTART 的时分秒 -> 时间戳
+         */
+        private long toMillis(int epochDay) {
+            int ymd = civilFromDays(epochDay);
+            calendar.clear();
+            calendar.set(ymd / 10000, ymd / 100 % 100 - 1, ymd % 100, hour, minute, second);
+            calendar.set(Calendar.MILLISECOND, millis);
+            return calendar.getTimeInMillis();
+        }
+    }
+
+    private static int parseFreq(String value) {
+        switch (value) {
+            case "DAILY": return DAILY;
+            case "WEEKLY": return WEEKLY;
+            case "MONTHLY": return MONTHLY;
+            case "YEARLY": return YEARLY;
+            default: return -1;
+        }
+    }
+
+    private static int parseWeekday(String value) {
+        switch (value) {
+            case "MO": return 1;
+            case "TU": return 2;
+            case "WE": return 3;
+            case "TH": return 4;
+            case "FR": return 5;
+            case "SA": return 6;
+            case "SU": return 7;
+            default: return 0;
+        }
+    }
+
+    private static int[] parseIntList(String value) {
+        String[] parts = value.split(",");
+        int[] result = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Integer.parseInt(parts[i].trim().replace("+", ""));
+        }
+        return result;
+    }
+
+    /**
+     * 解析 UNTIL：yyyyMMdd'T'HHmmss'Z' 为UTC时间，不带Z为本地时间，
+     * 只有日期时包含当天全天
+     */
+    private static long parseUntil(String value) {
+        Calendar calendar = value.endsWith("Z")
+                ? Calendar.getInstance(TimeZone.getTimeZone("UTC"))
+                : Calendar.getInstance();
+        calendar.clear();
+        int year = Integer.parseInt(value.substring(0, 4));
+        int month = Integer.parseInt(value.substring(4, 6)) - 1;
+        int day = Integer.parseInt(value.substring(6, 8));
+        if (value.length() >= 15 && value.charAt(8) == 'T') {
+            calendar.set(year, month, day,
+                    Integer.parseInt(value.substring(9, 11)),
+                    Integer.parseInt(value.substring(11, 13)),
+                    Integer.parseInt(value.substring(13, 15)));
+            return calendar.getTimeInMillis();
+        }
+        calendar.set(year, month, day);
+        calendar.add(Calendar.DAY_OF_MONTH, 1);
+        return calendar.getTimeInMillis() - 1;
+    }
+
+    // ---------- 纪元日计算（公历），不分配对象 ----------
+
+    /**
+     * 年月日 -> 距1970-01-01的天数
+     */
+    static int daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yoe = y - era * 400;
+        int doy = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+
+    /**
+     * 距1970-01-01的天数 -> 打包的 yyyyMMdd 整数
+     */
+    static int civilFromDays(int epochDay) {
+        int z = epochDay + 719468;
+        int era = Math.floorDiv(z, 146097);
+        int doe = z - era * 146097;
+        int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        int mp = (5 * doy + 2) / 153;
+        int day = doy - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 10000 + month * 100 + day;
+    }
+
+    /**
+     * @return ISO星期：1=周一 ... 7=周日（1970-01-01是周四）
+     */
+    static int weekday(int epochDay) {
+        return Math.floorMod(epochDay + 3, 7) + 1;
+    }
+
+    static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4: case 6: case 9: case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static int yearOf(int epochDay) {
+        return civilFromDays(epochDay) / 10000;
+    }
+}
@@ -2,158 +2,106 @@ package com.example.calendar.utils;
 
 import com.example.calendar.model.Event;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 
 /**
  * // 功能：重复规则工具类，处理重复日程的相关计算
  */
 public class RecurrenceUtils {
-    
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyyMMdd", Locale.getDefault());
-    
+
+    // 编译后的规则缓存上限，同一条规则字符串只解析一次
+    private static final int RULE_CACHE_SIZE = 64;
+
+    private static final Map<String, RecurrenceRule> RULE_CACHE =
+            new LinkedHashMap<String, RecurrenceRule>(RULE_CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, RecurrenceRule> eldest) {
+                    return size() > RULE_CACHE_SIZE;
+                }
+            };
+
     /**
-     * 计算重复事件在未来30天内的所有实例
-     * @param event 原始事件
-     * @param days 未来天数
-     * @return 重复事件实例列表
+     * 获取编译后的重复规则（带缓存）
+     * @param rrule 重复规则字符串
+     * @return 编译后的规则，不重复或无法识别时返回null
      */
-    public static List<Event> getRecurrenceInstances(Event event, int days) {
-        List<Event> instances = new ArrayList<>();
-        
-        if (event.getRrule() == null || event.getRrule().isEmpty()) {
-            instances.add(event);
-            return instances;
+    public static RecurrenceRule compile(String rrule) {
+        if (rrule == null || rrule.isEmpty()) {
+            return null;
         }
-        
-        // 解析重复规则
-        String rrule = event.getRrule();
-        if (rrule.contains("FREQ=DAILY")) {
-            return getDailyRecurrences(event, days);
-        } else if (rrule.contains("FREQ=WEEKLY")) {
-            return getWeeklyRecurrences(event, days);
-        } else if (rrule.contains("FREQ=MONTHLY")) {
-            return getMonthlyRecurrences(event, days);
-        } else if (rrule.contains("FREQ=YEARLY")) {
-            return getYearlyRecurrences(event, days);
+        synchronized (RULE_CACHE) {
+            RecurrenceRule rule = RULE_CACHE.get(rrule);
+            if (rule == null) {
+                rule = RecurrenceRule.parse(rrule);
+                if (rule != null) {
+                    RULE_CACHE.put(rrule, rule);
+                }
+            }
+            return rule;
         }
-        
-        // 如果无法识别规则，只返回原始事件
-        instances.add(event);
-        return instances;
     }
-    
+
     /**
-     * 获取每日重复事件实例
-     * @param event 原始事件
-     * @param days 未来天数
-     * @return 重复事件实例列表
+     * 判断事件是否是可展开的重复事件
+     * @param event 事件
+     * @return 是否重复
      */
-    private static List<Event> getDailyRecurrences(Event event, int days) {
-        List<Event> instances = new ArrayList<>();
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTimeInMillis(event.getStartTime());
-        
-        long duration = event.getEndTime() - event.getStartTime();
-        
-        for (int i = 0; i < days; i++) {
-            Event instance = cloneEvent(event);
-            instance.setStartTime(calendar.getTimeInMillis());
-            instance.setEndTime(calendar.getTimeInMillis() + duration);
-            instances.add(instance);
-            
-            calendar.add(Calendar.DAY_OF_MONTH, 1);
-        }
-        
-        return instances;
+    public static boolean isRecurring(Event event) {
+        return compile(event.getRrule()) != null;
     }
-    
+
     /**
-     * 获取每周重复事件实例
+     * 惰性展开与时间窗口 [from, to) 有交集的重复实例
+     * 返回的是实例开始时间，结束时间为开始时间加上原事件的时长
      * @param event 原始事件
-     * @param days 未来天数
-     * @return 重复事件实例列表
+     * @param from 窗口开始时间（包含）
+     * @param to 窗口结束时间（不包含）
+     * @return 实例开始时间迭代器；不重复的事件返回null
      */
-    private static List<Event> getWeeklyRecurrences(Event event, int days) {
-        List<Event> instances = new ArrayList<>();
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTimeInMillis(event.getStartTime());
-        
-        long duration = event.getEndTime() - event.getStartTime();
-        
-        for (int i = 0; i < days; i += 7) {
-            Event instance = cloneEvent(event);
-            instance.setStartTime(calendar.getTimeInMillis());
-            instance.setEndTime(calendar.getTimeInMillis() + duration);
-            instances.add(instance);
-            
-            calendar.add(Calendar.WEEK_OF_YEAR, 1);
+    public static RecurrenceRule.Occurrences occurrences(Event event, long from, long to) {
+        RecurrenceRule rule = compile(event.getRrule());
+        if (rule == null) {
+            return null;
         }
-        
-        return instances;
-    }
-    
-    /**
-     * 获取每月重复事件实例
-     * @param event 原始事件
-     * @param days 未来天数
-     * @return 重复事件实例列表
-     */
-    private static List<Event> getMonthlyRecurrences(Event event, int days) {
-        List<Event> instances = new ArrayList<>();
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTimeInMillis(event.getStartTime());
-        
+        // 开始于窗口之前、但持续到窗口之内的实例也算
         long duration = event.getEndTime() - event.getStartTime();
-        
-        // 计算大约几个月
-        int months = days / 30;
-        
-        for (int i = 0; i <= months; i++) {
-            Event instance = cloneEvent(event);
-            instance.setStartTime(calendar.getTimeInMillis());
-            instance.setEndTime(calendar.getTimeInMillis() + duration);
-            instances.add(instance);
-            
-            calendar.add(Calendar.MONTH, 1);
-        }
-        
-        return instances;
+        long startFrom = duration > 0 ? from - duration + 1 : from;
+        return rule.occurrences(event.getStartTime(), startFrom, to);
     }
-    
+
     /**
-     * 获取每年重复事件实例
+     * 获取与时间窗口 [from, to) 有交集的事件实例
+     * 不重复的事件只在与窗口有交集时返回自身
      * @param event 原始事件
-     * @param days 未来天数
-     * @return 重复事件实例列表
+     * @param from 窗口开始时间（包含）
+     * @param to 窗口结束时间（不包含）
+     * @return 事件实例列表
      */
-    private static List<Event> getYearlyRecurrences(Event event, int days) {
+    public static List<Event> getRecurrenceInstances(Event event, long from, long to) {
         List<Event> instances = new ArrayList<>();
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTimeInMillis(event.getStartTime());
-        
+        RecurrenceRule.Occurrences occurrences = occurrences(event, from, to);
+
+        if (occurrences == null) {
+            if (event.getStartTime() < to && event.getEndTime() > from) {
+                instances.add(event);
+            }
+            return instances;
+        }
+
         long duration = event.getEndTime() - event.getStartTime();
-        
-        // 计算大约几年
-        int years = days / 365;
-        
-        for (int i = 0; i <= years; i++) {
+        while (occurrences.hasNext()) {
+            long start = occurrences.next();
             Event instance = cloneEvent(event);
-            instance.setStartTime(calendar.getTimeInMillis());
-            instance.setEndTime(calendar.getTimeInMillis() + duration);
+            instance.setStartTime(start);
+            instance.setEndTime(start + duration);
             instances.add(instance);
-            
-            calendar.add(Calendar.YEAR, 1);
         }
-        
         return instances;
     }
-    
+
     /**
      * 克隆事件对象
      * @param event 原始事件
@@ -161,6 +109,7 @@ public class RecurrenceUtils {
      */
     private static Event cloneEvent(Event event) {
         Event cloned = new Event();
+        cloned.setId(event.getId());
         cloned.setTitle(event.getTitle());
         cloned.setDescription(event.getDescription());
         cloned.setLocation(event.getLocation());
@@ -168,6 +117,8 @@ public class RecurrenceUtils {
         cloned.setRrule(event.getRrule());
         cloned.setLunar(event.isLunar());
         cloned.setLunarDate(event.getLunarDate());
+        cloned.setSubscriptionId(event.getSubscriptionId());
+        cloned.setUid(event.getUid());
         return cloned;
     }
-}
\ No newline at end of file
+}
@@ -13,28 +13,44 @@ import androidx.core.app.NotificationCompat;
 
 import com.example.calendar.EventDetailsActivity;
 import com.example.calendar.R;
+import com.example.calendar.database.AppDatabase;
+import com.example.calendar.database.EventDao;
+import com.example.calendar.database.ReminderTarget;
 import com.example.calendar.receiver.ReminderReceiver;
 import com.example.calendar.model.Event;
+import com.example.calendar.model.QueuedReminder;
 import com.example.calendar.model.Reminder;
 
-import java.util.Calendar;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * // 功能：提醒管理类，负责注册和取消提醒任务
+ * 待触发的提醒保存在 reminder_queue 表中，系统里只注册一个指向最早一条的闹钟
  */
 public class ReminderManager {
     
     private static final String CHANNEL_ID = "calendar_reminder_channel";
     private static final String CHANNEL_NAME = "日程提醒";
     private static final String CHANNEL_DESCRIPTION = "日程提醒通知";
+    private static final String TAG = "ReminderManager";
+    
+    // 提醒闹钟的广播动作和固定请求码
+    public static final String ACTION_FIRE_REMINDERS = "com.example.calendar.action.FIRE_REMINDERS";
+    private static final int ALARM_REQUEST_CODE = 0;
+    // 重复事件向后寻找下一个实例的范围（覆盖每四年一次的2月29日）
+    private static final long SEARCH_WINDOW = 8L * 366 * 24 * 60 * 60 * 1000;
+    // 恢复提醒时每页读取的条数
+    private static final int RESTORE_PAGE_SIZE = 500;
     
     private Context context;
+    private EventDao eventDao;
     private AlarmManager alarmManager;
     private NotificationManager notificationManager;
     
     public ReminderManager(Context context) {
         this.context = context;
+        eventDao = AppDatabase.getDatabase(context).eventDao();
         alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
         notificationManager = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
         createNotificationChannel();
@@ -56,98 +72,200 @@ public class ReminderManager {
     
     /**
      * 为事件设置提醒
+     * 每个提醒只计算下一次触发时间写入提醒队列，然后按队列中最早的一条重新设置闹钟。
+     * 需要访问数据库，不能在主线程调用
      * @param event 事件对象
      * @param reminders 提醒列表
      */
     public void scheduleReminders(Event event, List<Reminder> reminders) {
-
-
-        // 取消之前的提醒
-        cancelReminders(event.getId());
-        
-        // 如果没有提醒，则直接返回
-        if (reminders == null || reminders.isEmpty()) {
-            return;
-        }
-        
-        // 获取重复事件的所有实例（未来30天内）
-        List<Event> events = RecurrenceUtils.getRecurrenceInstances(event, 30);
-        
-        // 为每个事件实例设置提醒
-        for (Event e : events) {
-            // 为每个提醒设置闹钟
+        long now = System.currentTimeMillis();
+        List<QueuedReminder> entries = new ArrayList<>();
+        if (reminders != null) {
             for (Reminder reminder : reminders) {
-                scheduleReminder(e, reminder);
+                QueuedReminder entry = nextQueuedReminder(event, reminder, now);
+                if (entry != null) {
+                    entries.add(entry);
+                }
             }
         }
+        
+        // 替换事件原有的队列项（没有提醒时即为清空）
+        eventDao.replaceQueuedReminders(event.getId(), entries);
+        rearm();
     }
-
-
     
     /**
-     * 为单个提醒设置闹钟
+     * 计算提醒在某一时刻之后的下一次触发
      * @param event 事件对象
      * @param reminder 提醒对象
+     * @param after 触发时间必须晚于该时刻
+     * @return 队列项，没有下一次时返回null
      */
-    private void scheduleReminder(Event event, Reminder reminder) {
-        // 计算触发时间
-        long triggerTime = event.getStartTime() - reminder.getMinutes() * 60 * 1000L;
-
-        // 防止溢出或已经过去
-        if (triggerTime <= System.currentTimeMillis()) {
-            Log.d("ReminderManager", "提醒时间已过或计算错误: eventId=" + event.getId() + ", triggerTime=" + triggerTime);
-            return;
-        }
-
-        // 设置 AlarmManager
-        Intent intent = new Intent(context, ReminderReceiver.class);
-        intent.putExtra("event_id", event.getId());
-        intent.putExtra("event_title", event.getTitle());
-        intent.putExtra("event_time", event.getStartTime());
-        intent.putExtra("event_location", event.getLocation());
-
-        int requestCode = (int) (event.getId() * 100000 + reminder.getId());
-
-        PendingIntent pendingIntent = PendingIntent.getBroadcast(
-                context,
-                requestCode,
-                intent,
-                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
-        );
-
-        Log.d("ReminderManager", "设置闹钟: eventId=" + event.getId() +
-                ", reminderId=" + reminder.getId() +
-                ", triggerTime=" + triggerTime);
-
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-            alarmManager.setExactAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, triggerTime, pendingIntent);
+    private QueuedReminder nextQueuedReminder(Event event, Reminder reminder, long after) {
+        return nextQueuedReminder(reminder.getId(), reminder.getMinutes(),
+                event.getId(), event.getStartTime(), event.getRrule(), after);
+    }
+    
+    /**
+     * 计算提醒在某一时刻之后的下一次触发
+     * @param reminderId 提醒ID
+     * @param minutes 提前提醒分钟数
+     * @param eventId 事件ID
+     * @param eventStart 事件（第一个实例）的开始时间
+     * @param rrule 重复规则
+     * @param after 触发时间必须晚于该时刻
+     * @return 队列项，没有下一次时返回null
+     */
+    private QueuedReminder nextQueuedReminder(long reminderId, int minutes, long eventId,
+                                              long eventStart, String rrule, long after) {
+        long leadTime = minutes * 60 * 1000L;
+        long occurrenceStart;
+        
+        RecurrenceRule rule = RecurrenceUtils.compile(rrule);
+        if (rule == null) {
+            occurrenceStart = eventStart;
         } else {
-            alarmManager.setExact(AlarmManager.RTC_WAKEUP, triggerTime, pendingIntent);
+            // 只需要触发时间还没过去的下一个实例
+            RecurrenceRule.Occurrences occurrences = rule.occurrences(eventStart,
+                    after + leadTime + 1, after + leadTime + SEARCH_WINDOW);
+            if (!occurrences.hasNext()) {
+                return null;
+            }
+            occurrenceStart = occurrences.next();
+        }
+        
+        long triggerTime = occurrenceStart - leadTime;
+        if (triggerTime <= after) {
+            Log.d(TAG, "提醒时间已过: eventId=" + eventId + ", triggerTime=" + triggerTime);
+            return null;
+        }
+        return new QueuedReminder(reminderId, eventId, occurrenceStart, triggerTime);
+    }
+    
+    /**
+     * 根据数据库中的全部提醒重建提醒队列并设置闹钟（开机或应用更新后系统闹钟已被清除）
+     * 按提醒ID分页读取，每页批量写入，内存占用与提醒总数无关。
+     * 关机期间错过的提醒不再补发。需要访问数据库，不能在主线程调用
+     * @return 写入队列的提醒数
+     */
+    public int restoreAllReminders() {
+        long now = System.currentTimeMillis();
+        eventDao.clearQueuedReminders();
+        
+        int restored = 0;
+        long afterId = 0;
+        List<QueuedReminder> entries = new ArrayList<>(RESTORE_PAGE_SIZE);
+        while (true) {
+            List<ReminderTarget> page = eventDao.getReminderTargetsAfter(afterId, now, RESTORE_PAGE_SIZE);
+            if (page.isEmpty()) {
+                break;
+            }
+            
+            entries.clear();
+            for (ReminderTarget target : page) {
+                QueuedReminder entry = nextQueuedReminder(target.reminderId, target.minutes,
+                        target.eventId, target.startTime, target.rrule, now);
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            }
+            if (!entries.isEmpty()) {
+                eventDao.insertQueuedReminders(entries);
+                restored += entries.size();
+            }
+            
+            afterId = page.get(page.size() - 1).reminderId;
+            if (page.size() < RESTORE_PAGE_SIZE) {
+                break;
+            }
         }
+        
+        rearm();
+        return restored;
     }
 
     /**
      * 取消事件的所有提醒
+     * 需要访问数据库，不能在主线程调用
      * @param eventId 事件ID
      */
     public void cancelReminders(long eventId) {
-        // 这里需要知道所有相关的reminder IDs才能取消
-        // 在实际实现中，可以从数据库查询所有相关的reminder
-        // 为了简化，我们假设requestCode是基于eventId的
-        Intent intent = new Intent(context, ReminderReceiver.class);
-        for (int i = 0; i < 1000; i++) { // 假设最多有1000个提醒
-            int requestCode = (int) (eventId * 1000 + i);
-            PendingIntent pendingIntent = PendingIntent.getBroadcast(
-                    context,
-                    requestCode,
-                    intent,
-                    PendingIntent.FLAG_NO_CREATE | PendingIntent.FLAG_IMMUTABLE);
+        eventDao.deleteQueuedRemindersByEventId(eventId);
+        rearm();
+    }
+    
+    /**
+     * 处理闹钟触发：为所有已到期的提醒显示通知，
+     * 重复事件的提醒推进到下一次，其余的从队列中删除，最后重新设置闹钟
+     */
+    public void fireDueReminders() {
+        long now = System.currentTimeMillis();
+        List<QueuedReminder> due = eventDao.getDueQueuedReminders(now);
+        
+        List<Long> finishedIds = new ArrayList<>();
+        List<QueuedReminder> nextEntries = new ArrayList<>();
+        for (QueuedReminder entry : due) {
+            Event event = eventDao.getEventById(entry.getEventId());
+            Reminder reminder = eventDao.getReminderById(entry.getReminderId());
+            // 提醒已被删除的队列项直接丢弃
+            if (event == null || reminder == null) {
+                finishedIds.add(entry.getReminderId());
+                continue;
+            }
             
-            if (pendingIntent != null) {
-                alarmManager.cancel(pendingIntent);
-                pendingIntent.cancel();
+            showReminderNotification(event.getId(), event.getTitle(),
+                    entry.getOccurrenceStart(), event.getLocation());
+            
+            QueuedReminder next = nextQueuedReminder(event, reminder, now);
+            if (next != null) {
+                nextEntries.add(next);
+            } else {
+                finishedIds.add(entry.getReminderId());
             }
         }
+        
+        if (!due.isEmpty()) {
+            eventDao.advanceQueuedReminders(finishedIds, nextEntries);
+        }
+        rearm();
+    }
+    
+    /**
+     * 按提醒队列中最早的一条设置闹钟，队列为空时取消闹钟
+     * 整个应用只使用这一个闹钟
+     */
+    public void rearm() {
+        QueuedReminder head = eventDao.getNextQueuedReminder();
+        PendingIntent pendingIntent = getAlarmIntent();
+        if (head == null) {
+            alarmManager.cancel(pendingIntent);
+            return;
+        }
+        
+        long triggerTime = head.getTriggerTime();
+        Log.d(TAG, "设置闹钟: eventId=" + head.getEventId() +
+                ", reminderId=" + head.getReminderId() +
+                ", triggerTime=" + triggerTime);
+        
+        // Android 12 起精确闹钟需要用户授权，未授权时退回到非精确闹钟
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S && !alarmManager.canScheduleExactAlarms()) {
+            alarmManager.setAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, triggerTime, pendingIntent);
+        } else {
+            alarmManager.setExactAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, triggerTime, pendingIntent);
+        }
+    }
+    
+    /**
+     * @return 提醒闹钟的 PendingIntent，请求码固定，重复设置会替换上一次的闹钟
+     */
+    private PendingIntent getAlarmIntent() {
+        Intent intent = new Intent(context, ReminderReceiver.class);
+        intent.setAction(ACTION_FIRE_REMINDERS);
+        return PendingIntent.getBroadcast(
+                context,
+                ALARM_REQUEST_CODE,
+                intent,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
     }
     
     /**
@@ -0,0 +1,89 @@
+package com.example.calendar.utils;
+
+import java.io.Closeable;
+
+import okhttp3.Call;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * // 功能：订阅日历下载结果，区分"内容未变化(304)"与"新内容"两种情况
+ * 调用方负责关闭，关闭时释放底层响应体
+ * 响应体只能在一个线程中读取和关闭；其他线程要中断读取时调用 {@link #cancel()}
+ */
+public class SubscriptionFetch implements Closeable {
+
+    private final boolean notModified;
+    private final Call call;
+    private final ResponseBody body;
+    private final String etag;
+    private final String lastModified;
+
+    private SubscriptionFetch(boolean notModified, Call call, ResponseBody body, String etag, String lastModified) {
+        this.notModified = notModified;
+        this.call = call;
+        this.body = body;
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * 服务器返回304，订阅内容自上次同步后没有变化
+     */
+    static SubscriptionFetch notModified(Response response) {
+        response.close();
+        return new SubscriptionFetch(true, null, null, null, null);
+    }
+
+    /**
+     * 服务器返回了新的订阅内容
+     */
+    static SubscriptionFetch modified(Call call, Response response) {
+        return new SubscriptionFetch(false, call, response.body(),
+                response.header("ETag"), response.header("Last-Modified"));
+    }
+
+    /**
+     * @return 内容是否未变化；为true时没有响应体
+     */
+    public boolean isNotModified() {
+        return notModified;
+    }
+
+    /**
+     * @return 订阅内容响应体，未变化时为null
+     */
+    public ResponseBody getBody() {
+        return body;
+    }
+
+    /**
+     * @return 新内容的ETag，可能为null
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * @return 新内容的Last-Modified，可能为null
+     */
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * 取消下载，正在读取响应体的线程会收到IO异常；可以在任意线程调用
+     */
+    public void cancel() {
+        if (call != null) {
+            call.cancel();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (body != null) {
+            body.close();
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package com.example.calendar.utils;
+
+import com.example.calendar.model.Event;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * // 功能：日/周视图时间轴的事件排版，计算每个事件在一天中的位置、所在列和横向跨越的列数
+ *
+ * 事件按 (开始时间, 结束时间倒序) 排序后扫描一遍：用按结束时间排序的最小堆记录正在进行的事件，
+ * 事件结束时把它的列号放回空闲列的最小堆，新事件总是放进最小的空闲列，排序和扫描都是 O(n log n)。
+ * 正在进行的事件全部结束时一组重叠事件结束，组内所有事件使用相同的列数，
+ * 之后每个事件再向右扩展到相邻的空闲列。
+ * 结果与 Android 无关，可以在后台线程计算，也可以在 JVM 上做基准测试。
+ */
+public final class TimelineLayoutEngine {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    // 很短的事件也至少占这么多分钟，保证标题和点击区域可用
+    public static final int MIN_EVENT_MINUTES = 20;
+
+    // 按天缓存的排版结果，事件没有变化时直接复用（界面也可以复用已经排好的文字）
+    private static final int MAX_CACHED_DAYS = 31;
+    private static final Map<Long, DayLayout> CACHE =
+            new LinkedHashMap<Long, DayLayout>(MAX_CACHED_DAYS, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, DayLayout> eldest) {
+                    return size() > MAX_CACHED_DAYS;
+                }
+            };
+
+    // 排序键中分钟数占的位数（一天不超过 2048 分钟）
+    private static final int MINUTE_BITS = 11;
+    private static final int INDEX_BITS = 31;
+    private static final int MINUTE_MASK = (1 << MINUTE_BITS) - 1;
+
+    private TimelineLayoutEngine() {}
+
+    /**
+     * 获取一天的排版，与上次计算时的事件相同则直接返回缓存的结果
+     * @param events 事件实例，可以包含不在这一天的事件
+     * @param dayStart 当天零点
+     * @param dayEnd 次日零点
+     * @return 当天的排版
+     */
+    public static DayLayout getDayLayout(List<Event> events, long dayStart, long dayEnd) {
+        Event[] dayEvents = eventsInDay(events, dayStart, dayEnd);
+        synchronized (CACHE) {
+            DayLayout cached = CACHE.get(dayStart);
+            if (cached != null && cached.dayEnd == dayEnd && cached.sameInput(dayEvents)) {
+                return cached;
+            }
+        }
+        DayLayout layout = layout(dayEvents, dayStart, dayEnd);
+        synchronized (CACHE) {
+            CACHE.put(dayStart, layout);
+        }
+        return layout;
+    }
+
+    /**
+     * 获取连续几天的排版（使用缓存）
+     * @param events 与这几天有交集的事件实例
+     * @param dayStarts 每天零点，最后一项为最后一天的次日零点
+     * @return 每天的排版，数量比 dayStarts 少一
+     */
+    public static DayLayout[] getDayLayouts(List<Event> events, long[] dayStarts) {
+        DayLayout[] days = new DayLayout[dayStarts.length - 1];
+        for (int d = 0; d < days.length; d++) {
+            days[d] = getDayLayout(events, dayStarts[d], dayStarts[d + 1]);
+        }
+        return days;
+    }
+
+    /**
+     * 计算一天的排版（不使用缓存）
+     * @param events 事件实例，可以包含不在这一天的事件
+     * @param dayStart 当天零点
+     * @param dayEnd 次日零点
+     * @return 当天的排版
+     */
+    public static DayLayout layoutDay(List<Event> events, long dayStart, long dayEnd) {
+        return layout(eventsInDay(events, dayStart, dayEnd), dayStart, dayEnd);
+    }
+
+    /**
+     * 清空缓存的排版
+     */
+    public static void clearCache() {
+        synchronized (CACHE) {
+            CACHE.clear();
+        }
+    }
+
+    private static Event[] eventsInDay(List<Event> events, long dayStart, long dayEnd) {
+        Event[] dayEvents = new Event[events.size()];
+        int count = 0;
+        for (Event event : events) {
+            long start = event.getStartTime();
+            long end = Math.max(event.getEndTime(), start + 1);
+            if (start < dayEnd && end > dayStart) {
+                dayEvents[count++] = event;
+            }
+        }
+        return count == dayEvents.length ? dayEvents : Arrays.copyOf(dayEvents, count);
+    }
+
+    private static DayLayout layout(Event[] input, long dayStart, long dayEnd) {
+        int n = input.length;
+
+        // 1. 裁剪到当天，并按 (开始, 结束倒序, 输入顺序) 排序；打包成 long 排序，不创建比较器和装箱对象
+        int[] inputStart = new int[n];
+        int[] inputEnd = new int[n];
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            long start = Math.max(input[i].getStartTime(), dayStart);
+            long end = Math.min(Math.max(input[i].getEndTime(), input[i].getStartTime() + 1), dayEnd);
+            int startMinute = Math.min((int) ((start - dayStart) / 60000L), MINUTES_PER_DAY - MIN_EVENT_MINUTES);
+            int endMinute = (int) ((end - dayStart + 59999L) / 60000L);
+            endMinute = Math.min(MINUTES_PER_DAY, Math.max(endMinute, startMinute + MIN_EVENT_MINUTES));
+            inputStart[i] = startMinute;
+            inputEnd[i] = endMinute;
+            keys[i] = ((long) startMinute << (MINUTE_BITS + INDEX_BITS))
+                    | ((long) (MINUTE_MASK - endMinute) << INDEX_BITS)
+                    | i;
+        }
+        Arrays.sort(keys);
+
+        DayLayout layout = new DayLayout(input, dayStart, dayEnd, n);
+        for (int i = 0; i < n; i++) {
+            int from = (int) (keys[i] & ((1L << INDEX_BITS) - 1));
+            layout.events[i] = input[from];
+            layout.start[i] = inputStart[from];
+            layout.end[i] = inputEnd[from];
+        }
+
+        // 2. 扫描分列
+        IntHeap active = new IntHeap(n);    // 按结束时间排序的正在进行的事件下标
+        IntHeap freeColumns = new IntHeap(n);
+        int groupStart = 0;
+        int groupColumns = 0;
+        for (int i = 0; i < n; i++) {
+            int start = layout.start[i];
+            while (!active.isEmpty() && layout.end[active.peekValue()] <= start) {
+                freeColumns.push(layout.column[active.peekValue()], layout.column[active.peekValue()]);
+                active.pop();
+            }
+            if (active.isEmpty() && i > groupStart) {
+                // 之前的事件全部结束，上一组完成
+                finishGroup(layout, groupStart, i, groupColumns);
+                groupStart = i;
+                groupColumns = 0;
+                freeColumns.clear();
+            }
+            int column;
+            if (freeColumns.isEmpty()) {
+                column = groupColumns++;
+            } else {
+                column = freeColumns.peekValue();
+                freeColumns.pop();
+            }
+            layout.column[i] = column;
+            active.push(layout.end[i], i);
+        }
+        if (n > groupStart) {
+            finishGroup(layout, groupStart, n, groupColumns);
+        }
+        return layout;
+    }
+
+    /**
+     * 设置一组重叠事件的列数，并计算每个事件向右能扩展到几列
+     */
+    private static void finishGroup(DayLayout layout, int from, int to, int columns) {
+        for (int i = from; i < to; i++) {
+            layout.columns[i] = columns;
+            layout.span[i] = 1;
+        }
+        if (columns == 1) {
+            return;
+        }
+
+        // 按列分桶（桶内保持开始时间顺序），同一列内的事件互不重叠，可以二分查找
+        int size = to - from;
+        int[] bucketStart = new int[columns + 1];
+        for (int i = from; i < to; i++) {
+            bucketStart[layout.column[i] + 1]++;
+        }
+        for (int c = 0; c < columns; c++) {
+            bucketStart[c + 1] += bucketStart[c];
+        }
+        int[] fill = Arrays.copyOf(bucketStart, columns);
+        int[] byColumn = new int[size];
+        for (int i = from; i < to; i++) {
+            byColumn[fill[layout.column[i]]++] = i;
+        }
+
+        for (int i = from; i < to; i++) {
+            int next = layout.column[i] + 1;
+            while (next < columns && !overlapsColumn(layout, byColumn,
+                    bucketStart[next], bucketStart[next + 1], layout.start[i], layout.end[i])) {
+                layout.span[i]++;
+                next++;
+            }
+        }
+    }
+
+    /**
+     * @return 某一列中是否有事件与 [start, end) 重叠
+     */
+    private static boolean overlapsColumn(DayLayout layout, int[] byColumn, int from, int to, int start, int end) {
+        // 找到最后一个开始时间早于 end 的事件，只有它可能与 [start, end) 重叠
+        int low = from;
+        int high = to - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (layout.start[byColumn[mid]] < end) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found >= 0 && layout.end[byColumn[found]] > start;
+    }
+
+    /**
+     * // 功能：一天的排版结果，事件按开始时间排序，不可变
+     */
+    public static final class DayLayout {
+        private final Event[] input;
+        private final long dayStart;
+        private final long dayEnd;
+
+        private final Event[] events;
+        private final int[] start;
+        private final int[] end;
+        private final int[] column;
+        private final int[] columns;
+        private final int[] span;
+
+        DayLayout(Event[] input, long dayStart, long dayEnd, int count) {
+            this.input = input;
+            this.dayStart = dayStart;
+            this.dayEnd = dayEnd;
+            this.events = new Event[count];
+            this.start = new int[count];
+            this.end = new int[count];
+            this.column = new int[count];
+            this.columns = new int[count];
+            this.span = new int[count];
+        }
+
+        /**
+         * @return 当天零点
+         */
+        public long getDayStart() {
+            return dayStart;
+        }
+
+        /**
+         * @return 事件数量
+         */
+        public int getCount() {
+            return events.length;
+        }
+
+        public Event getEvent(int i) {
+            return events[i];
+        }
+
+        /**
+         * @return 开始时间，距当天零点的分钟数
+         */
+        public int getStartMinute(int i) {
+            return start[i];
+        }
+
+        /**
+         * @return 结束时间，距当天零点的分钟数（至少比开始晚 {@link #MIN_EVENT_MINUTES}）
+         */
+        public int getEndMinute(int i) {
+            return end[i];
+        }
+
+        /**
+         * @return 所在列 (从0开始)
+         */
+        public int getColumn(int i) {
+            return column[i];
+        }
+
+        /**
+         * @return 所在重叠组的总列数
+         */
+        public int getColumnCount(int i) {
+            return columns[i];
+        }
+
+        /**
+         * @return 横向占用的列数（向右扩展到没有重叠事件的相邻列）
+         */
+        public int getSpan(int i) {
+            return span[i];
+        }
+
+        /**
+         * @return 输入的事件是否与计算本排版时逐个相同
+         */
+        boolean sameInput(Event[] other) {
+            if (other.length != input.length) {
+                return false;
+            }
+            for (int i = 0; i < other.length; i++) {
+                Event a = input[i];
+                Event b = other[i];
+                if (a.getId() != b.getId()
+                        || a.getStartTime() != b.getStartTime()
+                        || a.getEndTime() != b.getEndTime()
+                        || !Objects.equals(a.getTitle(), b.getTitle())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 按 key 排序的最小堆，每个元素带一个 int 值
+     */
+    private static final class IntHeap {
+        private final int[] keys;
+        private final int[] values;
+        private int size;
+
+        IntHeap(int capacity) {
+            keys = new int[Math.max(1, capacity)];
+            values = new int[Math.max(1, capacity)];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        int peekValue() {
+            return values[0];
+        }
+
+        void push(int key, int value) {
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key) {
+                    break;
+                }
+                keys[i] = keys[parent];
+                values[i] = values[parent];
+                i = parent;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        void pop() {
+            int key = keys[--size];
+            int value = values[size];
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && keys[child + 1] < keys[child]) {
+                    child++;
+                }
+                if (key <= keys[child]) {
+                    break;
+                }
+                keys[i] = keys[child];
+                values[i] = values[child];
+                i = child;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+    }
+}
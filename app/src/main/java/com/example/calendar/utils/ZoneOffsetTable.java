@@ -0,0 +1,150 @@
+package com.example.calendar.utils;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * // 功能：时区的偏移量表，把本地时间（墙上时间）换算成 UTC 毫秒
+ *
+ * 创建时把 1902-2100 年之间的所有偏移变化（夏令时切换、历史改制）展开成有序数组，
+ * 之后每次换算只做一次二分查找，不创建 Calendar/Date 对象。
+ * 夏令时开始时跳过的时间按切换前的偏移换算，结束时重复的时间取后一次（标准时间），
+ * 与 SimpleDateFormat/Calendar 的结果一致。
+ * 系统时区按 ID 全局缓存；ICS 文件中 VTIMEZONE 定义的时区由 {@link #fromTransitions} 生成，只在本次导入中使用。
+ */
+public final class ZoneOffsetTable {
+
+    // 预先展开的年份范围，范围外的时间直接查询 TimeZone（TimeZone 的历史数据从 1901 年底开始）
+    private static final int FIRST_YEAR = 1902;
+    private static final int LAST_YEAR = 2100;
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+
+    private static final ConcurrentHashMap<String, ZoneOffsetTable> CACHE = new ConcurrentHashMap<>();
+
+    private final TimeZone zone; // 范围外的回退查询，自定义时区为null
+    // 第 i 次变化之后开始使用新偏移的本地时间，升序
+    private final long[] wallKeys;
+    // offsets[0] 为第一次变化之前的偏移，offsets[i + 1] 为第 i 次变化之后的偏移
+    private final int[] offsets;
+    private final long rangeStart; // 表覆盖的本地时间范围 [rangeStart, rangeEnd)
+    private final long rangeEnd;
+
+    private ZoneOffsetTable(TimeZone zone, long[] wallKeys, int[] offsets, long rangeStart, long rangeEnd) {
+        this.zone = zone;
+        this.wallKeys = wallKeys;
+        this.offsets = offsets;
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
+    }
+
+    private static ZoneOffsetTable build(TimeZone zone) {
+        long rangeStart = RecurrenceRule.daysFromCivil(FIRST_YEAR, 1, 1) * DAY_MILLIS;
+        long rangeEnd = RecurrenceRule.daysFromCivil(LAST_YEAR + 1, 1, 1) * DAY_MILLIS;
+
+        ZoneRules rules = zone.toZoneId().getRules();
+        long[] keys = new long[64];
+        int[] values = new int[65];
+        int count = 0;
+        Instant instant = Instant.ofEpochMilli(rangeStart - DAY_MILLIS);
+        values[0] = millis(rules.getOffset(instant));
+        ZoneOffsetTransition transition;
+        while ((transition = rules.nextTransition(instant)) != null
+                && transition.getInstant().toEpochMilli() < rangeEnd + DAY_MILLIS) {
+            if (count == keys.length) {
+                keys = Arrays.copyOf(keys, count * 2);
+                values = Arrays.copyOf(values, count * 2 + 1);
+            }
+            int after = millis(transition.getOffsetAfter());
+            keys[count] = transition.getInstant().toEpochMilli() + after;
+            values[count + 1] = after;
+            count++;
+            instant = transition.getInstant();
+        }
+        return new ZoneOffsetTable((TimeZone) zone.clone(), Arrays.copyOf(keys, count),
+                Arrays.copyOf(values, count + 1), rangeStart, rangeEnd);
+    }
+
+    /**
+     * 获取时区的偏移量表（按时区 ID 缓存）
+     * @param zone 时区
+     * @return 偏移量表
+     */
+    public static ZoneOffsetTable forZone(TimeZone zone) {
+        ZoneOffsetTable table = CACHE.get(zone.getID());
+        if (table == null) {
+            table = build(zone);
+            ZoneOffsetTable existing = CACHE.putIfAbsent(zone.getID(), table);
+            if (existing != null) {
+                table = existing;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * 由一组偏移变化生成偏移量表（用于 VTIMEZONE），第一次变化之前和最后一次变化之后的偏移一直延续
+     * @param transitions 变化时刻（UTC 毫秒），升序
+     * @param offsetsBefore 每次变化之前的偏移（毫秒）
+     * @param offsetsAfter 每次变化之后的偏移（毫秒）
+     * @param count 变化次数，至少为1
+     * @return 偏移量表
+     */
+    public static ZoneOffsetTable fromTransitions(long[] transitions, int[] offsetsBefore,
+                                                  int[] offsetsAfter, int count) {
+        long[] keys = new long[count];
+        int[] values = new int[count + 1];
+        values[0] = offsetsBefore[0];
+        for (int i = 0; i < count; i++) {
+            keys[i] = transitions[i] + offsetsAfter[i];
+            values[i + 1] = offsetsAfter[i];
+        }
+        return new ZoneOffsetTable(null, keys, values, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * 本地时间换算成 UTC 毫秒
+     * @param wallMillis 把本地日期时间当作 UTC 计算出的毫秒数
+     * @return UTC 毫秒
+     */
+    public long toUtc(long wallMillis) {
+        if (wallMillis < rangeStart || wallMillis >= rangeEnd) {
+            return toUtcSlow(wallMillis);
+        }
+        // 找到不大于 wallMillis 的变化点个数，即当前生效的偏移下标
+        int low = 0;
+        int high = wallKeys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (wallKeys[mid] <= wallMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return wallMillis - offsets[low];
+    }
+
+    /**
+     * 表范围外：从标准偏移开始，用估算时刻的实际偏移反复修正（历史上偏移可能相差一天以上）
+     */
+    private long toUtcSlow(long wallMillis) {
+        int offset = zone.getRawOffset();
+        for (int i = 0; i < 4; i++) {
+            int actual = zone.getOffset(wallMillis - offset);
+            if (actual == offset) {
+                break;
+            }
+            offset = actual;
+        }
+        return wallMillis - offset;
+    }
+
+    private static int millis(ZoneOffset offset) {
+        return offset.getTotalSeconds() * 1000;
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.calendar.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.example.calendar.database.EventDao;
+import com.example.calendar.database.EventSnapshot;
+import com.example.calendar.model.Subscription;
+import com.example.calendar.utils.NetworkUtils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+
+/**
+ * // 功能：订阅条件下载与同步：ETag/Last-Modified 的保存、304 跳过解析写库、失败时不保存校验值
+ * 使用本地 MockWebServer 和记录调用的 EventDao
+ */
+public class SubscriptionSyncerTest {
+
+    private static final String LAST_MODIFIED = "Mon, 01 Jan 2024 00:00:00 GMT";
+    private static final String ICS = "BEGIN:VCALENDAR\r\n"
+            + "BEGIN:VEVENT\r\nUID:a\r\nSUMMARY:第一个\r\nDTSTART:20240101T090000Z\r\nEND:VEVENT\r\n"
+            + "BEGIN:VEVENT\r\nUID:b\r\nSUMMARY:第二个\r\nDTSTART:20240102T090000Z\r\nEND:VEVENT\r\n"
+            + "END:VCALENDAR\r\n";
+
+    private final List<String> daoCalls = Collections.synchronizedList(new ArrayList<>());
+    private volatile int writtenEvents;
+
+    private MockWebServer server;
+    private ExecutorService downloader;
+    private ExecutorService writer;
+    private SubscriptionSyncer syncer;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        // 不带磁盘缓存，304 由服务器直接返回
+        NetworkUtils.setHttpClient(new OkHttpClient());
+        downloader = Executors.newSingleThreadExecutor();
+        writer = Executors.newSingleThreadExecutor();
+        SyncPipeline pipeline = new SyncPipeline(fakeDao(), () -> { }, downloader, writer, 500);
+        syncer = new SubscriptionSyncer(null, fakeDao(), pipeline);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        NetworkUtils.setHttpClient(null);
+        downloader.shutdownNow();
+        writer.shutdownNow();
+        server.shutdown();
+    }
+
+    @Test
+    public void notModifiedResponseSkipsPipeline() throws Exception {
+        server.enqueue(new MockResponse()
+                .setHeader("ETag", "\"v1\"")
+                .setHeader("Last-Modified", LAST_MODIFIED)
+                .setBody(ICS));
+        server.enqueue(new MockResponse().setResponseCode(304));
+        Subscription subscription = subscription();
+
+        SyncReport first = report();
+        assertTrue(syncer.sync(subscription, first));
+        RecordedRequest initial = server.takeRequest(1, TimeUnit.SECONDS);
+        assertNull(initial.getHeader("If-None-Match"));
+        assertNull(initial.getHeader("If-Modified-Since"));
+        assertEquals("\"v1\"", subscription.getEtag());
+        assertEquals(LAST_MODIFIED, subscription.getLastModified());
+        assertEquals(2, writtenEvents);
+        assertEquals(2, first.getEventCount());
+        assertFalse(first.isNotModified());
+
+        daoCalls.clear();
+        SyncReport second = report();
+        assertTrue(syncer.sync(subscription, second));
+        RecordedRequest conditional = server.takeRequest(1, TimeUnit.SECONDS);
+        assertEquals("\"v1\"", conditional.getHeader("If-None-Match"));
+        assertEquals(LAST_MODIFIED, conditional.getHeader("If-Modified-Since"));
+        assertTrue(second.isNotModified());
+        assertEquals(0, second.getDownloadBytes());
+        // 只更新同步时间，不读取快照、不写入事件
+        assertEquals(Collections.singletonList("updateSubscription"), daoCalls);
+        assertEquals("\"v1\"", subscription.getEtag());
+    }
+
+    @Test
+    public void validatorsNotSavedWhenBodyIsTruncated() throws Exception {
+        server.enqueue(new MockResponse()
+                .setHeader("ETag", "\"v2\"")
+                .setHeader("Last-Modified", LAST_MODIFIED)
+                .setBody(ICS)
+                .setSocketPolicy(SocketPolicy.DISCONNECT_DURING_RESPONSE_BODY));
+        Subscription subscription = subscription();
+        subscription.setEtag("\"v1\"");
+
+        try {
+            syncer.sync(subscription, report());
+            fail("响应体不完整时应抛出IO异常");
+        } catch (IOException expected) {
+            // 下载中断
+        }
+        assertEquals("\"v1\"", subscription.getEtag());
+        assertNull(subscription.getLastModified());
+        assertFalse(daoCalls.contains("updateSubscription"));
+        assertFalse(daoCalls.contains("deleteSubscriptionEvents"));
+    }
+
+    @Test
+    public void validatorsNotSavedOnHttpError() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(500).setHeader("ETag", "\"v2\""));
+        Subscription subscription = subscription();
+        subscription.setEtag("\"v1\"");
+
+        assertFalse(syncer.sync(subscription, report()));
+        assertEquals("\"v1\"", subscription.getEtag());
+        assertTrue(daoCalls.isEmpty());
+    }
+
+    private Subscription subscription() {
+        Subscription subscription = new Subscription("测试", server.url("/calendar.ics").toString(), 0);
+        subscription.setId(1);
+        return subscription;
+    }
+
+    private static SyncReport report() {
+        return new SyncReport(1, SyncScheduler.PRIORITY_MANUAL, 0, 0, System.currentTimeMillis());
+    }
+
+    /**
+     * 只实现同步用到的方法，记录调用顺序
+     */
+    private EventDao fakeDao() {
+        return (EventDao) Proxy.newProxyInstance(EventDao.class.getClassLoader(), new Class<?>[]{EventDao.class},
+                (proxy, method, args) -> {
+                    daoCalls.add(method.getName());
+                    switch (method.getName()) {
+                        case "getSubscriptionSnapshot":
+                            return new ArrayList<EventSnapshot>();
+                        case "applySubscriptionChanges":
+                            writtenEvents += ((List<?>) args[0]).size() + ((List<?>) args[1]).size();
+                            return null;
+                        case "deleteSubscriptionEvents":
+                        case "updateSubscription":
+                            return null;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.calendar.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ * // 功能：IcsDateTimeParser 与原来基于 SimpleDateFormat 的解析在随机语料上逐行比较
+ * 语料覆盖 DATE、UTC 和本地 DATE-TIME，以及各时区夏令时切换前后（跳过和重复的时段）
+ */
+public class IcsDateTimeParserTest {
+
+    private static final String[] ZONES = {
+            "UTC",
+            "Asia/Shanghai",
+            "America/New_York",
+            "Europe/London",
+            "Europe/Berlin",
+            "America/Sao_Paulo",   // 午夜切换
+            "Australia/Lord_Howe", // 半小时夏令时
+            "America/St_Johns",    // 非整点偏移
+            "Pacific/Apia",        // 2011 年跳过一整天
+    };
+    private static final int RANDOM_LINES_PER_ZONE = 20000;
+    private static final long SEED = 20240101L;
+    private static final DateTimeFormatter WALL = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    @Test
+    public void randomLinesMatchSimpleDateFormat() {
+        Random random = new Random(SEED);
+        for (String id : ZONES) {
+            TimeZone zone = TimeZone.getTimeZone(id);
+            IcsDateTimeParser parser = new IcsDateTimeParser(zone);
+            for (int i = 0; i < RANDOM_LINES_PER_ZONE; i++) {
+                assertSame(parser, zone, randomLine(random));
+            }
+        }
+    }
+
+    @Test
+    public void dstGapAndOverlapMatchSimpleDateFormat() {
+        for (String id : ZONES) {
+            TimeZone zone = TimeZone.getTimeZone(id);
+            IcsDateTimeParser parser = new IcsDateTimeParser(zone);
+            ZoneRules rules = ZoneId.of(id).getRules();
+            ZoneOffsetTransition transition = rules.nextTransition(Instant.parse("1970-01-01T00:00:00Z"));
+            Instant end = Instant.parse("2040-01-01T00:00:00Z");
+            while (transition != null && transition.getInstant().isBefore(end)) {
+                // 切换前后各两小时，每 15 分钟一个本地时间，覆盖被跳过和重复的时段
+                LocalDateTime wall = transition.getDateTimeBefore().minusHours(2);
+                for (int step = 0; step <= 16; step++) {
+                    String value = wall.plusMinutes(15L * step).format(WALL);
+                    assertSame(parser, zone, "DTSTART:" + value);
+                    assertSame(parser, zone, "DTEND:" + value + "Z");
+                }
+                transition = rules.nextTransition(transition.getInstant());
+            }
+        }
+    }
+
+    @Test
+    public void dateValuesMatchSimpleDateFormat() {
+        for (String id : ZONES) {
+            TimeZone zone = TimeZone.getTimeZone(id);
+            IcsDateTimeParser parser = new IcsDateTimeParser(zone);
+            // Apia 2011-12-30 整天被跳过
+            assertSame(parser, zone, "DTSTART;VALUE=DATE:20111230");
+            assertSame(parser, zone, "DTSTART;VALUE=DATE:20111231");
+            assertSame(parser, zone, "DTSTART;VALUE=DATE:20240229");
+            // 宽松解析：超出范围的月、日向前进位
+            assertSame(parser, zone, "DTSTART;VALUE=DATE:20241301");
+            assertSame(parser, zone, "DTSTART;VALUE=DATE:20240231");
+            assertSame(parser, zone, "DTSTART:20240101T246000");
+        }
+    }
+
+    private static void assertSame(IcsDateTimeParser parser, TimeZone zone, String line) {
+        assertEquals(zone.getID() + " " + line, legacyParse(line, zone), parser.parse(line));
+    }
+
+    /**
+     * 生成一行随机的 DTSTART/DTEND：1902-2099 年，DATE、UTC 或本地时间
+     */
+    private static String randomLine(Random random) {
+        long seconds = LocalDateTime.of(1902, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC)
+                + (long) (random.nextDouble() * 198 * 365.2425 * 86400);
+        String value = LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC).format(WALL);
+        String name = random.nextBoolean() ? "DTSTART" : "DTEND";
+        switch (random.nextInt(3)) {
+            case 0:
+                return name + ";VALUE=DATE:" + value.substring(0, 8);
+            case 1:
+                return name + ":" + value + "Z";
+            default:
+                return name + ":" + value;
+        }
+    }
+
+    /**
+     * 原来 IcsImportExportUtils.parseIcsDateTime 的实现，默认时区改为参数
+     */
+    private static long legacyParse(String line, TimeZone localZone) {
+        try {
+            String value = legacyValue(line);
+
+            // 全天事件（DATE）
+            if (line.contains("VALUE=DATE")) {
+                SimpleDateFormat sdf = new SimpleDateFormat("yyyyMMdd", Locale.US);
+                sdf.setTimeZone(localZone);
+                Date date = sdf.parse(value);
+                return date != null ? date.getTime() : 0;
+            }
+
+            // UTC 时间（Z）
+            if (value.endsWith("Z")) {
+                SimpleDateFormat sdf = new SimpleDateFormat(
+                        "yyyyMMdd'T'HHmmss'Z'", Locale.US);
+                sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
+                Date date = sdf.parse(value);
+                return date != null ? date.getTime() : 0;
+            }
+
+            // 本地时间
+            SimpleDateFormat sdf = new SimpleDateFormat(
+                    "yyyyMMdd'T'HHmmss", Locale.US);
+            sdf.setTimeZone(localZone);
+            Date date = sdf.parse(value);
+            return date != null ? date.getTime() : 0;
+
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private static String legacyValue(String line) {
+        int index = line.indexOf(':');
+        if (index == -1) return "";
+        return line.substring(index + 1).trim();
+    }
+}
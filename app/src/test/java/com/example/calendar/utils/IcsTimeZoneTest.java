@@ -0,0 +1,145 @@
+package com.example.calendar.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ * // 功能：带 TZID 的时间解析：VTIMEZONE 定义、系统时区名前缀和未知时区的回退
+ */
+public class IcsTimeZoneTest {
+
+    private static final TimeZone LOCAL = TimeZone.getTimeZone("Asia/Tokyo");
+    private static final TimeZone NEW_YORK = TimeZone.getTimeZone("America/New_York");
+    private static final DateTimeFormatter WALL = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    // Outlook 导出的 Windows 时区名，只有按 RRULE 重复的 STANDARD/DAYLIGHT 起点
+    private static final List<String> OUTLOOK_EASTERN = Arrays.asList(
+            "BEGIN:VTIMEZONE",
+            "TZID:Eastern Standard Time",
+            "BEGIN:STANDARD",
+            "DTSTART:16010101T020000",
+            "TZOFFSETFROM:-0400",
+            "TZOFFSETTO:-0500",
+            "RRULE:FREQ=YEARLY;INTERVAL=1;BYDAY=1SU;BYMONTH=11",
+            "END:STANDARD",
+            "BEGIN:DAYLIGHT",
+            "DTSTART:16010101T020000",
+            "TZOFFSETFROM:-0500",
+            "TZOFFSETTO:-0400",
+            "RRULE:FREQ=YEARLY;INTERVAL=1;BYDAY=2SU;BYMONTH=3",
+            "END:DAYLIGHT",
+            "END:VTIMEZONE");
+
+    @Test
+    public void outlookTimeZoneMatchesNewYorkSinceRuleChange() {
+        IcsDateTimeParser parser = new IcsDateTimeParser(LOCAL);
+        parser.addTimeZone(OUTLOOK_EASTERN);
+
+        // 2007 年以后美国东部的规则与 VTIMEZONE 中的 RRULE 相同
+        Random random = new Random(7);
+        long from = LocalDateTime.of(2008, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+        long span = LocalDateTime.of(2036, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC) - from;
+        for (int i = 0; i < 50000; i++) {
+            String value = LocalDateTime.ofEpochSecond(from + (long) (random.nextDouble() * span), 0, ZoneOffset.UTC)
+                    .format(WALL);
+            assertEquals(value, newYork(value), parser.parse("DTSTART;TZID=Eastern Standard Time:" + value));
+        }
+    }
+
+    @Test
+    public void outlookTimeZoneGapAndOverlap() {
+        IcsDateTimeParser parser = new IcsDateTimeParser(LOCAL);
+        parser.addTimeZone(OUTLOOK_EASTERN);
+
+        // 2024-03-10 02:30 被跳过，按切换前的 -05:00 换算
+        assertEquals(utc("20240310T073000"), parser.parse("DTSTART;TZID=Eastern Standard Time:20240310T023000"));
+        // 2024-11-03 01:30 出现两次，取切换后的 -05:00
+        assertEquals(utc("20241103T063000"), parser.parse("DTSTART;TZID=Eastern Standard Time:20241103T013000"));
+        // 引号括起的 TZID
+        assertEquals(utc("20240701T130000"), parser.parse("DTSTART;TZID=\"Eastern Standard Time\":20240701T090000"));
+        assertEquals(utc("20240115T140000"), parser.parse("DTEND;TZID=Eastern Standard Time:20240115T090000"));
+    }
+
+    @Test
+    public void definedTimeZoneWinsOverSystemZone() {
+        IcsDateTimeParser parser = new IcsDateTimeParser(LOCAL);
+        // 系统的 "EST" 是固定的 -05:00，文件中同名的定义带美国夏令时
+        parser.addTimeZone(renamed(OUTLOOK_EASTERN, "EST"));
+        parser.addTimeZone(renamed(OUTLOOK_EASTERN, "Custom/EST"));
+        assertEquals(utc("20250701T130000"), parser.parse("DTSTART;TZID=EST:20250701T090000"));
+        assertEquals(utc("20250701T130000"), parser.parse("DTSTART;TZID=Custom/EST:20250701T090000"));
+        assertEquals(utc("20250115T140000"), parser.parse("DTSTART;TZID=EST:20250115T090000"));
+        // 文件没有定义的 TZID 仍按系统时区
+        assertEquals(utc("20250701T140000"), new IcsDateTimeParser(LOCAL).parse("DTSTART;TZID=EST:20250701T090000"));
+    }
+
+    @Test
+    public void mozillaPrefixedTzidUsesSystemZone() {
+        IcsDateTimeParser parser = new IcsDateTimeParser(LOCAL);
+        String[] values = {"20240310T023000", "20241103T013000", "20240701T090000", "19950101T000000"};
+        for (String value : values) {
+            assertEquals(value, newYork(value),
+                    parser.parse("DTSTART;TZID=/mozilla.org/20050126_1/America/New_York:" + value));
+            assertEquals(value, newYork(value), parser.parse("DTSTART;TZID=America/New_York:" + value));
+        }
+    }
+
+    @Test
+    public void unknownTzidFallsBackToLocalZone() {
+        IcsDateTimeParser parser = new IcsDateTimeParser(LOCAL);
+        String value = "20240701T090000";
+        long local = parser.parse("DTSTART:" + value);
+        assertEquals(utc("20240701T000000"), local);
+        assertEquals(local, parser.parse("DTSTART;TZID=Mars Standard Time:" + value));
+        // 同一个未知 TZID 第二次使用缓存的结果
+        assertEquals(local, parser.parse("DTEND;TZID=Mars Standard Time:" + value));
+    }
+
+    @Test
+    public void invalidTimeZoneDefinitionIsIgnored() {
+        IcsDateTimeParser parser = new IcsDateTimeParser(LOCAL);
+        // 没有 STANDARD/DAYLIGHT 子组件，按未知 TZID 处理
+        parser.addTimeZone(Arrays.asList("BEGIN:VTIMEZONE", "TZID:Empty Zone", "END:VTIMEZONE"));
+        assertEquals(parser.parse("DTSTART:20240701T090000"),
+                parser.parse("DTSTART;TZID=Empty Zone:20240701T090000"));
+    }
+
+    private static List<String> renamed(List<String> vtimezone, String tzid) {
+        List<String> lines = new ArrayList<>();
+        for (String line : vtimezone) {
+            lines.add(line.startsWith("TZID:") ? "TZID:" + tzid : line);
+        }
+        return lines;
+    }
+
+    private static long newYork(String value) {
+        return parse(value, NEW_YORK);
+    }
+
+    private static long utc(String value) {
+        return parse(value, TimeZone.getTimeZone("UTC"));
+    }
+
+    private static long parse(String value, TimeZone zone) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyyMMdd'T'HHmmss", Locale.US);
+        format.setTimeZone(zone);
+        try {
+            return format.parse(value).getTime();
+        } catch (ParseException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
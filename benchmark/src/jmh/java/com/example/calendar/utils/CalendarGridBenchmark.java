@@ -0,0 +1,38 @@
+package com.example.calendar.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * // 功能：生成月视图42格日期网格的耗时（每次翻页新建月视图时调用）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CalendarGridBenchmark {
+
+    @Param({"2025"})
+    public int year;
+
+    @Param({"0", "1", "11"})
+    public int month;
+
+    @Benchmark
+    public List<CalendarUtils.DateInfo> getMonthDateList() {
+        return CalendarUtils.getMonthDateList(year, month);
+    }
+}
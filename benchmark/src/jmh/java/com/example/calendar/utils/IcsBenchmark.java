@@ -0,0 +1,104 @@
+package com.example.calendar.utils;
+
+import com.example.calendar.model.Event;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * // 功能：ICS 解析和生成的耗时与内存分配，语料从 1KB 到 50MB
+ * 配合 GC profiler（build.gradle 中已开启）查看每次操作分配的字节数
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IcsBenchmark {
+
+    @Param({"1KB", "100KB", "1MB", "10MB", "50MB"})
+    public String size;
+
+    private String content;
+    private byte[] bytes;
+    private List<Event> events;
+
+    @Setup
+    public void setUp() {
+        content = IcsCorpus.generate(IcsCorpus.parseSize(size), 42);
+        bytes = IcsCorpus.toBytes(content);
+        events = IcsImportExportUtils.parseIcsContent(content);
+    }
+
+    /**
+     * 整个文件已在内存中，解析为事件列表（大文件导入的路径，超过阈值时自动并行）
+     */
+    @Benchmark
+    public List<Event> parseIcsContent() {
+        return IcsImportExportUtils.parseIcsContent(content);
+    }
+
+    /**
+     * 整个文件已在内存中，单线程顺序解析
+     */
+    @Benchmark
+    public List<Event> parseSequential() throws IOException {
+        List<Event> result = new ArrayList<>();
+        try (IcsStreamParser parser = new IcsStreamParser(new StringReader(content))) {
+            Event event;
+            while ((event = parser.next()) != null) {
+                result.add(event);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 整个文件已在内存中，分块并行解析（不论大小）
+     * 线程数可用 -Djava.util.concurrent.ForkJoinPool.common.parallelism=N 调整
+     */
+    @Benchmark
+    public List<Event> parseParallel() {
+        return IcsParallelParser.parse(content);
+    }
+
+    /**
+     * 从字节流边解码边解析，不保留事件（文件导入的路径）
+     */
+    @Benchmark
+    public int parseStream(Blackhole blackhole) throws IOException {
+        try (IcsStreamParser parser = new IcsStreamParser(new ByteArrayInputStream(bytes))) {
+            Event event;
+            while ((event = parser.next()) != null) {
+                blackhole.consume(event);
+            }
+            return parser.getEventCount();
+        }
+    }
+
+    /**
+     * 把解析出的事件重新生成为 ICS 文本
+     */
+    @Benchmark
+    public String generateIcsContent() {
+        return IcsImportExportUtils.generateIcsContent(events);
+    }
+}
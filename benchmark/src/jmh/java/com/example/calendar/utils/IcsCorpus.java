@@ -0,0 +1,175 @@
+package com.example.calendar.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * // 功能：生成基准测试用的合成 ICS 语料
+ *
+ * 内容仿照常见的订阅源（节假日、课程表、会议）：中英文混合标题、带转义字符的地点、
+ * 超过75字节需要折行的长描述、约两成重复事件、全天/UTC/本地三种时间格式，
+ * 以及解析器需要跳过的 DTSTAMP、SEQUENCE、VALARM 等内容。
+ * 同一个种子和大小总是生成同样的内容，便于前后两次结果对比。
+ */
+final class IcsCorpus {
+
+    private static final String CRLF = "\r\n";
+    // RFC 5545 规定每行不超过75个字节（不含换行）
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private static final String[] TITLES = {
+            "项目周会", "Design review", "产品需求评审：日历同步", "Team standup",
+            "高等数学（第3周）", "Dentist appointment", "元旦", "Quarterly planning, Q3",
+            "客户拜访 - 上海", "1:1 with manager", "春节假期", "Release train 2.4"
+    };
+    private static final String[] LOCATIONS = {
+            "3楼大会议室", "Room 401\\, Building B", "线上会议", "北京市海淀区中关村大街1号",
+            "Zoom", "教学楼A-203", "Café Central\\; Terrace"
+    };
+    private static final String[] RRULES = {
+            "FREQ=WEEKLY;BYDAY=MO,WE,FR",
+            "FREQ=DAILY;COUNT=10",
+            "FREQ=MONTHLY;BYMONTHDAY=15",
+            "FREQ=WEEKLY;INTERVAL=2;BYDAY=TU;UNTIL=20261231T000000Z",
+            "FREQ=YEARLY"
+    };
+    private static final String DESCRIPTION_WORDS =
+            "议程：回顾上周进展\\n讨论本周计划\\, 确认负责人。Agenda: review open action items\\, "
+                    + "walk through the roadmap and agree on owners for the next milestone. ";
+
+    private IcsCorpus() {}
+
+    /**
+     * @param size 大小，如 "1KB"、"10MB"
+     * @return 字节数
+     */
+    static int parseSize(String size) {
+        if (size.endsWith("MB")) {
+            return Integer.parseInt(size.substring(0, size.length() - 2)) * 1024 * 1024;
+        }
+        if (size.endsWith("KB")) {
+            return Integer.parseInt(size.substring(0, size.length() - 2)) * 1024;
+        }
+        return Integer.parseInt(size);
+    }
+
+    /**
+     * 生成大约指定大小的 ICS 文本（按 UTF-8 字节计，最后一个事件写完为止）
+     * @param targetBytes 目标大小
+     * @param seed 随机种子
+     * @return ICS 文本
+     */
+    static String generate(int targetBytes, long seed) {
+        Random random = new Random(seed);
+        StringBuilder sb = new StringBuilder(targetBytes + 4096);
+        int[] octets = {0};
+
+        line(sb, octets, "BEGIN:VCALENDAR");
+        line(sb, octets, "VERSION:2.0");
+        line(sb, octets, "PRODID:-//Benchmark//Synthetic Feed//CN");
+        line(sb, octets, "CALSCALE:GREGORIAN");
+        line(sb, octets, "X-WR-CALNAME:合成订阅源");
+
+        int index = 0;
+        do {
+            appendEvent(sb, octets, random, index++);
+        } while (octets[0] < targetBytes);
+
+        line(sb, octets, "END:VCALENDAR");
+        return sb.toString();
+    }
+
+    private static void appendEvent(StringBuilder sb, int[] octets, Random random, int index) {
+        // 2024-2026 年之间的某一天，开始于 8:00-19:30 的整半点
+        int year = 2024 + random.nextInt(3);
+        int month = 1 + random.nextInt(12);
+        int day = 1 + random.nextInt(27);
+        int hour = 8 + random.nextInt(12);
+        int minute = random.nextBoolean() ? 0 : 30;
+        int durationMinutes = 30 * (1 + random.nextInt(4));
+
+        line(sb, octets, "BEGIN:VEVENT");
+        line(sb, octets, "UID:" + Long.toHexString(random.nextLong()) + "-" + index + "@bench.example.com");
+        line(sb, octets, "DTSTAMP:20250101T000000Z");
+
+        int kind = random.nextInt(100);
+        if (kind < 15) {
+            // 全天事件
+            line(sb, octets, "DTSTART;VALUE=DATE:" + date(year, month, day));
+            line(sb, octets, "DTEND;VALUE=DATE:" + date(year, month, day + 1));
+        } else {
+            int endHour = hour + (minute + durationMinutes) / 60;
+            int endMinute = (minute + durationMinutes) % 60;
+            String suffix = kind < 40 ? "Z" : "";
+            line(sb, octets, "DTSTART:" + date(year, month, day) + time(hour, minute) + suffix);
+            line(sb, octets, "DTEND:" + date(year, month, day) + time(endHour, endMinute) + suffix);
+        }
+
+        line(sb, octets, "SUMMARY:" + TITLES[random.nextInt(TITLES.length)]);
+        if (random.nextInt(100) < 70) {
+            line(sb, octets, "LOCATION:" + LOCATIONS[random.nextInt(LOCATIONS.length)]);
+        }
+        if (random.nextInt(100) < 60) {
+            // 一到三段长描述，折成多行
+            int repeat = 1 + random.nextInt(3);
+            StringBuilder description = new StringBuilder("DESCRIPTION:");
+            for (int i = 0; i < repeat; i++) {
+                description.append(DESCRIPTION_WORDS);
+            }
+            line(sb, octets, description.toString());
+        }
+        if (random.nextInt(100) < 20) {
+            line(sb, octets, "RRULE:" + RRULES[random.nextInt(RRULES.length)]);
+        }
+        line(sb, octets, "SEQUENCE:" + random.nextInt(3));
+        line(sb, octets, "STATUS:CONFIRMED");
+        if (random.nextInt(100) < 30) {
+            line(sb, octets, "BEGIN:VALARM");
+            line(sb, octets, "ACTION:AUDIO");
+            line(sb, octets, "TRIGGER:-PT15M");
+            line(sb, octets, "END:VALARM");
+        }
+        line(sb, octets, "END:VEVENT");
+    }
+
+    /**
+     * 写入一个内容行，超过75字节时按 RFC 5545 折行（续行以空格开头）
+     */
+    private static void line(StringBuilder sb, int[] octets, String content) {
+        int lineOctets = 0;
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            int charOctets = c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+            if (lineOctets + charOctets > MAX_LINE_OCTETS) {
+                sb.append(CRLF).append(' ');
+                octets[0] += 3;
+                lineOctets = 1;
+            }
+            sb.append(c);
+            lineOctets += charOctets;
+            octets[0] += charOctets;
+        }
+        sb.append(CRLF);
+        octets[0] += 2;
+    }
+
+    private static String date(int year, int month, int day) {
+        return year + pad2(month) + pad2(day);
+    }
+
+    private static String time(int hour, int minute) {
+        return "T" + pad2(hour) + pad2(minute) + "00";
+    }
+
+    private static String pad2(int value) {
+        return value < 10 ? "0" + value : String.valueOf(value);
+    }
+
+    /**
+     * @param content ICS 文本
+     * @return UTF-8 编码后的字节
+     */
+    static byte[] toBytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.calendar.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * // 功能：解析单个 DTSTART/DTEND 行的耗时
+ * 分别测试全天、UTC、本地时间和带 TZID 的时间，本地时间使用有夏令时的时区
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IcsDateTimeBenchmark {
+
+    @Param({"DTSTART;VALUE=DATE:20250101",
+            "DTSTART:20251229T080000Z",
+            "DTEND:20250330T023000",
+            "DTSTART;TZID=America/New_York:20251102T013000"})
+    public String line;
+
+    private IcsDateTimeParser parser;
+
+    @Setup
+    public void setUp() {
+        parser = new IcsDateTimeParser(TimeZone.getTimeZone("Europe/Berlin"));
+    }
+
+    @Benchmark
+    public long parse() {
+        return parser.parse(line);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.calendar.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * // 功能：公历农历互转和单元格显示文本的耗时
+ * 每次调用处理一整年的日期，结果按单个日期平均
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LunarConverterBenchmark {
+
+    private static final int DAYS = 365;
+
+    @Param({"1950", "2025", "2099"})
+    public int year;
+
+    private Solar[] solars;
+    private Lunar[] lunars;
+
+    @Setup
+    public void setUp() {
+        solars = new Solar[DAYS];
+        lunars = new Lunar[DAYS];
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(year, Calendar.JANUARY, 1);
+        for (int i = 0; i < DAYS; i++) {
+            Solar solar = new Solar();
+            solar.solarYear = calendar.get(Calendar.YEAR);
+            solar.solarMonth = calendar.get(Calendar.MONTH) + 1;
+            solar.solarDay = calendar.get(Calendar.DAY_OF_MONTH);
+            solars[i] = solar;
+            lunars[i] = LunarSolarConverterUtils.SolarToLunar(solar);
+            calendar.add(Calendar.DAY_OF_MONTH, 1);
+        }
+        // 提前建好日表，getDisplayText 只比较查询本身
+        LunarDayTable.get(year, 0, 1);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DAYS)
+    public void solarToLunar(Blackhole blackhole) {
+        for (Solar solar : solars) {
+            blackhole.consume(LunarSolarConverterUtils.SolarToLunar(solar));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DAYS)
+    public void lunarToSolar(Blackhole blackhole) {
+        for (Lunar lunar : lunars) {
+            blackhole.consume(LunarSolarConverterUtils.LunarToSolar(lunar));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DAYS)
+    public void getDisplayText(Blackhole blackhole) {
+        for (Solar solar : solars) {
+            blackhole.consume(LunarUtils.getDisplayText(solar.solarYear, solar.solarMonth - 1, solar.solarDay));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.calendar.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * // 功能：月视图农历文本的耗时对比：逐格实时计算 vs 查预先计算的农历日表
+ * 每次调用处理一整个月的42个格子
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LunarLabelBenchmark {
+
+    @Param({"2025"})
+    public int year;
+
+    @Param({"0", "5", "9"})
+    public int month;
+
+    private int[] years;
+    private int[] months;
+    private int[] days;
+
+    @Setup
+    public void setUp() {
+        List<CalendarUtils.DateInfo> dateList = CalendarUtils.getMonthDateList(year, month);
+        years = new int[dateList.size()];
+        months = new int[dateList.size()];
+        days = new int[dateList.size()];
+        for (int i = 0; i < dateList.size(); i++) {
+            years[i] = dateList.get(i).getYear();
+            months[i] = dateList.get(i).getMonth();
+            days[i] = dateList.get(i).getDay();
+            // 提前建好日表，只比较查询本身
+            LunarDayTable.get(years[i], months[i], days[i]);
+        }
+    }
+
+    /**
+     * 原实现：每个格子分别计算显示文本和农历节日
+     */
+    @Benchmark
+    public void computeMonth(Blackhole blackhole) {
+        for (int i = 0; i < years.length; i++) {
+            blackhole.consume(LunarUtils.computeDisplayText(years[i], months[i], days[i]));
+            blackhole.consume(LunarUtils.computeIsLunarHoliday(years[i], months[i], days[i]));
+        }
+    }
+
+    /**
+     * 新实现：每个格子查一次日表
+     */
+    @Benchmark
+    public void tableMonth(Blackhole blackhole) {
+        for (int i = 0; i < years.length; i++) {
+            int info = LunarDayTable.get(years[i], months[i], days[i]);
+            blackhole.consume(LunarDayTable.getLabel(info));
+            blackhole.consume(LunarDayTable.isLunarHoliday(info));
+        }
+    }
+
+    /**
+     * 生成一整年日表的一次性开销
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int[] buildYear() {
+        return LunarDayTable.buildYear(year);
+    }
+}
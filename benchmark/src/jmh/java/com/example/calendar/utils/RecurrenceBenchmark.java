@@ -0,0 +1,66 @@
+package com.example.calendar.utils;
+
+import com.example.calendar.model.Event;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * // 功能：展开重复事件实例的耗时
+ * 事件从三年前开始重复，查询窗口为一个月（月视图）或一年（建立实例索引），
+ * 包含跳过窗口之前所有实例的开销
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RecurrenceBenchmark {
+
+    @Param({"FREQ=DAILY",
+            "FREQ=WEEKLY;BYDAY=MO,WE,FR",
+            "FREQ=MONTHLY;BYDAY=2TU",
+            "FREQ=YEARLY;BYMONTH=1,7;BYMONTHDAY=1"})
+    public String rrule;
+
+    @Param({"month", "year"})
+    public String window;
+
+    private Event event;
+    private long from;
+    private long to;
+
+    @Setup
+    public void setUp() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2022, Calendar.MARCH, 1, 9, 0, 0);
+        event = new Event("周会", "每周例行会议", "3楼会议室",
+                calendar.getTimeInMillis(), calendar.getTimeInMillis() + 60 * 60 * 1000L, 1);
+        event.setRrule(rrule);
+
+        calendar.set(2025, Calendar.JUNE, 1, 0, 0, 0);
+        from = calendar.getTimeInMillis();
+        calendar.add("year".equals(window) ? Calendar.YEAR : Calendar.MONTH, 1);
+        to = calendar.getTimeInMillis();
+    }
+
+    @Benchmark
+    public List<Event> getRecurrenceInstances() {
+        return RecurrenceUtils.getRecurrenceInstances(event, from, to);
+    }
+}
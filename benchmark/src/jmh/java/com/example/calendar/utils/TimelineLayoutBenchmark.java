@@ -0,0 +1,88 @@
+package com.example.calendar.utils;
+
+import com.example.calendar.model.Event;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * // 功能：日视图时间轴排版的耗时
+ * 模拟订阅了多个密集日历的一天：事件集中在 8:00-20:00，时长 15 分钟到 3 小时，
+ * 少量跨天事件；同时比较排版结果缓存命中时的开销
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TimelineLayoutBenchmark {
+
+    @Param({"20", "100", "300", "1000"})
+    public int eventCount;
+
+    private List<Event> events;
+    private long dayStart;
+    private long dayEnd;
+
+    @Setup
+    public void setUp() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2025, Calendar.JUNE, 16);
+        dayStart = calendar.getTimeInMillis();
+        calendar.add(Calendar.DAY_OF_MONTH, 1);
+        dayEnd = calendar.getTimeInMillis();
+
+        Random random = new Random(42);
+        events = new ArrayList<>(eventCount);
+        for (int i = 0; i < eventCount; i++) {
+            long start;
+            long duration;
+            if (random.nextInt(20) == 0) {
+                // 前一天开始、跨过零点的事件
+                start = dayStart - (1 + random.nextInt(6)) * 3600_000L;
+                duration = (8 + random.nextInt(16)) * 3600_000L;
+            } else {
+                start = dayStart + (8 * 60 + random.nextInt(12 * 4) * 15) * 60_000L;
+                duration = (1 + random.nextInt(12)) * 15 * 60_000L;
+            }
+            Event event = new Event("订阅事件 " + i, null, null, start, start + duration, 4);
+            event.setId(i + 1);
+            events.add(event);
+        }
+        // 与数据库查询结果一样按开始时间排序
+        events.sort((a, b) -> Long.compare(a.getStartTime(), b.getStartTime()));
+    }
+
+    /**
+     * 每次都重新排版
+     */
+    @Benchmark
+    public TimelineLayoutEngine.DayLayout layoutDay() {
+        return TimelineLayoutEngine.layoutDay(events, dayStart, dayEnd);
+    }
+
+    /**
+     * 事件没有变化，命中按天缓存的排版（只需逐个比较事件）
+     */
+    @Benchmark
+    public TimelineLayoutEngine.DayLayout getDayLayoutCached() {
+        return TimelineLayoutEngine.getDayLayout(events, dayStart, dayEnd);
+    }
+}
@@ -0,0 +1,17 @@
+package android.content;
+
+import android.content.res.AssetFileDescriptor;
+import android.net.Uri;
+
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+
+/**
+ * // 功能：基准测试在 JVM 上运行时替代 Android 的 ContentResolver，只用于编译
+ */
+public abstract class ContentResolver {
+
+    public abstract InputStream openInputStream(Uri uri) throws FileNotFoundException;
+
+    public abstract AssetFileDescriptor openAssetFileDescriptor(Uri uri, String mode) throws FileNotFoundException;
+}
@@ -0,0 +1,9 @@
+package android.content;
+
+/**
+ * // 功能：基准测试在 JVM 上运行时替代 Android 的 Context，只用于编译
+ */
+public abstract class Context {
+
+    public abstract ContentResolver getContentResolver();
+}
@@ -0,0 +1,11 @@
+package android.content.res;
+
+import java.io.Closeable;
+
+/**
+ * // 功能：基准测试在 JVM 上运行时替代 Android 的 AssetFileDescriptor，只用于编译
+ */
+public abstract class AssetFileDescriptor implements Closeable {
+
+    public abstract long getLength();
+}
@@ -0,0 +1,7 @@
+package android.net;
+
+/**
+ * // 功能：基准测试在 JVM 上运行时替代 Android 的 Uri，只用于编译
+ */
+public abstract class Uri {
+}
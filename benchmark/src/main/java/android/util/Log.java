@@ -0,0 +1,34 @@
+package android.util;
+
+/**
+ * // 功能：基准测试在 JVM 上运行时替代 Android 的 Log，不输出任何内容
+ * 只用于编译 app 中的工具类，不要在基准测试代码中直接使用
+ */
+public final class Log {
+
+    private Log() {}
+
+    public static int d(String tag, String msg) {
+        return 0;
+    }
+
+    public static int i(String tag, String msg) {
+        return 0;
+    }
+
+    public static int w(String tag, String msg) {
+        return 0;
+    }
+
+    public static int w(String tag, String msg, Throwable tr) {
+        return 0;
+    }
+
+    public static int e(String tag, String msg) {
+        return 0;
+    }
+
+    public static int e(String tag, String msg, Throwable tr) {
+        return 0;
+    }
+}